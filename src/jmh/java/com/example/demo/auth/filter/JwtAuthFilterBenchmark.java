@@ -0,0 +1,101 @@
+package com.example.demo.auth.filter;
+
+import com.example.demo.auth.metrics.AuthMetrics;
+import com.example.demo.auth.model.User;
+import com.example.demo.auth.revocation.RevocationIndex;
+import com.example.demo.auth.service.JWTServiceImpl;
+import com.example.demo.auth.service.JwtVerificationBenchmark;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead {@link JwtAuthFilter} adds to each kind of request, and compares the
+ * precompiled public-path matcher with the stream-based prefix check it replaced.
+ * <p>
+ * Authenticated requests use claims-trust mode, so no database lookup is included.
+ * </p>
+ * <p>
+ * {@code instrumentation=metrics} records the per-stage {@link AuthMetrics} timers (with
+ * percentile histograms) into a live registry; the difference to {@code none} is their overhead.
+ * </p>
+ * <p>
+ * Run with: {@code ./gradlew jmh -PjmhIncludes=JwtAuthFilterBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"auth", "actuator", "static", "anonymous", "authenticated"})
+    public String requestType;
+
+    @Param({"none", "metrics"})
+    public String instrumentation;
+
+    private static final List<String> LEGACY_PUBLIC_URLS = List.of("/api/auth");
+
+    private JwtAuthFilter filter;
+    private MockHttpServletRequest request;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final FilterChain chain = (req, res) -> SecurityContextHolder.clearContext();
+
+    @Setup
+    public void setUp() {
+        JWTServiceImpl jwtService = JwtVerificationBenchmark.newJwtService(false);
+        filter = new JwtAuthFilter(
+                jwtService,
+                username -> {
+                    throw new IllegalStateException("claims-trust mode must not load users");
+                },
+                new RevocationIndex(100_000, 0.001, 3_600_000),
+                instrumentation.equals("metrics")
+                        ? new AuthMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP)
+                        : AuthMetrics.noop(),
+                true
+        );
+
+        request = new MockHttpServletRequest("GET", path());
+        request.setServletPath(path());
+        if (requestType.equals("authenticated")) {
+            String token = jwtService.generateToken(new User("9876543210", Set.of("ROLE_USER")));
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+    }
+
+    @Benchmark
+    public void doFilter() throws ServletException, IOException {
+        filter.doFilter(request, response, chain);
+    }
+
+    @Benchmark
+    public boolean publicPathTrie() {
+        return PublicPaths.matches(request.getServletPath());
+    }
+
+    @Benchmark
+    public boolean publicPathStream() {
+        String path = request.getServletPath();
+        return LEGACY_PUBLIC_URLS.stream().anyMatch(path::startsWith);
+    }
+
+    private String path() {
+        return switch (requestType) {
+            case "auth" -> "/api/auth/verify-otp";
+            case "actuator" -> "/actuator/health/liveness";
+            case "static" -> "/css/app.css";
+            default -> "/api/users/9876543210";
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.auth.mapper;
+
+import com.example.demo.auth.dto.UserDto;
+import com.example.demo.auth.model.User;
+import com.example.demo.auth.repository.UserView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link UserMapper#toDTO} over a list of users, from entities and from the
+ * {@link UserView} projections the list and stream endpoints read.
+ * <p>
+ * Run with: {@code ./gradlew jmh -PjmhIncludes=UserMapperBenchmark -PjmhProfilers=gc}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserMapperBenchmark {
+
+    @Param({"100", "10000"})
+    public int userCount;
+
+    private final UserMapper userMapper = new UserMapper();
+    private List<User> users;
+    private List<UserView> views;
+
+    @Setup
+    public void setUp() {
+        users = new ArrayList<>(userCount);
+        views = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            String phoneNumber = "+1555" + String.format("%07d", i);
+            Set<String> roles = i % 10 == 0 ? Set.of("ROLE_USER", "ROLE_ADMIN") : Set.of("ROLE_USER");
+            users.add(new User(phoneNumber, roles));
+            views.add(new View((long) i, phoneNumber, roles.toArray(String[]::new)));
+        }
+    }
+
+    @Benchmark
+    public List<UserDto> fromEntities() {
+        List<UserDto> result = new ArrayList<>(users.size());
+        for (User user : users) {
+            result.add(userMapper.toDTO(user));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<UserDto> fromViews() {
+        List<UserDto> result = new ArrayList<>(views.size());
+        for (UserView view : views) {
+            result.add(userMapper.toDTO(view));
+        }
+        return result;
+    }
+
+    private record View(Long getId, String getPhoneNumber, String[] getRoles) implements UserView {
+    }
+}
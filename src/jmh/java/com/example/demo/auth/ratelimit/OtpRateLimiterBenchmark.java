@@ -0,0 +1,67 @@
+package com.example.demo.auth.ratelimit;
+
+import com.example.demo.auth.config.RateLimitProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of rate limiting per request ({@link OtpRateLimiter#checkVerification}
+ * and one {@link OtpRateLimiter#checkProviderCall}): three bucket lookups and compare-and-set
+ * updates in the {@link InMemoryRateLimitStore}.
+ * <p>
+ * {@code distinctClients} spreads requests over that many IP addresses and phone numbers,
+ * so the larger value also covers map growth and cache misses. Limits are set high enough
+ * that no request is rejected. Runs with four threads to include contention on the shared
+ * provider bucket.
+ * </p>
+ * <p>
+ * Run with: {@code ./gradlew jmh -PjmhIncludes=OtpRateLimiterBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class OtpRateLimiterBenchmark {
+
+    @Param({"1", "10000"})
+    public int distinctClients;
+
+    private OtpRateLimiter limiter;
+    private String[] clientIps;
+    private String[] phoneNumbers;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Limit unlimited = new RateLimitProperties.Limit(Long.MAX_VALUE / 2, Duration.ofDays(1));
+        properties.setIp(unlimited);
+        properties.setPhoneNumber(unlimited);
+        properties.setProvider(unlimited);
+        limiter = new OtpRateLimiter(
+                new InMemoryRateLimitStore(properties.getMaximumKeys(), properties.getIdleTimeout()),
+                properties);
+
+        clientIps = new String[distinctClients];
+        phoneNumbers = new String[distinctClients];
+        for (int i = 0; i < distinctClients; i++) {
+            clientIps[i] = "10.0." + (i / 256) + "." + (i % 256);
+            phoneNumbers[i] = "+1555" + String.format("%07d", i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void checkVerification(Cursor cursor) {
+        int i = cursor.next;
+        cursor.next = i + 1 == distinctClients ? 0 : i + 1;
+        limiter.checkVerification(clientIps[i], phoneNumbers[i]);
+        limiter.checkProviderCall("TWILIO");
+    }
+}
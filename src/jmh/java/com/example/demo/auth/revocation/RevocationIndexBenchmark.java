@@ -0,0 +1,60 @@
+package com.example.demo.auth.revocation;
+
+import com.example.demo.auth.dto.JwtPrincipal;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the revocation check the JWT filter runs on every authenticated request.
+ * <p>
+ * The index holds {@code revokedEntries} revoked token IDs and as many revoked subjects.
+ * {@code valid} checks a token that is not revoked (the common case, answered by the Bloom
+ * filters); {@code revoked} checks a revoked token (filter hit plus exact map lookup).
+ * </p>
+ * <p>
+ * Run with: {@code ./gradlew jmh -PjmhIncludes=RevocationIndexBenchmark -PjmhProfilers=gc}
+ * (the check should allocate nothing).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RevocationIndexBenchmark {
+
+    @Param({"0", "10000", "1000000"})
+    public int revokedEntries;
+
+    private RevocationIndex index;
+    private JwtPrincipal valid;
+    private JwtPrincipal revoked;
+
+    @Setup
+    public void setUp() {
+        index = new RevocationIndex(100_000, 0.001, 3_600_000);
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusSeconds(3600);
+        String revokedId = UUID.randomUUID().toString();
+        for (int i = 0; i < revokedEntries; i++) {
+            index.revokeToken(i == 0 ? revokedId : UUID.randomUUID().toString(), expiresAt);
+            index.revokeSubject("+1777" + String.format("%07d", i), now);
+        }
+
+        valid = new JwtPrincipal("+15550001", Set.of("ROLE_USER"), now, expiresAt, UUID.randomUUID().toString());
+        revoked = new JwtPrincipal("+15550002", Set.of("ROLE_USER"), now, expiresAt,
+                revokedEntries > 0 ? revokedId : UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public boolean valid() {
+        return index.isRevoked(valid);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return index.isRevoked(revoked);
+    }
+}
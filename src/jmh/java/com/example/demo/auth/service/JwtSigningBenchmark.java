@@ -0,0 +1,151 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.config.JwtSigningProperties;
+import com.example.demo.auth.dto.JwtPrincipal;
+import com.example.demo.auth.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of {@link JWTServiceImpl} per signing algorithm.
+ * <p>
+ * {@link Tokens} measures complete tokens for the algorithms the service supports (HS256 and
+ * ES256). JJWT 0.11 has no EdDSA support, so {@link Primitives} compares the bare JCA signature
+ * operations, including Ed25519, over a signing input of typical token size.
+ * </p>
+ * <p>
+ * Run with: {@code ./gradlew jmh -PjmhIncludes=JwtSigningBenchmark}
+ * </p>
+ */
+public class JwtSigningBenchmark {
+
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public static class Tokens {
+
+        @Param({"HS256", "ES256"})
+        public String algorithm;
+
+        private JWTServiceImpl jwtService;
+        private User user;
+        private String token;
+
+        @Setup
+        public void setUp() throws GeneralSecurityException {
+            JwtSigningProperties properties = new JwtSigningProperties();
+            if (algorithm.equals("ES256")) {
+                KeyPair keyPair = newKeyPair("EC");
+                JwtSigningProperties.KeyPairLocation location = new JwtSigningProperties.KeyPairLocation();
+                location.setPrivateKey(pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+                location.setPublicKey(pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+                properties.setAlgorithm(JwtSigningProperties.Algorithm.ES256);
+                properties.setActiveKeyId("bench");
+                properties.getKeys().put("bench", location);
+            }
+            jwtService = new JWTServiceImpl(new JwtKeyring(properties));
+            ReflectionTestUtils.setField(jwtService, "secret", "ad28f7d33baf724a97ac961bc87c230167bd1d9e8a4b689fbd35b9cd1e8a32f1");
+            ReflectionTestUtils.setField(jwtService, "expiration", 3_600_000L);
+            jwtService.init();
+
+            user = new User("9876543210", Set.of("ROLE_USER"));
+            token = jwtService.generateToken(user);
+        }
+
+        @Benchmark
+        public String sign() {
+            return jwtService.generateToken(user);
+        }
+
+        @Benchmark
+        public JwtPrincipal verify() {
+            return jwtService.verifyToken(token);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public static class Primitives {
+
+        @Param({"HS256", "ES256", "Ed25519"})
+        public String algorithm;
+
+        private final byte[] signingInput = ("eyJhbGciOiJFUzI1NiIsImtpZCI6ImJlbmNoIn0."
+                + "eyJzdWIiOiI5ODc2NTQzMjEwIiwiaWF0IjoxNzYwNzc0NDAwLCJleHAiOjE3NjA3NzgwMDAsInJvbGVzIjpbIlJPTEVfVVNFUiJdfQ")
+                .getBytes(StandardCharsets.US_ASCII);
+
+        private SecretKeySpec hmacKey;
+        private KeyPair keyPair;
+        private String jcaAlgorithm;
+        private byte[] signature;
+
+        @Setup
+        public void setUp() throws GeneralSecurityException {
+            if (algorithm.equals("HS256")) {
+                hmacKey = new SecretKeySpec(new byte[32], "HmacSHA256");
+            } else {
+                keyPair = newKeyPair(algorithm.equals("ES256") ? "EC" : "Ed25519");
+                jcaAlgorithm = algorithm.equals("ES256") ? "SHA256withECDSAinP1363Format" : "Ed25519";
+            }
+            signature = sign();
+        }
+
+        @Benchmark
+        public byte[] sign() throws GeneralSecurityException {
+            if (hmacKey != null) {
+                return hmac();
+            }
+            Signature signer = Signature.getInstance(jcaAlgorithm);
+            signer.initSign(keyPair.getPrivate());
+            signer.update(signingInput);
+            return signer.sign();
+        }
+
+        @Benchmark
+        public boolean verify() throws GeneralSecurityException {
+            if (hmacKey != null) {
+                return MessageDigest.isEqual(signature, hmac());
+            }
+            Signature verifier = Signature.getInstance(jcaAlgorithm);
+            verifier.initVerify(keyPair.getPublic());
+            verifier.update(signingInput);
+            return verifier.verify(signature);
+        }
+
+        private byte[] hmac() throws GeneralSecurityException {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            return mac.doFinal(signingInput);
+        }
+    }
+
+    private static KeyPair newKeyPair(String algorithm) throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+        if (algorithm.equals("EC")) {
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+        }
+        return generator.generateKeyPair();
+    }
+
+    private static ByteArrayResource pem(String type, byte[] der) {
+        String pem = "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+        return new ByteArrayResource(pem.getBytes(StandardCharsets.US_ASCII));
+    }
+}
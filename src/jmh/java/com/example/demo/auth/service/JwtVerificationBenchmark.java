@@ -0,0 +1,49 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.config.JwtSigningProperties;
+import com.example.demo.auth.dto.JwtPrincipal;
+import com.example.demo.auth.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link JWTServiceImpl#verifyToken(String)} with and without the verified-token cache.
+ * <p>
+ * Run with: {@code ./gradlew jmh -PjmhIncludes=JwtVerificationBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtVerificationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean verifiedCache;
+
+    private JWTServiceImpl jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = newJwtService(verifiedCache);
+        token = jwtService.generateToken(new User("9876543210", Set.of("ROLE_USER")));
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyToken() {
+        return jwtService.verifyToken(token);
+    }
+
+    public static JWTServiceImpl newJwtService(boolean verifiedCache) {
+        JWTServiceImpl service = new JWTServiceImpl(new JwtKeyring(new JwtSigningProperties()));
+        ReflectionTestUtils.setField(service, "secret", "ad28f7d33baf724a97ac961bc87c230167bd1d9e8a4b689fbd35b9cd1e8a32f1");
+        ReflectionTestUtils.setField(service, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(service, "verifiedCacheEnabled", verifiedCache);
+        ReflectionTestUtils.setField(service, "verifiedCacheMaximumSize", 10_000L);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.auth.util;
+
+import com.example.demo.auth.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares {@link User#getAuthorities()} backed by the {@link Authorities} registry with the
+ * per-call stream into new {@link SimpleGrantedAuthority} objects it replaced.
+ * <p>
+ * Run with the GC profiler to see the allocation per call ({@code gc.alloc.rate.norm}):
+ * {@code ./gradlew jmh -PjmhIncludes=AuthoritiesBenchmark -PjmhProfilers=gc}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthoritiesBenchmark {
+
+    @Param({"1", "3"})
+    public int roleCount;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        Set<String> roles = new HashSet<>();
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(i == 0 ? "ROLE_USER" : "ROLE_EXTRA_" + i);
+        }
+        user = new User("9876543210", roles);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> registry() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> stream() {
+        return user.getRoles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.auth.loadtest;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the configured mix of {@link Operation}s to a running application and records each
+ * request in a {@link LoadReport}.
+ * <p>
+ * Two load models are supported:
+ * <ul>
+ *     <li><strong>Closed loop</strong> (<code>loadtest.rate=0</code>) – <code>concurrency</code>
+ *     virtual users each send their next request when the previous one completed. Finds the
+ *     maximum throughput, but a slow server also slows down the load.</li>
+ *     <li><strong>Open loop</strong> (<code>loadtest.rate&gt;0</code>) – requests are started
+ *     at a fixed rate, at most <code>concurrency</code> in flight. Latency is measured from
+ *     each request's scheduled start, so time spent queued behind a slow server is included
+ *     (no coordinated omission).</li>
+ * </ul>
+ * Every request runs on its own virtual thread.
+ * </p>
+ */
+public class LoadGenerator implements AutoCloseable {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PREPARE_ATTEMPTS = 10;
+
+    private final LoadTestSettings settings;
+    private final URI baseUri;
+    private final HttpClient client;
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicLong nonces = new AtomicLong();
+
+    /**
+     * Virtual users logged in by {@link #prepare()}: phone number and JWT.
+     */
+    private final List<Session> sessions = new ArrayList<>();
+
+    /**
+     * @param settings the run's settings
+     * @param baseUri  the application's root, e.g. <code>http://localhost:8080</code>
+     */
+    public LoadGenerator(LoadTestSettings settings, URI baseUri) {
+        this.settings = settings;
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.operations = settings.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += settings.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Logs in one user per unit of concurrency, whose JWTs the authenticated requests use.
+     * Each login is retried a few times, since the stub provider may be configured to fail.
+     *
+     * @throws IllegalStateException if a login keeps failing
+     */
+    public void prepare() throws IOException, InterruptedException {
+        for (int i = 0; i < Math.max(1, settings.concurrency()); i++) {
+            String phoneNumber = phoneNumber(i);
+            HttpResponse<String> response = null;
+            for (int attempt = 0; attempt < PREPARE_ATTEMPTS && (response == null || response.statusCode() != 200); attempt++) {
+                response = client.send(login(phoneNumber + "#" + nonces.incrementAndGet()), HttpResponse.BodyHandlers.ofString());
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login of " + phoneNumber + " failed: " + response.statusCode() + " " + response.body());
+            }
+            String jwt = jsonMapper.readTree(response.body()).get("jwt").asString();
+            sessions.add(new Session(phoneNumber, jwt));
+        }
+    }
+
+    /**
+     * Runs the workload for the given time.
+     *
+     * @param duration how long to send requests
+     * @return the recorded requests
+     */
+    public LoadReport run(Duration duration) {
+        LoadReport report = new LoadReport();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (settings.openLoop()) {
+                runOpenLoop(executor, deadline, report);
+            } else {
+                for (int i = 0; i < settings.concurrency(); i++) {
+                    executor.execute(() -> {
+                        while (System.nanoTime() < deadline) {
+                            send(nextOperation(), System.nanoTime(), report);
+                        }
+                    });
+                }
+            }
+        }
+        return report;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    private void runOpenLoop(ExecutorService executor, long deadline, LoadReport report) {
+        long intervalNanos = 1_000_000_000L / settings.rate();
+        Semaphore inFlight = new Semaphore(settings.concurrency());
+        long start = System.nanoTime();
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= deadline) {
+                return;
+            }
+            long delay;
+            while ((delay = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            Operation operation = nextOperation();
+            executor.execute(() -> {
+                inFlight.acquireUninterruptibly();
+                try {
+                    send(operation, scheduled, report);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private void send(Operation operation, long startNanos, LoadReport report) {
+        int status;
+        try {
+            status = client.send(request(operation), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            status = 0;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        report.record(operation, status, System.nanoTime() - startNanos);
+    }
+
+    private HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (operation == Operation.LOGIN) {
+            return login(phoneNumber(random.nextInt(settings.users())) + "#" + nonces.incrementAndGet());
+        }
+        Session session = sessions.get(random.nextInt(sessions.size()));
+        String path = operation == Operation.USER
+                ? "/api/users/" + URLEncoder.encode(session.phoneNumber(), StandardCharsets.UTF_8)
+                : "/api/users?limit=" + settings.listLimit();
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + session.jwt())
+                .GET()
+                .build();
+    }
+
+    private HttpRequest login(String providerToken) {
+        String body = jsonMapper.writeValueAsString(Map.of(
+                "providerKey", StubOtpProviderAdapter.PROVIDER_KEY,
+                "providerToken", providerToken));
+        return HttpRequest.newBuilder(baseUri.resolve("/api/auth/verify-otp"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private Operation nextOperation() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static String phoneNumber(int index) {
+        return "+1777%07d".formatted(index);
+    }
+
+    private record Session(String phoneNumber, String jwt) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.auth.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of a load-test phase, per {@link Operation}.
+ * <p>
+ * Latencies are recorded in microseconds into HdrHistograms (3 significant digits, up to one
+ * minute), so percentiles are exact to 0.1% regardless of the number of requests. Requests
+ * that fail without a response (connection errors, client timeouts) are counted under status 0.
+ * </p>
+ */
+public class LoadReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Integer, LongAdder>> statuses = new EnumMap<>(Operation.class);
+
+    public LoadReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            statuses.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Records one completed request.
+     *
+     * @param operation    the request type
+     * @param status       the HTTP status, or 0 if no response was received
+     * @param latencyNanos time from the request's (intended) start to its completion
+     */
+    public void record(Operation operation, int status, long latencyNanos) {
+        long micros = Math.clamp(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 1, MAX_LATENCY_MICROS);
+        latencies.get(operation).recordValue(micros);
+        statuses.get(operation).computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /**
+     * Summarizes the recorded requests.
+     *
+     * @param elapsed length of the measured phase, for throughput
+     * @return one row per operation that was sent, followed by the total
+     */
+    public List<Summary> summarize(Duration elapsed) {
+        List<Summary> rows = new ArrayList<>();
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        Map<Integer, Long> totalStatuses = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation).copy();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Map<Integer, Long> counts = new LinkedHashMap<>();
+            statuses.get(operation).entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> counts.put(entry.getKey(), entry.getValue().sum()));
+            rows.add(summary(operation.displayName(), histogram, counts, elapsed));
+            total.add(histogram);
+            counts.forEach((status, count) -> totalStatuses.merge(status, count, Long::sum));
+        }
+        rows.add(summary("total", total, totalStatuses, elapsed));
+        return rows;
+    }
+
+    /**
+     * Prints the summary as a table.
+     *
+     * @param rows the summary
+     * @return the table, one line per row
+     */
+    public static String format(List<Summary> rows) {
+        StringBuilder table = new StringBuilder(String.format("%-8s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Summary row : rows) {
+            table.append(String.format("%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.operation(), row.requests(), row.errors(), row.throughput(),
+                    row.percentilesMs().get("p50"), row.percentilesMs().get("p90"),
+                    row.percentilesMs().get("p99"), row.percentilesMs().get("p99.9"), row.maxMs()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Writes the summary and the run's settings as JSON.
+     *
+     * @param settings the run's settings
+     * @param rows     the summary
+     * @return the written file
+     * @throws IOException if the file cannot be written
+     */
+    public static Path write(LoadTestSettings settings, List<Summary> rows) throws IOException {
+        Files.createDirectories(settings.reportDir());
+        Path file = settings.reportDir().resolve("report.json");
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("duration", settings.duration().toString());
+        report.put("mode", settings.openLoop() ? "open" : "closed");
+        report.put("concurrency", settings.concurrency());
+        report.put("rate", settings.rate());
+        report.put("mix", settings.mix());
+        report.put("operations", rows);
+        JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build().writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static Summary summary(String operation, Histogram histogram, Map<Integer, Long> statuses, Duration elapsed) {
+        long errors = statuses.entrySet().stream()
+                .filter(entry -> entry.getKey() < 200 || entry.getKey() >= 400)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            String name = "p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile));
+            percentiles.put(name, histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        return new Summary(operation,
+                histogram.getTotalCount(),
+                errors,
+                histogram.getTotalCount() / (elapsed.toNanos() / 1e9),
+                percentiles,
+                histogram.getMaxValue() / 1000.0,
+                statuses);
+    }
+
+    /**
+     * Result row of one operation.
+     *
+     * @param operation     operation name, or <code>total</code>
+     * @param requests      completed requests
+     * @param errors        requests without a 2xx/3xx response
+     * @param throughput    completed requests per second
+     * @param percentilesMs latency percentiles in milliseconds (<code>p50</code>, <code>p90</code>, <code>p99</code>, <code>p99.9</code>)
+     * @param maxMs         highest latency in milliseconds
+     * @param statuses      request count per HTTP status (0 = no response)
+     */
+    public record Summary(String operation,
+                          long requests,
+                          long errors,
+                          double throughput,
+                          Map<String, Double> percentilesMs,
+                          double maxMs,
+                          Map<Integer, Long> statuses) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.auth.loadtest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Adds the {@link StubOtpProviderAdapter} to the application under test.
+ * <p>
+ * Configuration (system properties of the <code>loadTest</code> run):
+ * <ul>
+ *     <li><code>loadtest.stub.latency</code> – fixed latency of every provider call (default 50ms)</li>
+ *     <li><code>loadtest.stub.latency-jitter</code> – mean extra latency, exponentially distributed (default 20ms)</li>
+ *     <li><code>loadtest.stub.failure-rate</code> – share of provider calls that fail (default 0)</li>
+ * </ul>
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+public class LoadTestConfig {
+
+    @Bean
+    StubOtpProviderAdapter stubOtpProviderAdapter(
+            @Value("${loadtest.stub.latency:50ms}") Duration latency,
+            @Value("${loadtest.stub.latency-jitter:20ms}") Duration latencyJitter,
+            @Value("${loadtest.stub.failure-rate:0}") double failureRate) {
+        return new StubOtpProviderAdapter(latency, latencyJitter, failureRate);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.auth.loadtest;
+
+import com.example.demo.Application;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * End-to-end load test: starts the application with a {@link StubOtpProviderAdapter}, drives
+ * the configured mix of logins, user lookups and list calls against it over HTTP, and reports
+ * throughput and latency percentiles per operation.
+ * <p>
+ * The database is an embedded Postgres started for the run, or an existing one given by
+ * <code>loadtest.datasource.url</code>. Run with {@code ./gradlew loadTest}; see the README for
+ * the <code>loadtest.*</code> settings. The application runs with the <code>loadtest</code>
+ * profile; its properties can be overridden with environment variables, e.g.
+ * <code>SPRING_THREADS_VIRTUAL_ENABLED=true</code>.
+ * </p>
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        try (Database database = Database.start(settings);
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class, LoadTestConfig.class)
+                     .profiles("loadtest")
+                     .run(args)) {
+            URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            try (LoadGenerator generator = new LoadGenerator(settings, baseUri)) {
+                generator.prepare();
+                if (!settings.warmup().isZero()) {
+                    System.out.println("Warming up for " + settings.warmup() + " ...");
+                    generator.run(settings.warmup());
+                }
+                System.out.println("Measuring for " + settings.duration() + " ("
+                        + (settings.openLoop() ? settings.rate() + " req/s, open loop" : settings.concurrency() + " virtual users, closed loop")
+                        + ", mix " + settings.mix() + ") ...");
+                LoadReport report = generator.run(settings.duration());
+                List<LoadReport.Summary> rows = report.summarize(settings.duration());
+                Path file = LoadReport.write(settings, rows);
+                System.out.print(LoadReport.format(rows));
+                System.out.println("Report written to " + file.toAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * The database of the run, passed to the application as system properties so it takes
+     * precedence over <code>application.properties</code>. Closing stops it if it was started
+     * for the run.
+     */
+    private record Database(Closeable embedded) implements AutoCloseable {
+
+        static Database start(LoadTestSettings settings) throws Exception {
+            if (settings.jdbcUrl() != null) {
+                use(settings.jdbcUrl(), settings.jdbcUsername(), settings.jdbcPassword());
+                return new Database(null);
+            }
+            System.out.println("Starting embedded Postgres ...");
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            use(postgres.getJdbcUrl("postgres", "postgres"), "postgres", "");
+            return new Database(postgres);
+        }
+
+        private static void use(String jdbcUrl, String username, String password) {
+            System.setProperty("spring.datasource.url", jdbcUrl);
+            System.setProperty("spring.datasource.username", username);
+            System.setProperty("spring.datasource.password", password);
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+}
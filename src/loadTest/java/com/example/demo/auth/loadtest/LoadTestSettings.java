@@ -0,0 +1,84 @@
+package com.example.demo.auth.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load-test run, read from <code>loadtest.*</code> system properties.
+ *
+ * @param duration     length of the measured phase
+ * @param warmup       length of the unmeasured phase before it
+ * @param concurrency  closed loop: number of virtual users, each sending its next request when
+ *                     the previous one completed; open loop: maximum requests in flight
+ * @param rate         requests per second for an open-loop run, or 0 for a closed loop
+ * @param mix          relative weight of each operation
+ * @param users        number of distinct phone numbers logins are spread over
+ * @param listLimit    page size of the list calls
+ * @param jdbcUrl      database of an external Postgres, or {@code null} to start an embedded one
+ * @param jdbcUsername user of the external database
+ * @param jdbcPassword password of the external database
+ * @param reportDir    directory the JSON report is written to
+ */
+public record LoadTestSettings(Duration duration,
+                               Duration warmup,
+                               int concurrency,
+                               int rate,
+                               Map<Operation, Integer> mix,
+                               int users,
+                               int listLimit,
+                               String jdbcUrl,
+                               String jdbcUsername,
+                               String jdbcPassword,
+                               Path reportDir) {
+
+    /**
+     * @return settings from system properties, with defaults for unset ones
+     */
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                duration("loadtest.duration", "60s"),
+                duration("loadtest.warmup", "15s"),
+                Integer.parseInt(System.getProperty("loadtest.concurrency", "64")),
+                Integer.parseInt(System.getProperty("loadtest.rate", "0")),
+                mix(System.getProperty("loadtest.mix", "login:10,user:70,list:20")),
+                Integer.parseInt(System.getProperty("loadtest.users", "10000")),
+                Integer.parseInt(System.getProperty("loadtest.list-limit", "20")),
+                System.getProperty("loadtest.datasource.url"),
+                System.getProperty("loadtest.datasource.username", "postgres"),
+                System.getProperty("loadtest.datasource.password", ""),
+                Path.of(System.getProperty("loadtest.report-dir", "build/reports/loadtest")));
+    }
+
+    /**
+     * @return {@code true} if requests are sent at a fixed rate regardless of response times
+     */
+    public boolean openLoop() {
+        return rate > 0;
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+
+    /**
+     * Parses <code>operation:weight</code> pairs, e.g. <code>login:10,user:70,list:20</code>.
+     */
+    private static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("loadtest.mix entries must be <operation>:<weight>, got: " + entry);
+            }
+            mix.put(Operation.fromName(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("loadtest.mix must have a positive total weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.auth.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Request types of the load-test workload.
+ */
+public enum Operation {
+
+    /**
+     * <code>POST /api/auth/verify-otp</code> through the stub provider, creating the user on first login.
+     */
+    LOGIN("login"),
+
+    /**
+     * Authenticated <code>GET /api/users/{phoneNumber}</code>.
+     */
+    USER("user"),
+
+    /**
+     * Authenticated <code>GET /api/users?limit=…</code>, the first page of the user list.
+     */
+    LIST("list");
+
+    private final String name;
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name used in <code>loadtest.mix</code> and in the report
+     */
+    public String displayName() {
+        return name;
+    }
+
+    static Operation fromName(String name) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation: " + name));
+    }
+}
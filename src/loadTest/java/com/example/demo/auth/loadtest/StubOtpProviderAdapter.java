@@ -0,0 +1,70 @@
+package com.example.demo.auth.loadtest;
+
+import com.example.demo.auth.adapter.OtpProviderAdapter;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * OTP provider stand-in with configurable latency and failure rate.
+ * <p>
+ * Each call sleeps for the base latency plus an exponentially distributed extra with mean
+ * <code>latencyJitter</code>, which gives the long right tail real providers have. With
+ * probability <code>failureRate</code> the call throws, which the resilience layer counts as a
+ * provider failure (timeouts, 5xx).
+ * </p>
+ *
+ * <p>
+ * The provider token is <code>&lt;phoneNumber&gt;</code> or <code>&lt;phoneNumber&gt;#&lt;nonce&gt;</code>;
+ * the nonce keeps repeated logins of the same user out of the replay cache.
+ * </p>
+ */
+public class StubOtpProviderAdapter implements OtpProviderAdapter {
+
+    public static final String PROVIDER_KEY = "STUB";
+
+    private final long latencyNanos;
+    private final long latencyJitterNanos;
+    private final double failureRate;
+
+    /**
+     * @param latency       fixed part of every call
+     * @param latencyJitter mean of the exponentially distributed extra latency
+     * @param failureRate   probability in [0, 1] that a call throws
+     */
+    public StubOtpProviderAdapter(Duration latency, Duration latencyJitter, double failureRate) {
+        this.latencyNanos = latency.toNanos();
+        this.latencyJitterNanos = latencyJitter.toNanos();
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public ProviderVerifyResult verify(String providerToken, Map<String, Object> meta) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long extraNanos = latencyJitterNanos > 0 ? (long) (-Math.log(1 - random.nextDouble()) * latencyJitterNanos) : 0;
+        try {
+            Thread.sleep(Duration.ofNanos(latencyNanos + extraNanos));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Stub provider call interrupted", ex);
+        }
+        if (random.nextDouble() < failureRate) {
+            throw new IllegalStateException("Stub provider failure");
+        }
+        int nonce = providerToken.indexOf('#');
+        String phoneNumber = nonce < 0 ? providerToken : providerToken.substring(0, nonce);
+        return new ProviderVerifyResult(true, phoneNumber, phoneNumber, null);
+    }
+
+    @Override
+    public boolean supportsIdempotentVerification() {
+        return true;
+    }
+
+    @Override
+    public String providerKey() {
+        return PROVIDER_KEY;
+    }
+}
@@ -1,41 +1,165 @@
 package com.example.demo.auth.adapter;
 
 import com.example.demo.auth.dto.ProviderVerifyResult;
+import com.example.demo.auth.http.OutboundHttpClient;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
- * Mock implementation of OTPProviderAdapter for Firebase.
+ * OTPProviderAdapter for Firebase phone authentication.
  * <p>
- * This class simulates OTP verification with Firebase,
- * but does not actually call Firebase APIs yet.
- * It always returns a successful mock response.
+ * The frontend completes the phone sign-in with the Firebase SDK and sends the resulting
+ * Firebase ID token. The adapter verifies it in one of two ways:
+ * <ul>
+ *     <li><strong>Locally</strong> (<code>otp.firebase.project-id</code> set) – the token's RS256
+ *     signature is checked against Google's public signing keys, which are cached in memory
+ *     and refreshed in the background ({@link RemotePublicKeyCache}), and its issuer, audience,
+ *     expiry and subject are validated. No network call is made per login.</li>
+ *     <li><strong>Remotely</strong> (only <code>otp.firebase.api-key</code> set) – the token is
+ *     resolved with the Identity Toolkit <code>accounts:lookup</code> endpoint.</li>
+ * </ul>
  * <p>
- * TODO: In future, integrate real Firebase Admin SDK verification logic.
+ * Configuration:
+ * <ul>
+ *     <li><code>otp.firebase.project-id</code> – Firebase project ID, enables local verification</li>
+ *     <li><code>otp.firebase.keys-url</code> – JWKS (or X.509 certificate map) of the token signing keys</li>
+ *     <li><code>otp.firebase.keys-min-refresh-interval</code> – minimum time between key downloads
+ *     triggered by unknown key IDs</li>
+ *     <li><code>otp.firebase.api-key</code> – Web API key of the Firebase project</li>
+ *     <li><code>otp.firebase.base-url</code> – defaults to <code>https://identitytoolkit.googleapis.com</code></li>
+ * </ul>
+ * Calls go through the shared {@link OutboundHttpClient} (HTTP/2, pooled connections).
+ * <p>
+ * While neither is configured (local development), the adapter keeps its previous
+ * mock behaviour and accepts every token without calling Firebase.
  */
 @Component
-public class FirebaseOtpProviderAdapter implements OtpProviderAdapter {
+public class FirebaseOtpProviderAdapter implements OtpProviderAdapter, DisposableBean {
+
+    /**
+     * Issuer prefix of Firebase ID tokens; followed by the project ID.
+     */
+    static final String ISSUER_PREFIX = "https://securetoken.google.com/";
+
+    /**
+     * Tolerated clock difference between Google and this server.
+     */
+    private static final long ALLOWED_CLOCK_SKEW_SECONDS = 60;
+
+    private final OutboundHttpClient httpClient;
+    private final JsonMapper jsonMapper;
+    private final URI lookupUri;
+    private final RemotePublicKeyCache signingKeys;
+    private final JwtParser idTokenParser;
 
     /**
-     * Mock OTP verification method.
-     * Currently returns a hardcoded successful response.
+     * @param httpClient                 the shared outbound HTTP client
+     * @param jsonMapper                 used to write requests and read responses
+     * @param baseUrl                    Identity Toolkit base URL
+     * @param apiKey                     Web API key of the Firebase project
+     * @param projectId                  Firebase project ID; enables local verification
+     * @param keysUrl                    URL of the public signing keys
+     * @param keysMinRefreshInterval     minimum time between key downloads for unknown key IDs
+     */
+    public FirebaseOtpProviderAdapter(OutboundHttpClient httpClient,
+                                      JsonMapper jsonMapper,
+                                      @Value("${otp.firebase.base-url:https://identitytoolkit.googleapis.com}") String baseUrl,
+                                      @Value("${otp.firebase.api-key:}") String apiKey,
+                                      @Value("${otp.firebase.project-id:}") String projectId,
+                                      @Value("${otp.firebase.keys-url:https://www.googleapis.com/service_accounts/v1/jwk/securetoken@system.gserviceaccount.com}") String keysUrl,
+                                      @Value("${otp.firebase.keys-min-refresh-interval:30s}") Duration keysMinRefreshInterval) {
+        this.httpClient = httpClient;
+        this.jsonMapper = jsonMapper;
+        this.lookupUri = apiKey.isBlank()
+                ? null
+                : URI.create(baseUrl + "/v1/accounts:lookup?key=" + URLEncoder.encode(apiKey, StandardCharsets.UTF_8));
+        if (projectId.isBlank()) {
+            this.signingKeys = null;
+            this.idTokenParser = null;
+        } else {
+            this.signingKeys = new RemotePublicKeyCache(httpClient, jsonMapper, URI.create(keysUrl), keysMinRefreshInterval);
+            this.idTokenParser = Jwts.parserBuilder()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            return resolveKey(header);
+                        }
+                    })
+                    .requireIssuer(ISSUER_PREFIX + projectId)
+                    .requireAudience(projectId)
+                    .setAllowedClockSkewSeconds(ALLOWED_CLOCK_SKEW_SECONDS)
+                    .build();
+        }
+    }
+
+    /**
+     * Verifies a Firebase ID token, blocking the calling thread.
      *
-     * @param providerToken The token/OTP received from the frontend.
-     *                      This would normally be validated using Firebase API.
-     * @param meta          Optional metadata (e.g., phone number, request ID).
-     *                      Can be null.
-     * @return ProviderVerifyResult containing mock verification result.
+     * @param providerToken The Firebase ID token received from the frontend.
+     * @param meta          Optional metadata (e.g., request ID). Can be null.
+     * @return ProviderVerifyResult with the Firebase UID and phone number if the token is valid.
+     * @throws IllegalStateException if Firebase answers with an unexpected status (e.g. 403, 5xx)
      */
     @Override
     public ProviderVerifyResult verify(String providerToken, Map<String, Object> meta) {
-        // TODO: Replace mock data with actual Firebase verification logic.
-        return new ProviderVerifyResult(
-                true,                 // Simulating successful verification
-                "123456",             // Mock Firebase UID
-                "9871188869",         // Mock phone number
-                null                  // No metadata for now
-        );
+        if (idTokenParser != null) {
+            return verifyLocally(providerToken, meta);
+        }
+        if (lookupUri == null) {
+            return mockResult();
+        }
+        return httpClient.send(lookup(providerToken), response -> toResult(response, meta));
+    }
+
+    /**
+     * Verifies a Firebase ID token without blocking a thread while waiting for Firebase.
+     * Cancelling the returned future (e.g. the losing hedged request) aborts the HTTP exchange.
+     * Local verification runs on the given executor, since it may have to download the keys.
+     */
+    @Override
+    public CompletableFuture<ProviderVerifyResult> verifyAsync(String providerToken,
+                                                               Map<String, Object> meta,
+                                                               Executor executor) {
+        if (idTokenParser != null) {
+            return CompletableFuture.supplyAsync(() -> verifyLocally(providerToken, meta), executor);
+        }
+        if (lookupUri == null) {
+            return CompletableFuture.completedFuture(mockResult());
+        }
+        return httpClient.sendAsync(lookup(providerToken), response -> toResult(response, meta));
+    }
+
+    /**
+     * Verifying a Firebase ID token does not change any state, so the same
+     * token can safely be verified by a hedged, concurrent request.
+     *
+     * @return {@code true}
+     */
+    @Override
+    public boolean supportsIdempotentVerification() {
+        return true;
     }
 
     /**
@@ -48,4 +172,99 @@ public class FirebaseOtpProviderAdapter implements OtpProviderAdapter {
     public String providerKey() {
         return "FIREBASE";
     }
+
+    @Override
+    public void destroy() {
+        if (signingKeys != null) {
+            signingKeys.close();
+        }
+    }
+
+    /**
+     * Verifies a Firebase ID token against the cached signing keys.
+     * <p>
+     * Signature, expiry, issuer ({@value #ISSUER_PREFIX}&lt;project-id&gt;) and audience
+     * (project ID) are checked by the parser; the subject (Firebase UID) must be present and
+     * the authentication time must not lie in the future.
+     * </p>
+     *
+     * @return the UID and phone number of a valid token, otherwise a failed result
+     * @throws IllegalStateException if the signing keys could not be downloaded at all
+     */
+    private ProviderVerifyResult verifyLocally(String providerToken, Map<String, Object> meta) {
+        Claims claims;
+        try {
+            claims = idTokenParser.parseClaimsJws(providerToken).getBody();
+        } catch (JwtException | IllegalArgumentException ex) {
+            return new ProviderVerifyResult(false, null, null, meta);
+        }
+
+        Long authTimeSeconds = claims.get("auth_time", Long.class);
+        long latestAuthTimeSeconds = System.currentTimeMillis() / 1000 + ALLOWED_CLOCK_SKEW_SECONDS;
+        if (claims.getSubject() == null || claims.getSubject().isBlank()
+                || authTimeSeconds == null || authTimeSeconds > latestAuthTimeSeconds) {
+            return new ProviderVerifyResult(false, null, null, meta);
+        }
+        return new ProviderVerifyResult(true, claims.getSubject(), claims.get("phone_number", String.class), meta);
+    }
+
+    /**
+     * Looks up the RS256 key named by the token's {@code kid} header.
+     */
+    private Key resolveKey(JwsHeader<?> header) {
+        if (!"RS256".equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("Unexpected algorithm: " + header.getAlgorithm());
+        }
+        String keyId = header.getKeyId();
+        if (keyId == null) {
+            throw new SignatureException("Missing key ID");
+        }
+        return signingKeys.get(keyId).orElseThrow(() -> new SignatureException("Unknown key ID: " + keyId));
+    }
+
+    private HttpRequest lookup(String providerToken) {
+        String body = jsonMapper.writeValueAsString(Map.of("idToken", String.valueOf(providerToken)));
+        return httpClient.newRequest(lookupUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Maps an <code>accounts:lookup</code> response.
+     * <p>
+     * {@code 200} with a user is a successful verification; {@code 400} (invalid or expired
+     * token, unknown user) is a failed verification. Everything else means Firebase could
+     * not answer and is reported as an exception.
+     * </p>
+     */
+    private ProviderVerifyResult toResult(HttpResponse<String> response, Map<String, Object> meta) {
+        return switch (response.statusCode()) {
+            case 200 -> {
+                JsonNode user = jsonMapper.readTree(response.body()).path("users").path(0);
+                yield user.isMissingNode()
+                        ? new ProviderVerifyResult(false, null, null, meta)
+                        : new ProviderVerifyResult(
+                        true,
+                        user.path("localId").asString(null),
+                        user.path("phoneNumber").asString(null),
+                        meta
+                );
+            }
+            case 400 -> new ProviderVerifyResult(false, null, null, meta);
+            default -> throw new IllegalStateException("Firebase accounts:lookup returned HTTP " + response.statusCode());
+        };
+    }
+
+    /**
+     * Result returned while no Firebase API key is configured.
+     */
+    private static ProviderVerifyResult mockResult() {
+        return new ProviderVerifyResult(
+                true,                 // Simulating successful verification
+                "123456",             // Mock Firebase UID
+                "9871188869",         // Mock phone number
+                null                  // No metadata for now
+        );
+    }
 }
@@ -0,0 +1,57 @@
+package com.example.demo.auth.adapter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of the most recent latency samples of one provider.
+ * <p>
+ * Recording is lock-free. Percentiles are computed on demand from a copy of the
+ * ring, which is cheap for the small window used here.
+ * </p>
+ */
+class LatencyWindow {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+
+    LatencyWindow(int size) {
+        this.samples = new AtomicLongArray(size);
+    }
+
+    /**
+     * @param nanos latency of one successful call
+     */
+    void record(long nanos) {
+        long index = recorded.getAndIncrement();
+        samples.set((int) (index % samples.length()), nanos);
+    }
+
+    /**
+     * @return the number of samples currently held (at most the window size)
+     */
+    int size() {
+        return (int) Math.min(recorded.get(), samples.length());
+    }
+
+    /**
+     * Returns the given percentile of the samples currently held.
+     *
+     * @param percentile a value in (0, 1], e.g. {@code 0.95}
+     * @return the percentile in nanoseconds, or {@code -1} if there are no samples
+     */
+    long percentile(double percentile) {
+        int size = size();
+        if (size == 0) {
+            return -1;
+        }
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int rank = (int) Math.ceil(percentile * size) - 1;
+        return copy[Math.clamp(rank, 0, size - 1)];
+    }
+}
@@ -3,6 +3,11 @@ package com.example.demo.auth.adapter;
 import com.example.demo.auth.dto.ProviderVerifyResult;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 public interface OtpProviderAdapter {
 
@@ -16,6 +21,72 @@ public interface OtpProviderAdapter {
      */
     ProviderVerifyResult verify(String providerToken, Map<String, Object> meta);
 
+    /**
+     * Asynchronous variant of {@link #verify(String, Map)}.
+     * <p>
+     * The default implementation runs the blocking {@code verify} call on the given executor.
+     * Cancelling the returned future interrupts that thread, so a timed-out or losing hedged
+     * call does not keep an executor thread blocked. Adapters backed by a non-blocking client
+     * should override it and return the client's future directly; cancelling the returned
+     * future should then abort the remote call.
+     * </p>
+     * <p>
+     * Timeouts and hedging are applied by the caller, see {@code OtpProviderInvoker}.
+     * </p>
+     *
+     * @param providerToken The OTP/token received from the frontend.
+     * @param meta          Optional metadata passed along with the token.
+     * @param executor      Executor for blocking work (virtual threads when enabled).
+     * @return a future completed with the verification result
+     */
+    default CompletableFuture<ProviderVerifyResult> verifyAsync(String providerToken,
+                                                                Map<String, Object> meta,
+                                                                Executor executor) {
+        CompletableFuture<ProviderVerifyResult> result = new CompletableFuture<>();
+        FutureTask<ProviderVerifyResult> task = new FutureTask<>(() -> verify(providerToken, meta)) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    result.complete(get());
+                } catch (ExecutionException ex) {
+                    result.completeExceptionally(ex.getCause());
+                } catch (InterruptedException ex) {
+                    // unreachable: get() does not block once the task is done
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(ex);
+                }
+            }
+        };
+        // CompletableFuture.cancel(true) never interrupts a running task; FutureTask.cancel(true) does
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            result.completeExceptionally(ex);
+        }
+        return result;
+    }
+
+    /**
+     * Whether verifying the same token twice is safe and returns the same result.
+     * <p>
+     * Only idempotent providers are hedged (sent a second, concurrent request when the
+     * first one is slow). Providers that consume the code on first use must return {@code false}.
+     * </p>
+     *
+     * @return {@code true} if verification is idempotent; {@code false} by default
+     */
+    default boolean supportsIdempotentVerification() {
+        return false;
+    }
+
     /**
      * Returns a unique key/name for the provider implementation.
      * Used to dynamically select the correct OTP adapter at runtime.
@@ -0,0 +1,157 @@
+package com.example.demo.auth.adapter;
+
+import com.example.demo.auth.concurrent.OtpProviderExecutor;
+import com.example.demo.auth.config.OtpProviderProperties;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calls {@link OtpProviderAdapter#verifyAsync} with a per-provider timeout and optional hedging.
+ * <p>
+ * <strong>Timeout</strong> – every verification completes within the provider's
+ * <code>otp.providers.&lt;KEY&gt;.timeout</code>, otherwise the returned future fails
+ * with a {@link java.util.concurrent.TimeoutException} and outstanding attempts are cancelled.
+ * </p>
+ *
+ * <p>
+ * <strong>Hedging</strong> – for providers with <code>hedge=true</code> whose verification
+ * is idempotent ({@link OtpProviderAdapter#supportsIdempotentVerification()}), a second
+ * request is sent if the first has not completed after the hedge delay. The delay is either
+ * configured or the provider's observed p95 latency, so only the slowest ~5% of calls are
+ * duplicated. The first successful attempt wins; the call fails only once every attempt failed.
+ * </p>
+ */
+@Component
+public class OtpProviderInvoker implements DisposableBean {
+
+    /**
+     * Number of recent latency samples kept per provider.
+     */
+    private static final int LATENCY_WINDOW_SIZE = 128;
+
+    /**
+     * Minimum number of samples before the observed p95 is trusted as a hedge delay.
+     */
+    private static final int MIN_SAMPLES_FOR_HEDGING = 20;
+
+    private final OtpProviderProperties properties;
+    private final OtpProviderExecutor otpProviderExecutor;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("otp-hedge-scheduler").daemon(true).factory());
+
+    public OtpProviderInvoker(OtpProviderProperties properties, OtpProviderExecutor otpProviderExecutor) {
+        this.properties = properties;
+        this.otpProviderExecutor = otpProviderExecutor;
+    }
+
+    /**
+     * Verifies a token with the given provider, applying its timeout and hedging settings.
+     *
+     * @param adapter       the provider to call
+     * @param providerToken the OTP or verification token to validate
+     * @param meta          optional provider metadata
+     * @return a future completed with the first successful result, or exceptionally
+     * on timeout or when every attempt failed
+     */
+    public CompletableFuture<ProviderVerifyResult> invoke(OtpProviderAdapter adapter,
+                                                          String providerToken,
+                                                          Map<String, Object> meta) {
+        OtpProviderProperties.Provider settings = properties.settingsFor(adapter.providerKey());
+        LatencyWindow window = latencies.computeIfAbsent(adapter.providerKey(), key -> new LatencyWindow(LATENCY_WINDOW_SIZE));
+
+        CompletableFuture<ProviderVerifyResult> result = new CompletableFuture<>();
+        List<CompletableFuture<ProviderVerifyResult>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+
+        attempts.add(attempt(adapter, providerToken, meta, window, result, outstanding));
+
+        long hedgeDelayNanos = hedgeDelayNanos(adapter, settings, window);
+        if (hedgeDelayNanos >= 0) {
+            ScheduledFuture<?> hedge = scheduler.schedule(() -> {
+                if (!result.isDone()) {
+                    outstanding.incrementAndGet();
+                    attempts.add(attempt(adapter, providerToken, meta, window, result, outstanding));
+                }
+            }, hedgeDelayNanos, TimeUnit.NANOSECONDS);
+            result.whenComplete((value, ex) -> hedge.cancel(false));
+        }
+
+        result.orTimeout(settings.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        result.whenComplete((value, ex) -> attempts.forEach(attempt -> attempt.cancel(true)));
+        return result;
+    }
+
+    /**
+     * Returns the observed latency percentile of a provider.
+     *
+     * @param providerKey the provider key
+     * @param percentile  a value in (0, 1], e.g. {@code 0.95}
+     * @return the latency, or {@code null} if no calls have completed yet
+     */
+    public Duration observedLatency(String providerKey, double percentile) {
+        LatencyWindow window = latencies.get(providerKey);
+        long nanos = window != null ? window.percentile(percentile) : -1;
+        return nanos >= 0 ? Duration.ofNanos(nanos) : null;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Starts one attempt and wires its outcome into the shared result.
+     */
+    private CompletableFuture<ProviderVerifyResult> attempt(OtpProviderAdapter adapter,
+                                                            String providerToken,
+                                                            Map<String, Object> meta,
+                                                            LatencyWindow window,
+                                                            CompletableFuture<ProviderVerifyResult> result,
+                                                            AtomicInteger outstanding) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<ProviderVerifyResult> attempt;
+        try {
+            attempt = adapter.verifyAsync(providerToken, meta, otpProviderExecutor.executor());
+        } catch (RuntimeException ex) {
+            attempt = CompletableFuture.failedFuture(ex);
+        }
+        attempt.whenComplete((value, ex) -> {
+            if (ex == null) {
+                window.record(System.nanoTime() - startNanos);
+                result.complete(value);
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(ex);
+            }
+        });
+        return attempt;
+    }
+
+    /**
+     * @return the hedge delay in nanoseconds, or {@code -1} if this call must not be hedged
+     */
+    private long hedgeDelayNanos(OtpProviderAdapter adapter,
+                                 OtpProviderProperties.Provider settings,
+                                 LatencyWindow window) {
+        if (!settings.isHedge() || !adapter.supportsIdempotentVerification()) {
+            return -1;
+        }
+        if (settings.getHedgeDelay() != null) {
+            return settings.getHedgeDelay().toNanos();
+        }
+        return window.size() >= MIN_SAMPLES_FOR_HEDGING ? window.percentile(0.95) : -1;
+    }
+}
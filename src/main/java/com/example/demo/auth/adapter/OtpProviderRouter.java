@@ -0,0 +1,156 @@
+package com.example.demo.auth.adapter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Ranks OTP providers by recent latency, error rate and load (peak-EWMA).
+ * <p>
+ * For each provider key the router keeps:
+ * <ul>
+ *     <li>a <strong>peak-EWMA latency</strong>: a slower-than-average call raises the estimate
+ *     to that latency immediately, while faster calls pull it down gradually;</li>
+ *     <li>an <strong>EWMA error rate</strong> over timeouts and failed calls;</li>
+ *     <li>the number of <strong>pending</strong> calls.</li>
+ * </ul>
+ * Both averages decay with time constant <code>otp.routing.decay</code>, also while the
+ * provider is idle, so a provider that was slow a minute ago gets traffic (and therefore
+ * fresh samples) again.
+ * </p>
+ *
+ * <p>
+ * A provider's cost is {@code latency * (pending + 1) / (1 - errorRate)}; lower is better.
+ * Providers without samples cost nothing, so each is tried at least once.
+ * </p>
+ */
+@Component
+public class OtpProviderRouter {
+
+    /**
+     * Lower bound for the success rate in the cost, so a failing provider's cost stays finite.
+     */
+    private static final double MIN_SUCCESS_RATE = 0.05;
+
+    private final Map<String, PeakEwma> estimates = new ConcurrentHashMap<>();
+    private final double decayNanos;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public OtpProviderRouter(@Value("${otp.routing.decay:10s}") Duration decay) {
+        this(decay, System::nanoTime);
+    }
+
+    OtpProviderRouter(Duration decay, LongSupplier nanoClock) {
+        this.decayNanos = decay.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Orders candidate providers from cheapest to most expensive.
+     *
+     * @param providerKeys candidate provider keys, in order of preference for equal cost
+     * @return the keys sorted by current cost
+     */
+    public List<String> rank(Collection<String> providerKeys) {
+        long now = nanoClock.getAsLong();
+        return providerKeys.stream()
+                .sorted(Comparator.comparingDouble(key -> estimate(key).cost(now)))
+                .toList();
+    }
+
+    /**
+     * Marks the start of a call to a provider.
+     *
+     * @param providerKey the provider key
+     * @return the start timestamp to pass to {@link #complete(String, long, boolean)}
+     */
+    public long start(String providerKey) {
+        estimate(providerKey).start();
+        return nanoClock.getAsLong();
+    }
+
+    /**
+     * Records the outcome of a call started with {@link #start(String)}.
+     *
+     * @param providerKey the provider key
+     * @param startNanos  the value returned by {@code start}
+     * @param success     {@code false} if the call timed out or failed
+     */
+    public void complete(String providerKey, long startNanos, boolean success) {
+        long now = nanoClock.getAsLong();
+        estimate(providerKey).complete(now, now - startNanos, success);
+    }
+
+    /**
+     * @param providerKey the provider key
+     * @return the provider's current estimates
+     */
+    public Snapshot snapshot(String providerKey) {
+        return estimate(providerKey).snapshot(nanoClock.getAsLong());
+    }
+
+    private PeakEwma estimate(String providerKey) {
+        return estimates.computeIfAbsent(providerKey, key -> new PeakEwma());
+    }
+
+    /**
+     * Current estimates of one provider.
+     *
+     * @param latencyNanos decayed peak-EWMA latency, {@code 0} if never sampled
+     * @param errorRate    decayed error rate in [0, 1]
+     * @param pending      calls in flight
+     * @param cost         routing cost; lower is preferred
+     */
+    public record Snapshot(double latencyNanos, double errorRate, int pending, double cost) {
+    }
+
+    private final class PeakEwma {
+
+        private double latencyNanos;
+        private double errorRate;
+        private int pending;
+        private long updatedAtNanos = nanoClock.getAsLong();
+
+        synchronized void start() {
+            pending++;
+        }
+
+        synchronized void complete(long now, long rttNanos, boolean success) {
+            pending--;
+            double weight = weight(now);
+            latencyNanos = rttNanos > latencyNanos
+                    ? rttNanos
+                    : latencyNanos * weight + rttNanos * (1 - weight);
+            errorRate = errorRate * weight + (success ? 0 : 1) * (1 - weight);
+            updatedAtNanos = now;
+        }
+
+        synchronized double cost(long now) {
+            return snapshot(now).cost();
+        }
+
+        synchronized Snapshot snapshot(long now) {
+            double weight = weight(now);
+            double latency = latencyNanos * weight;
+            double errors = errorRate * weight;
+            double cost = latency * (pending + 1) / Math.max(1 - errors, MIN_SUCCESS_RATE);
+            return new Snapshot(latency, errors, pending, cost);
+        }
+
+        /**
+         * @return how much of the current estimate survives the time since the last update
+         */
+        private double weight(long now) {
+            return Math.exp(-Math.max(now - updatedAtNanos, 0) / decayNanos);
+        }
+    }
+}
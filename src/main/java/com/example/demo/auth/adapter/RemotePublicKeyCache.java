@@ -0,0 +1,234 @@
+package com.example.demo.auth.adapter;
+
+import com.example.demo.auth.http.OutboundHttpClient;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of the public signing keys published at a URL, indexed by key ID ({@code kid}).
+ * <p>
+ * Two formats are understood:
+ * <ul>
+ *     <li>a JWKS document (<code>{"keys": [{"kid": ..., "kty": "RSA", "n": ..., "e": ...}]}</code>);</li>
+ *     <li>a map of key ID to PEM-encoded X.509 certificate, as served by Google's
+ *     <code>/robot/v1/metadata/x509/...</code> endpoints.</li>
+ * </ul>
+ * Keys are parsed into {@link PublicKey} objects once per download and published as an
+ * immutable map, so lookups are a plain map read.
+ * </p>
+ *
+ * <p>
+ * The key set is refreshed in the background shortly before the response's
+ * <code>Cache-Control: max-age</code> runs out. If a refresh fails, the previous keys keep
+ * being served (signing keys overlap for hours when rotated) and the refresh is retried.
+ * A lookup of an unknown key ID triggers an immediate refresh, at most once per
+ * <code>minRefreshInterval</code>, so tokens with made-up key IDs cannot hammer the key server.
+ * </p>
+ *
+ * <p>
+ * At most one refresh runs at a time, and no lock is held while it downloads. Lookups that
+ * need a refresh while one is running wait for that refresh instead of starting another,
+ * and lookups of known keys never wait. The state of the refresh is only touched by the
+ * thread that won the {@code refreshing} compare-and-set.
+ * </p>
+ */
+class RemotePublicKeyCache implements AutoCloseable {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    /**
+     * Used when the key server sends no <code>max-age</code>.
+     */
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofHours(1);
+
+    /**
+     * Lower bound on the delay between scheduled refreshes.
+     */
+    private static final Duration MIN_REFRESH_DELAY = Duration.ofSeconds(1);
+
+    private final OutboundHttpClient httpClient;
+    private final JsonMapper jsonMapper;
+    private final URI keysUri;
+    private final long minRefreshIntervalNanos;
+    private final LongSupplier nanoClock;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("public-key-refresh").daemon(true).factory());
+
+    private final AtomicReference<CompletableFuture<Void>> refreshing = new AtomicReference<>();
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile boolean loaded;
+    private long lastAttemptNanos;
+    private boolean attempted;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    RemotePublicKeyCache(OutboundHttpClient httpClient,
+                         JsonMapper jsonMapper,
+                         URI keysUri,
+                         Duration minRefreshInterval) {
+        this(httpClient, jsonMapper, keysUri, minRefreshInterval, System::nanoTime);
+    }
+
+    RemotePublicKeyCache(OutboundHttpClient httpClient,
+                         JsonMapper jsonMapper,
+                         URI keysUri,
+                         Duration minRefreshInterval,
+                         LongSupplier nanoClock) {
+        this.httpClient = httpClient;
+        this.jsonMapper = jsonMapper;
+        this.keysUri = keysUri;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the key with the given ID, downloading the key set if it has not been
+     * loaded yet or does not contain the ID.
+     *
+     * @param keyId the {@code kid} header of a token
+     * @return the key, or empty if the key server does not publish it
+     * @throws IllegalStateException if no key set could ever be downloaded
+     */
+    Optional<PublicKey> get(String keyId) {
+        PublicKey key = keys.get(keyId);
+        if (key == null) {
+            refresh(true).join();
+            key = keys.get(keyId);
+        }
+        if (key == null && !loaded) {
+            throw new IllegalStateException("Signing keys unavailable from " + keysUri.getHost());
+        }
+        return Optional.ofNullable(key);
+    }
+
+    /**
+     * @return the number of keys currently cached
+     */
+    int size() {
+        return keys.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Downloads and parses the key set on the calling thread and schedules the next refresh,
+     * or joins the refresh that is already running. On failure the current keys stay in place.
+     *
+     * @param throttled skip the download if the last one started within the minimum refresh interval
+     * @return completes when the running refresh is done
+     */
+    private CompletableFuture<Void> refresh(boolean throttled) {
+        CompletableFuture<Void> refresh = new CompletableFuture<>();
+        CompletableFuture<Void> running = refreshing.compareAndExchange(null, refresh);
+        if (running != null) {
+            return running;
+        }
+        try {
+            if (!throttled || !attempted || nanoClock.getAsLong() - lastAttemptNanos >= minRefreshIntervalNanos) {
+                download();
+            }
+        } finally {
+            refreshing.set(null);
+            refresh.complete(null);
+        }
+        return refresh;
+    }
+
+    /**
+     * Downloads the key set once and schedules the next refresh.
+     */
+    private void download() {
+        attempted = true;
+        lastAttemptNanos = nanoClock.getAsLong();
+        Duration nextRefresh;
+        try {
+            HttpRequest request = httpClient.newRequest(keysUri).header("Accept", "application/json").GET().build();
+            nextRefresh = httpClient.send(request, this::load);
+        } catch (RuntimeException ex) {
+            nextRefresh = Duration.ofNanos(Math.max(minRefreshIntervalNanos, MIN_REFRESH_DELAY.toNanos()));
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        if (!scheduler.isShutdown()) {
+            scheduledRefresh = scheduler.schedule(() -> refresh(false), nextRefresh.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Parses a key set response and publishes the keys.
+     *
+     * @return when to refresh next: 90% of the response's max-age, but not sooner than one second
+     */
+    private Duration load(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Key server returned HTTP " + response.statusCode());
+        }
+        JsonNode body = jsonMapper.readTree(response.body());
+        Map<String, PublicKey> parsed = new HashMap<>();
+        try {
+            if (body.has("keys")) {
+                for (JsonNode jwk : body.get("keys")) {
+                    if ("RSA".equals(jwk.path("kty").asString(""))) {
+                        parsed.put(jwk.path("kid").asString(), rsaKey(jwk));
+                    }
+                }
+            } else {
+                CertificateFactory certificates = CertificateFactory.getInstance("X.509");
+                for (Map.Entry<String, JsonNode> entry : body.properties()) {
+                    byte[] pem = entry.getValue().asString().getBytes(StandardCharsets.US_ASCII);
+                    parsed.put(entry.getKey(), certificates.generateCertificate(new ByteArrayInputStream(pem)).getPublicKey());
+                }
+            }
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Invalid key set from " + keysUri.getHost(), ex);
+        }
+
+        keys = Map.copyOf(parsed);
+        loaded = true;
+
+        Duration maxAge = response.headers().firstValue("Cache-Control")
+                .map(MAX_AGE::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Duration.ofSeconds(Long.parseLong(matcher.group(1))))
+                .orElse(DEFAULT_MAX_AGE);
+        Duration nextRefresh = maxAge.minus(maxAge.dividedBy(10));
+        return nextRefresh.compareTo(MIN_REFRESH_DELAY) > 0 ? nextRefresh : MIN_REFRESH_DELAY;
+    }
+
+    private static PublicKey rsaKey(JsonNode jwk) throws GeneralSecurityException {
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        BigInteger modulus = new BigInteger(1, decoder.decode(jwk.path("n").asString()));
+        BigInteger exponent = new BigInteger(1, decoder.decode(jwk.path("e").asString()));
+        return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(modulus, exponent));
+    }
+}
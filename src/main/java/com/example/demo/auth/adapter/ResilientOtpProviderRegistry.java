@@ -0,0 +1,293 @@
+package com.example.demo.auth.adapter;
+
+import com.example.demo.auth.concurrent.Bulkhead;
+import com.example.demo.auth.concurrent.CircuitBreaker;
+import com.example.demo.auth.config.OtpProviderProperties;
+import com.example.demo.auth.dto.ProviderStatsDto;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+import com.example.demo.auth.exception.OtpProviderUnavailableException;
+import com.example.demo.auth.exception.RateLimitExceededException;
+import com.example.demo.auth.metrics.AuthMetrics;
+import com.example.demo.auth.ratelimit.OtpRateLimiter;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resilience layer around the OTP provider registry.
+ * <p>
+ * Every provider in the registry gets its own:
+ * <ul>
+ *     <li><strong>Bulkhead</strong> – at most <code>otp.providers.&lt;KEY&gt;.max-concurrent-calls</code>
+ *     verifications in flight; further calls are rejected instead of piling up.</li>
+ *     <li><strong>Circuit breaker</strong> – once the provider's failure rate crosses the
+ *     threshold, calls are rejected immediately for <code>open-duration</code>, after which a
+ *     few probe calls decide whether it has recovered.</li>
+ *     <li><strong>Fallback</strong> – optionally, another provider key to try when this one
+ *     is unavailable.</li>
+ * </ul>
+ * A Twilio outage therefore only costs Twilio logins a fast {@code 503} (or a fallback),
+ * and never ties up the threads serving Firebase logins or the rest of the API.
+ * </p>
+ *
+ * <p>
+ * Timeouts, executor rejections and exceptions thrown by the provider count as failures.
+ * A result with {@code success=false} (wrong or expired code) is a healthy answer and
+ * counts as a success.
+ * </p>
+ *
+ * <p>
+ * When the client does not pin a provider, {@link #verifyRouted} lets the
+ * {@link OtpProviderRouter} pick the provider with the best recent latency and
+ * error rate, skipping providers whose circuit is open.
+ * </p>
+ *
+ * <p>
+ * Every adapter call is observed by {@link AuthMetrics} as <code>auth.provider.verify</code>,
+ * tagged with the provider key, so fallbacks and routed attempts show up separately.
+ * </p>
+ *
+ * <p>
+ * Every provider call, fallbacks and routed attempts included, first takes a token from that
+ * provider's {@link OtpRateLimiter} bucket. A routed request whose preferred provider is at its
+ * limit moves on to the next one.
+ * </p>
+ */
+@Component
+public class ResilientOtpProviderRegistry {
+
+    private final Map<String, GuardedProvider> providers = new TreeMap<>();
+    private final OtpProviderInvoker otpProviderInvoker;
+    private final OtpProviderRouter otpProviderRouter;
+    private final OtpRateLimiter otpRateLimiter;
+    private final AuthMetrics authMetrics;
+
+    /**
+     * @param otpProviderRegistry map of available OTP providers
+     * @param otpProviderInvoker  calls providers with timeouts and hedging
+     * @param otpProviderRouter   tracks latency and errors per provider and ranks them
+     * @param properties          per-provider bulkhead, circuit breaker and fallback settings
+     * @param otpRateLimiter      caps the call rate of each provider
+     * @param authMetrics         observes the adapter calls
+     */
+    public ResilientOtpProviderRegistry(Map<String, OtpProviderAdapter> otpProviderRegistry,
+                                        OtpProviderInvoker otpProviderInvoker,
+                                        OtpProviderRouter otpProviderRouter,
+                                        OtpProviderProperties properties,
+                                        OtpRateLimiter otpRateLimiter,
+                                        AuthMetrics authMetrics) {
+        this.otpProviderInvoker = otpProviderInvoker;
+        this.otpProviderRouter = otpProviderRouter;
+        this.otpRateLimiter = otpRateLimiter;
+        this.authMetrics = authMetrics;
+        otpProviderRegistry.forEach((key, adapter) ->
+                providers.put(key, new GuardedProvider(adapter, properties.settingsFor(key))));
+    }
+
+    /**
+     * @param providerKey a provider key as sent by the client
+     * @return {@code true} if a provider is registered under that key
+     */
+    public boolean isRegistered(String providerKey) {
+        return providers.containsKey(providerKey);
+    }
+
+    /**
+     * Verifies a token with the given provider, falling back to its configured
+     * fallback provider if it is unavailable.
+     *
+     * @param providerKey   the identifier of the OTP provider to use
+     * @param providerToken the OTP or verification token to validate
+     * @param meta          optional provider metadata
+     * @return the provider's verification result
+     * @throws IllegalArgumentException        if {@code providerKey} does not match any provider
+     * @throws OtpProviderUnavailableException if neither the provider nor its fallback gave an answer
+     * @throws RateLimitExceededException      if the provider called is at its rate limit
+     */
+    public ProviderVerifyResult verify(String providerKey,
+                                       String providerToken,
+                                       @Nullable Map<String, Object> meta) {
+        GuardedProvider provider = providers.get(providerKey);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown OTP provider: " + providerKey);
+        }
+
+        try {
+            return provider.verify(providerToken, meta);
+        } catch (OtpProviderUnavailableException ex) {
+            GuardedProvider fallback = provider.fallbackKey != null ? providers.get(provider.fallbackKey) : null;
+            if (fallback == null || fallback == provider) {
+                throw ex;
+            }
+            provider.fallbackCalls.increment();
+            try {
+                return fallback.verify(providerToken, meta);
+            } catch (OtpProviderUnavailableException fallbackEx) {
+                ex.addSuppressed(fallbackEx);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Verifies a token with the best-ranked of the given providers.
+     * <p>
+     * Providers are tried in the order ranked by the {@link OtpProviderRouter}; providers
+     * whose circuit is open are skipped. If the chosen provider is unavailable or at its
+     * rate limit, the next one is tried. Configured fallbacks are not used here, since the
+     * candidates already serve as each other's fallback.
+     * </p>
+     *
+     * @param providerKeys  the providers the client accepts; empty for any registered provider
+     * @param providerToken the OTP or verification token to validate
+     * @param meta          optional provider metadata
+     * @return the verification result of the first provider that answered
+     * @throws IllegalArgumentException        if a key does not match any provider
+     * @throws OtpProviderUnavailableException if no candidate gave an answer
+     * @throws RateLimitExceededException      if the first candidate tried was at its rate limit
+     *                                         and no other one gave an answer
+     */
+    public ProviderVerifyResult verifyRouted(Collection<String> providerKeys,
+                                             String providerToken,
+                                             @Nullable Map<String, Object> meta) {
+        Collection<String> candidates = providerKeys.isEmpty() ? providers.keySet() : providerKeys;
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No OTP provider registered");
+        }
+        List<String> available = new ArrayList<>(candidates.size());
+        for (String key : candidates) {
+            GuardedProvider provider = providers.get(key);
+            if (provider == null) {
+                throw new IllegalArgumentException("Unknown OTP provider: " + key);
+            }
+            if (!provider.circuitBreaker.isRejectingCalls()) {
+                available.add(key);
+            }
+        }
+        if (available.isEmpty()) {
+            // Every circuit is open: let the preferred provider reject the call.
+            available.addAll(candidates);
+        }
+
+        RuntimeException failure = null;
+        for (String key : otpProviderRouter.rank(available)) {
+            try {
+                return providers.get(key).verify(providerToken, meta);
+            } catch (OtpProviderUnavailableException | RateLimitExceededException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * @return resilience and routing statistics of every registered provider, ordered by key
+     */
+    public List<ProviderStatsDto> stats() {
+        return providers.values().stream().map(GuardedProvider::stats).toList();
+    }
+
+    /**
+     * One provider together with its bulkhead, circuit breaker and fallback key.
+     */
+    private final class GuardedProvider {
+
+        private final OtpProviderAdapter adapter;
+        private final Bulkhead bulkhead;
+        private final CircuitBreaker circuitBreaker;
+        private final String fallbackKey;
+        private final LongAdder fallbackCalls = new LongAdder();
+
+        GuardedProvider(OtpProviderAdapter adapter, OtpProviderProperties.Provider settings) {
+            OtpProviderProperties.CircuitBreakerSettings breaker = settings.getCircuitBreaker();
+            this.adapter = adapter;
+            this.bulkhead = new Bulkhead(settings.getMaxConcurrentCalls());
+            this.circuitBreaker = new CircuitBreaker(
+                    breaker.getFailureRateThreshold(),
+                    breaker.getSlidingWindowSize(),
+                    breaker.getMinimumCalls(),
+                    breaker.getOpenDuration(),
+                    breaker.getHalfOpenCalls());
+            this.fallbackKey = settings.getFallback();
+        }
+
+        ProviderVerifyResult verify(String providerToken, @Nullable Map<String, Object> meta) {
+            String key = adapter.providerKey();
+            otpRateLimiter.checkProviderCall(key);
+            if (!bulkhead.tryAcquire()) {
+                throw new OtpProviderUnavailableException(key, "OTP provider capacity exceeded: " + key, null);
+            }
+            try {
+                if (!circuitBreaker.tryAcquirePermission()) {
+                    throw new OtpProviderUnavailableException(key, "OTP provider circuit open: " + key, null);
+                }
+                ProviderVerifyResult result;
+                long startNanos = otpProviderRouter.start(key);
+                try {
+                    result = authMetrics.observeProvider(key,
+                            () -> otpProviderInvoker.invoke(adapter, providerToken, meta).join());
+                } catch (RuntimeException ex) {
+                    otpProviderRouter.complete(key, startNanos, false);
+                    circuitBreaker.onFailure();
+                    throw unavailable(key, ex);
+                }
+                otpProviderRouter.complete(key, startNanos, true);
+                circuitBreaker.onSuccess();
+                return result;
+            } finally {
+                bulkhead.release();
+            }
+        }
+
+        ProviderStatsDto stats() {
+            Duration p95 = otpProviderInvoker.observedLatency(adapter.providerKey(), 0.95);
+            OtpProviderRouter.Snapshot routing = otpProviderRouter.snapshot(adapter.providerKey());
+            return ProviderStatsDto.builder()
+                    .providerKey(adapter.providerKey())
+                    .circuitState(circuitBreaker.state().name())
+                    .failureRate(circuitBreaker.failureRate())
+                    .successfulCalls(circuitBreaker.successfulCalls())
+                    .failedCalls(circuitBreaker.failedCalls())
+                    .circuitRejectedCalls(circuitBreaker.rejectedCalls())
+                    .circuitOpenedCount(circuitBreaker.openedCount())
+                    .activeCalls(bulkhead.activeCalls())
+                    .maxConcurrentCalls(bulkhead.maxConcurrentCalls())
+                    .bulkheadRejectedCalls(bulkhead.rejectedCalls())
+                    .fallbackCalls(fallbackCalls.sum())
+                    .p95LatencyMs(p95 != null ? p95.toMillis() : null)
+                    .ewmaLatencyMs(routing.latencyNanos() / 1_000_000)
+                    .ewmaErrorRate(routing.errorRate())
+                    .pendingCalls(routing.pending())
+                    .routingCost(routing.cost())
+                    .build();
+        }
+    }
+
+    /**
+     * Translates a failed provider call into an {@link OtpProviderUnavailableException}.
+     */
+    private static OtpProviderUnavailableException unavailable(String key, RuntimeException ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TimeoutException) {
+            return new OtpProviderUnavailableException(key, "OTP provider timed out: " + key, cause);
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return new OtpProviderUnavailableException(key, "OTP provider capacity exceeded: " + key, cause);
+        }
+        return new OtpProviderUnavailableException(key, "OTP provider call failed: " + key, cause);
+    }
+}
@@ -1,46 +1,130 @@
 package com.example.demo.auth.adapter;
 
 import com.example.demo.auth.dto.ProviderVerifyResult;
+import com.example.demo.auth.http.OutboundHttpClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
- * Mock implementation of {@link OtpProviderAdapter} for Twilio.
+ * {@link OtpProviderAdapter} for the Twilio Verify API.
  *
  * <p>
- * Currently returns a fake successful verification result.
- * This allows the backend OTP flow to work without actual Twilio integration.
+ * Checks the code entered by the user with a
+ * <a href="https://www.twilio.com/docs/verify/api/verification-check">Verification Check</a>
+ * request. The phone number the code was sent to must be passed as <code>meta.phoneNumber</code>.
  * </p>
  *
  * <p>
- * TODO: In the future, integrate with Twilio Verify API:
- * <a href="https://www.twilio.com/docs/verify/api">Twilio Verify API Docs</a>
+ * Configuration:
+ * <ul>
+ *     <li><code>otp.twilio.account-sid</code>, <code>otp.twilio.auth-token</code> – API credentials</li>
+ *     <li><code>otp.twilio.service-sid</code> – the Verify service</li>
+ *     <li><code>otp.twilio.base-url</code> – defaults to <code>https://verify.twilio.com</code></li>
+ * </ul>
+ * Calls go through the shared {@link OutboundHttpClient}, so connections and TLS sessions
+ * to Twilio are reused across logins.
+ * </p>
+ *
+ * <p>
+ * While no credentials are configured (local development), the adapter keeps its
+ * previous mock behaviour and accepts every code without calling Twilio.
  * </p>
  */
 @Component
 public class TwilioOtpProviderAdapter implements OtpProviderAdapter {
 
     /**
-     * Mock OTP verification method for Twilio.
-     * <p>
-     * Accepts OTP/token received from frontend,
-     * but returns a hardcoded successful response.
+     * Key in the request metadata holding the phone number the code was sent to.
+     */
+    static final String PHONE_NUMBER_META = "phoneNumber";
+
+    private final OutboundHttpClient httpClient;
+    private final JsonMapper jsonMapper;
+    private final URI verificationCheckUri;
+    private final String authorization;
+
+    /**
+     * @param httpClient the shared outbound HTTP client
+     * @param jsonMapper used to read Twilio's responses
+     * @param baseUrl    Twilio Verify base URL
+     * @param accountSid Twilio account SID; blank to run in mock mode
+     * @param authToken  Twilio auth token
+     * @param serviceSid SID of the Verify service the codes were sent with
+     */
+    public TwilioOtpProviderAdapter(OutboundHttpClient httpClient,
+                                    JsonMapper jsonMapper,
+                                    @Value("${otp.twilio.base-url:https://verify.twilio.com}") String baseUrl,
+                                    @Value("${otp.twilio.account-sid:}") String accountSid,
+                                    @Value("${otp.twilio.auth-token:}") String authToken,
+                                    @Value("${otp.twilio.service-sid:}") String serviceSid) {
+        this.httpClient = httpClient;
+        this.jsonMapper = jsonMapper;
+        boolean configured = !accountSid.isBlank();
+        this.verificationCheckUri = configured
+                ? URI.create(baseUrl + "/v2/Services/" + serviceSid + "/VerificationCheck")
+                : null;
+        this.authorization = configured
+                ? "Basic " + Base64.getEncoder().encodeToString((accountSid + ":" + authToken).getBytes(StandardCharsets.UTF_8))
+                : null;
+    }
+
+    /**
+     * Checks the code with Twilio Verify, blocking the calling thread.
      *
-     * @param providerToken OTP/token sent from the frontend.
-     * @param meta          Optional metadata (could include phone number, channel, requestId)
-     * @return ProviderVerifyResult - Standard result object (mocked)
+     * @param providerToken OTP code entered by the user.
+     * @param meta          Must contain <code>phoneNumber</code>, the number the code was sent to.
+     * @return ProviderVerifyResult - successful if Twilio approved the code
+     * @throws IllegalStateException if Twilio answers with an unexpected status (e.g. 401, 429, 5xx)
      */
     @Override
     public ProviderVerifyResult verify(String providerToken, Map<String, Object> meta) {
-        // TODO: Replace with actual Twilio verification logic using REST API/SDK
+        if (verificationCheckUri == null) {
+            return mockResult(meta);
+        }
+        HttpRequest request = verificationCheck(providerToken, meta);
+        return request != null
+                ? httpClient.send(request, response -> toResult(response, meta))
+                : rejected(meta);
+    }
 
-        return new ProviderVerifyResult(
-                true,                      // Pretend verification is successful
-                "user-0001",                // Mock user ID
-                "0000000000",               // Mock phone number
-                meta                       // Return metadata for debugging
-        );
+    /**
+     * Checks the code with Twilio Verify without blocking a thread while waiting for Twilio.
+     * Cancelling the returned future aborts the HTTP exchange.
+     */
+    @Override
+    public CompletableFuture<ProviderVerifyResult> verifyAsync(String providerToken,
+                                                               Map<String, Object> meta,
+                                                               Executor executor) {
+        if (verificationCheckUri == null) {
+            return CompletableFuture.completedFuture(mockResult(meta));
+        }
+        HttpRequest request = verificationCheck(providerToken, meta);
+        return request != null
+                ? httpClient.sendAsync(request, response -> toResult(response, meta))
+                : CompletableFuture.completedFuture(rejected(meta));
+    }
+
+    /**
+     * Twilio Verify approves a code only once; a second check of the same code fails,
+     * so requests to Twilio must never be hedged.
+     *
+     * @return {@code false}
+     */
+    @Override
+    public boolean supportsIdempotentVerification() {
+        return false;
     }
 
     /**
@@ -52,4 +136,64 @@ public class TwilioOtpProviderAdapter implements OtpProviderAdapter {
     public String providerKey() {
         return "TWILIO";
     }
+
+    /**
+     * @return the Verification Check request, or {@code null} if no phone number was given
+     */
+    private HttpRequest verificationCheck(String providerToken, Map<String, Object> meta) {
+        Object phoneNumber = meta != null ? meta.get(PHONE_NUMBER_META) : null;
+        if (phoneNumber == null || providerToken == null) {
+            return null;
+        }
+        String form = "To=" + URLEncoder.encode(phoneNumber.toString(), StandardCharsets.UTF_8)
+                + "&Code=" + URLEncoder.encode(providerToken, StandardCharsets.UTF_8);
+        return httpClient.newRequest(verificationCheckUri)
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    /**
+     * Maps a Verification Check response.
+     * <p>
+     * {@code 200} with status <code>approved</code> is a successful verification. Any other
+     * status in a {@code 200}, {@code 400} (malformed code) and {@code 404} (no pending
+     * verification: expired, already approved or too many attempts) are failed verifications.
+     * Everything else means Twilio could not answer and is reported as an exception.
+     * </p>
+     */
+    private ProviderVerifyResult toResult(HttpResponse<String> response, Map<String, Object> meta) {
+        return switch (response.statusCode()) {
+            case 200 -> {
+                JsonNode body = jsonMapper.readTree(response.body());
+                boolean approved = "approved".equals(body.path("status").asString(""));
+                yield new ProviderVerifyResult(
+                        approved,
+                        body.path("sid").asString(null),
+                        approved ? body.path("to").asString(null) : null,
+                        meta
+                );
+            }
+            case 400, 404 -> rejected(meta);
+            default -> throw new IllegalStateException("Twilio Verify returned HTTP " + response.statusCode());
+        };
+    }
+
+    private static ProviderVerifyResult rejected(Map<String, Object> meta) {
+        return new ProviderVerifyResult(false, null, null, meta);
+    }
+
+    /**
+     * Result returned while no Twilio credentials are configured.
+     */
+    private static ProviderVerifyResult mockResult(Map<String, Object> meta) {
+        return new ProviderVerifyResult(
+                true,                      // Pretend verification is successful
+                "user-0001",                // Mock user ID
+                "0000000000",               // Mock phone number
+                meta                       // Return metadata for debugging
+        );
+    }
 }
@@ -0,0 +1,203 @@
+package com.example.demo.auth.cache;
+
+import com.example.demo.auth.dto.UserDto;
+import com.example.demo.auth.model.User;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting cache of resolved users, keyed by phone number.
+ * <p>
+ * Two views of the same user are cached:
+ * <ul>
+ *     <li><strong>Principals</strong> – {@link User} entities used by Spring Security
+ *     to resolve the authenticated user on every request.</li>
+ *     <li><strong>Views</strong> – {@link UserDto} objects returned by the user endpoints.</li>
+ * </ul>
+ * Both share the same limits and are always invalidated together.
+ * </p>
+ *
+ * <p>
+ * Configuration (<code>application.properties</code>):
+ * <ul>
+ *     <li><code>user.cache.enabled</code> – turns the cache on or off (default {@code true})</li>
+ *     <li><code>user.cache.maximum-size</code> – maximum number of users per view</li>
+ *     <li><code>user.cache.expire-after-write</code> – hard upper bound on entry age</li>
+ *     <li><code>user.cache.expire-after-access</code> – evicts users that stop sending requests</li>
+ * </ul>
+ * Hit, miss and eviction counters are recorded and exposed through
+ * {@link #principalStats()} and {@link #viewStats()}.
+ * </p>
+ *
+ * <p>
+ * Loads run on the calling thread but outside the cache's internal lock: the cache only holds
+ * an in-flight future, which concurrent lookups of the same user wait on. A database call
+ * therefore never blocks lookups of other users whose keys share a hash bin, and virtual
+ * threads never park on JDBC I/O while holding a monitor. A user invalidated while it is
+ * being loaded is not cached with the stale result.
+ * </p>
+ */
+@Component
+public class UserCache {
+
+    private final boolean enabled;
+    private final AsyncCache<String, User> principals;
+    private final AsyncCache<String, UserDto> views;
+
+    @Autowired
+    public UserCache(@Value("${user.cache.enabled:true}") boolean enabled,
+                     @Value("${user.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${user.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                     @Value("${user.cache.expire-after-access:2m}") Duration expireAfterAccess) {
+        this(enabled, maximumSize, expireAfterWrite, expireAfterAccess, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param ticker   time source of the expiry policies
+     * @param executor runs evictions; tests pass a same-thread executor to make them immediate
+     */
+    UserCache(boolean enabled, long maximumSize, Duration expireAfterWrite, Duration expireAfterAccess,
+              Ticker ticker, Executor executor) {
+        this.enabled = enabled;
+        this.principals = newCache(maximumSize, expireAfterWrite, expireAfterAccess, ticker, executor);
+        this.views = newCache(maximumSize, expireAfterWrite, expireAfterAccess, ticker, executor);
+    }
+
+    /**
+     * Returns the cached user entity, loading it on a miss.
+     * <p>
+     * {@code null} results are not cached, so unknown phone numbers always reach the loader.
+     * </p>
+     *
+     * @param phoneNumber the phone number to look up
+     * @param loader      loads the user on a cache miss; may return {@code null}
+     * @return the user, or {@code null} if the loader found none
+     */
+    public User getPrincipal(String phoneNumber, Function<String, User> loader) {
+        return enabled ? get(principals, phoneNumber, loader, false) : loader.apply(phoneNumber);
+    }
+
+    /**
+     * Returns the cached user entity, creating it on a miss.
+     * <p>
+     * Shares the in-flight slot with {@link #getPrincipal}, but a lookup in flight that found
+     * no user does not answer for this call: the creator then runs as well.
+     * </p>
+     *
+     * @param phoneNumber the phone number to look up
+     * @param creator     finds or creates the user on a cache miss; never returns {@code null}
+     * @return the user
+     */
+    public User getOrCreatePrincipal(String phoneNumber, Function<String, User> creator) {
+        return enabled ? get(principals, phoneNumber, creator, true) : creator.apply(phoneNumber);
+    }
+
+    /**
+     * Returns the cached user view, loading it on a miss.
+     *
+     * @param phoneNumber the phone number to look up
+     * @param loader      loads the view on a cache miss; may return {@code null}
+     * @return the user view, or {@code null} if the loader found none
+     */
+    public UserDto getView(String phoneNumber, Function<String, UserDto> loader) {
+        return enabled ? get(views, phoneNumber, loader, false) : loader.apply(phoneNumber);
+    }
+
+    /**
+     * Removes every cached view of the given user.
+     * Must be called whenever a user is created or their roles change.
+     *
+     * @param phoneNumber the phone number of the changed user
+     */
+    public void invalidate(String phoneNumber) {
+        principals.synchronous().invalidate(phoneNumber);
+        views.synchronous().invalidate(phoneNumber);
+    }
+
+    /**
+     * @return hit/miss/eviction counters of the principal cache
+     */
+    public CacheStats principalStats() {
+        return principals.synchronous().stats();
+    }
+
+    /**
+     * @return hit/miss/eviction counters of the view cache
+     */
+    public CacheStats viewStats() {
+        return views.synchronous().stats();
+    }
+
+    /**
+     * Returns the cached value, or loads it on the calling thread if no lookup of the key
+     * is in flight, or waits for the lookup in flight. Failures are rethrown unwrapped and
+     * are not cached.
+     * <p>
+     * With {@code loadIfAbsent}, a {@code null} from the lookup in flight is not taken as the
+     * answer: that lookup is dropped from the cache, and the next round either installs this
+     * caller's loader or waits for a newer lookup.
+     * </p>
+     */
+    private static <V> V get(AsyncCache<String, V> cache, String key, Function<String, V> loader,
+                             boolean loadIfAbsent) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> cached = cache.get(key, (k, executor) -> load);
+        while (cached != load) {
+            V value = await(cached);
+            if (value != null || !loadIfAbsent) {
+                return value;
+            }
+            cache.asMap().remove(key, cached);
+            cached = cache.get(key, (k, executor) -> load);
+        }
+        try {
+            V value = loader.apply(key);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static <V> AsyncCache<String, V> newCache(long maximumSize,
+                                                      Duration expireAfterWrite,
+                                                      Duration expireAfterAccess,
+                                                      Ticker ticker,
+                                                      Executor executor) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .expireAfterAccess(expireAfterAccess)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .buildAsync();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.demo.auth.cache;
+
+import com.example.demo.auth.dto.JwtResponse;
+import com.example.demo.auth.util.Digests;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived idempotency cache for OTP verifications.
+ * <p>
+ * Mobile clients retry <code>POST /api/auth/verify-otp</code> with the same provider token when
+ * the network drops the response. Without this cache, every retry calls the OTP provider again,
+ * runs the user lookup/insert and signs a new JWT. Instead:
+ * <ul>
+ *     <li>a retry within <code>ttl</code> of a successful verification gets the JWT (and
+ *     refresh token) that was already issued;</li>
+ *     <li>duplicates that arrive while the first verification is still running wait for it and
+ *     share its outcome (single-flight), so only one provider call is made.</li>
+ * </ul>
+ * Failed verifications are not cached: once the in-flight call has failed, the next retry is
+ * verified again.
+ * </p>
+ *
+ * <p>
+ * In-flight verifications live in a plain map and only successful responses enter the TTL cache,
+ * so a wrong OTP code or an unavailable provider is passed to the waiting duplicates without
+ * going through a cache (and its failure logging) at all.
+ * </p>
+ *
+ * <p>
+ * Entries are keyed by a SHA-256 digest of the provider key(s), the provider token and the
+ * request metadata, so neither the token nor the JWT can be looked up by anything other than the
+ * identical request. The issued tokens are kept in memory only for <code>ttl</code>.
+ * </p>
+ *
+ * <p>
+ * Configuration (<code>application.properties</code>):
+ * <ul>
+ *     <li><code>otp.replay-cache.enabled</code> – turns the cache on or off (default {@code true})</li>
+ *     <li><code>otp.replay-cache.ttl</code> – how long an issued JWT is replayed (default 30s)</li>
+ *     <li><code>otp.replay-cache.maximum-size</code> – maximum number of remembered verifications</li>
+ * </ul>
+ * </p>
+ */
+@Component
+public class VerificationReplayCache {
+
+    private final boolean enabled;
+    private final Cache<String, JwtResponse> tokens;
+    private final ConcurrentMap<String, CompletableFuture<JwtResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder issued = new LongAdder();
+
+    public VerificationReplayCache(@Value("${otp.replay-cache.enabled:true}") boolean enabled,
+                                   @Value("${otp.replay-cache.ttl:30s}") Duration ttl,
+                                   @Value("${otp.replay-cache.maximum-size:10000}") long maximumSize) {
+        this.enabled = enabled;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns the JWT issued for an identical verification within the TTL, waits for an identical
+     * verification that is still running, or runs the verification on the calling thread.
+     *
+     * @param scope         the provider key, or any other value identifying the provider selection
+     * @param providerToken the OTP or provider token being verified
+     * @param meta          the request metadata; part of the key, since e.g. the same OTP code
+     *                      sent to different phone numbers are different verifications
+     * @param verification  verifies the token and issues the JWT (and refresh token)
+     * @return the issued tokens
+     * @throws RuntimeException whatever the verification (or the one it was collapsed into) threw
+     */
+    public JwtResponse getOrVerify(String scope,
+                                   String providerToken,
+                                   Map<String, Object> meta,
+                                   Supplier<JwtResponse> verification) {
+        if (!enabled) {
+            return verification.get();
+        }
+
+        String key = key(scope, providerToken, meta);
+        JwtResponse cached = tokens.getIfPresent(key);
+        if (cached != null) {
+            replayed.increment();
+            return cached;
+        }
+
+        CompletableFuture<JwtResponse> flight = new CompletableFuture<>();
+        CompletableFuture<JwtResponse> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            replayed.increment();
+            return await(existing);
+        }
+
+        try {
+            // the previous flight may have finished between the cache lookup and putIfAbsent
+            JwtResponse issuedTokens = tokens.getIfPresent(key);
+            if (issuedTokens != null) {
+                replayed.increment();
+            } else {
+                issuedTokens = verification.get();
+                issued.increment();
+                tokens.put(key, issuedTokens);
+            }
+            flight.complete(issuedTokens);
+            return issuedTokens;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return number of requests answered from a cached or in-flight verification
+     */
+    public long replayedCount() {
+        return replayed.sum();
+    }
+
+    /**
+     * @return number of verifications that actually ran and issued a JWT
+     */
+    public long issuedCount() {
+        return issued.sum();
+    }
+
+    /**
+     * Waits for a verification started by another request and rethrows its failure unwrapped,
+     * so callers (and the exception handler) see the same exception as the original request.
+     */
+    private static JwtResponse await(CompletableFuture<JwtResponse> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Metadata entries are sorted so that the key does not depend on the map's iteration order.
+     */
+    private static String key(String scope, String providerToken, Map<String, Object> meta) {
+        String sortedMeta = meta == null ? "" : new TreeMap<>(meta).toString();
+        return Digests.sha256(scope + '\u0000' + providerToken + '\u0000' + sortedMeta);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.auth.concurrent;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of concurrent calls to one remote dependency.
+ * <p>
+ * Unlike {@link DatabaseConcurrencyLimiter}, callers never wait for a permit: when all
+ * permits are taken the call is rejected immediately. A degraded dependency can then
+ * hold at most <code>maxConcurrentCalls</code> threads, and everything else
+ * (other providers, the rest of the API) keeps running.
+ * </p>
+ */
+public class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    /**
+     * @param maxConcurrentCalls maximum number of calls in flight at the same time
+     */
+    public Bulkhead(int maxConcurrentCalls) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("maxConcurrentCalls must be positive");
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    /**
+     * Takes a permit if one is available. Every acquired permit must be given back
+     * with {@link #release()}.
+     *
+     * @return {@code true} if the call may proceed
+     */
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        rejectedCalls.increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int maxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * @return the number of calls currently in flight
+     */
+    public int activeCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    /**
+     * @return calls rejected because the bulkhead was full
+     */
+    public long rejectedCalls() {
+        return rejectedCalls.sum();
+    }
+}
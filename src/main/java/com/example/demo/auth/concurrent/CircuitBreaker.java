@@ -0,0 +1,230 @@
+package com.example.demo.auth.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for calls to one remote dependency.
+ * <p>
+ * States:
+ * <ul>
+ *     <li><strong>CLOSED</strong> – calls are permitted. The outcomes of the last
+ *     <code>slidingWindowSize</code> calls are recorded; once at least
+ *     <code>minimumCalls</code> have been recorded and the failure rate reaches
+ *     <code>failureRateThreshold</code>, the breaker opens.</li>
+ *     <li><strong>OPEN</strong> – calls are rejected immediately, without waiting for
+ *     the dependency to fail, until <code>openDuration</code> has passed.</li>
+ *     <li><strong>HALF_OPEN</strong> – up to <code>halfOpenCalls</code> probe calls are
+ *     permitted. If they all succeed the breaker closes; any failure opens it again.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * State changes are guarded by the breaker's monitor. The critical sections only
+ * update counters and never block, so they are cheap even on virtual threads.
+ * </p>
+ */
+public class CircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Outcomes of the most recent calls in the CLOSED state; {@code true} = failure.
+     */
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+
+    private final LongAdder successfulCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder openedCount = new LongAdder();
+
+    /**
+     * @param failureRateThreshold failure rate in percent (1-100) at which the breaker opens
+     * @param slidingWindowSize    number of recent calls the failure rate is computed over
+     * @param minimumCalls         calls required in the window before the failure rate is evaluated
+     * @param openDuration         how long the breaker stays open before probing
+     * @param halfOpenCalls        probe calls permitted (and required to succeed) in the half-open state
+     */
+    public CircuitBreaker(int failureRateThreshold,
+                          int slidingWindowSize,
+                          int minimumCalls,
+                          Duration openDuration,
+                          int halfOpenCalls) {
+        this(failureRateThreshold, slidingWindowSize, minimumCalls, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureRateThreshold,
+                   int slidingWindowSize,
+                   int minimumCalls,
+                   Duration openDuration,
+                   int halfOpenCalls,
+                   LongSupplier nanoClock) {
+        if (failureRateThreshold < 1 || failureRateThreshold > 100) {
+            throw new IllegalArgumentException("failureRateThreshold must be between 1 and 100");
+        }
+        if (slidingWindowSize < 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("slidingWindowSize and halfOpenCalls must be positive");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[slidingWindowSize];
+        this.minimumCalls = Math.clamp(minimumCalls, 1, slidingWindowSize);
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Asks for permission to make a call. Every permitted call must be followed by
+     * exactly one call to {@link #onSuccess()} or {@link #onFailure()}.
+     *
+     * @return {@code true} if the call may proceed
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openDurationNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && halfOpenPermitted < halfOpenCalls) {
+            halfOpenPermitted++;
+            return true;
+        }
+        rejectedCalls.increment();
+        return false;
+    }
+
+    /**
+     * Records a successful call.
+     */
+    public synchronized void onSuccess() {
+        successfulCalls.increment();
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                if (++halfOpenSucceeded >= halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // A call permitted before the breaker opened; it does not close it.
+            }
+        }
+    }
+
+    /**
+     * Records a failed call.
+     */
+    public synchronized void onFailure() {
+        failedCalls.increment();
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case HALF_OPEN -> transitionTo(State.OPEN);
+            case OPEN -> {
+                // Already open.
+            }
+        }
+    }
+
+    /**
+     * @return the current state; an OPEN breaker whose open duration has passed is
+     * reported as OPEN until the next permission request moves it to HALF_OPEN
+     */
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Checks, without taking a permission, whether a call would currently be rejected
+     * because the breaker is open. A half-open breaker is not reported as rejecting.
+     *
+     * @return {@code true} if the breaker is open and its open duration has not passed yet
+     */
+    public synchronized boolean isRejectingCalls() {
+        return state == State.OPEN && nanoClock.getAsLong() - openedAtNanos < openDurationNanos;
+    }
+
+    /**
+     * @return the failure rate in percent over the current window, or {@code -1}
+     * if fewer than <code>minimumCalls</code> calls have been recorded
+     */
+    public synchronized float failureRate() {
+        return windowCount >= minimumCalls ? windowFailures * 100f / windowCount : -1;
+    }
+
+    public long successfulCalls() {
+        return successfulCalls.sum();
+    }
+
+    public long failedCalls() {
+        return failedCalls.sum();
+    }
+
+    /**
+     * @return calls rejected because the breaker was open or out of half-open probes
+     */
+    public long rejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    /**
+     * @return how many times the breaker has opened
+     */
+    public long openedCount() {
+        return openedCount.sum();
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        switch (newState) {
+            case OPEN -> {
+                openedAtNanos = nanoClock.getAsLong();
+                openedCount.increment();
+            }
+            case HALF_OPEN -> {
+                halfOpenPermitted = 0;
+                halfOpenSucceeded = 0;
+            }
+            case CLOSED -> {
+                windowIndex = 0;
+                windowCount = 0;
+                windowFailures = 0;
+            }
+        }
+    }
+}
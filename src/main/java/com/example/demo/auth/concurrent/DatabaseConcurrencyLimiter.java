@@ -0,0 +1,82 @@
+package com.example.demo.auth.concurrent;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many threads may run database work at the same time.
+ * <p>
+ * With virtual threads, the number of concurrent requests is no longer capped by a
+ * thread pool, so thousands of requests can reach the JDBC layer at once while the
+ * connection pool only has a handful of connections. Without a limit, those requests
+ * all queue inside the pool and fail with connection timeouts under load.
+ * This limiter makes them wait fairly, in arrival order, for one of
+ * <code>db.concurrency.limit</code> permits (by default the Hikari pool size).
+ * </p>
+ *
+ * <p>
+ * {@link Semaphore} parks virtual threads without pinning their carrier thread.
+ * </p>
+ */
+@Component
+public class DatabaseConcurrencyLimiter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public DatabaseConcurrencyLimiter(
+            @Value("${db.concurrency.limit:${spring.datasource.hikari.maximum-pool-size:10}}") int limit,
+            @Value("${db.concurrency.acquire-timeout:30s}") Duration acquireTimeout) {
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    /**
+     * Runs the given database work once a permit is available.
+     *
+     * @param work the database work to run
+     * @param <T>  the result type
+     * @return the result of {@code work}
+     * @throws IllegalStateException if no permit becomes available within the acquire timeout
+     */
+    public <T> T call(Supplier<T> work) {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Timed out waiting for a database connection permit");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a database connection permit", ex);
+        }
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs the given database work, which has no result, once a permit is available.
+     *
+     * @param work the database work to run
+     * @throws IllegalStateException if no permit becomes available within the acquire timeout
+     */
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return the number of permits currently available
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.auth.concurrent;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor that runs blocking calls to OTP providers (remote HTTP calls to Twilio, Firebase, ...).
+ * <p>
+ * The thread model follows <code>spring.threads.virtual.enabled</code>, the same switch
+ * that moves Tomcat request handling onto virtual threads:
+ * <ul>
+ *     <li><strong>Virtual threads</strong> – one virtual thread per call. A slow provider
+ *     only parks cheap virtual threads, so concurrency is not capped by a pool size.</li>
+ *     <li><strong>Platform threads</strong> – a bounded pool of
+ *     <code>otp.executor.max-threads</code> threads with a bounded queue, so a slow provider
+ *     cannot exhaust the servlet container's request threads.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Deliberately not exposed as an {@link java.util.concurrent.Executor} bean, which would
+ * replace Spring Boot's auto-configured <code>applicationTaskExecutor</code>.
+ * </p>
+ */
+@Component
+public class OtpProviderExecutor implements DisposableBean {
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public OtpProviderExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                               @Value("${otp.executor.max-threads:64}") int maxThreads,
+                               @Value("${otp.executor.queue-capacity:1000}") int queueCapacity) {
+        this.virtualThreads = virtualThreads;
+        this.executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("otp-provider-", 0).factory())
+                : new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("otp-provider-", 0).daemon(true).factory());
+    }
+
+    /**
+     * @return the executor to submit provider calls to
+     */
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    /**
+     * @return {@code true} if provider calls run on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -1,8 +1,50 @@
 package com.example.demo.auth.config;
 
+import com.example.demo.auth.exception.InvalidRefreshTokenException;
+import com.example.demo.auth.exception.OtpProviderUnavailableException;
+import com.example.demo.auth.exception.RateLimitExceededException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+/**
+ * Maps application exceptions to HTTP error responses (RFC 9457 problem details).
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    /**
+     * An OTP provider timed out or is at capacity; the client may retry later.
+     */
+    @ExceptionHandler(OtpProviderUnavailableException.class)
+    public ProblemDetail handleOtpProviderUnavailable(OtpProviderUnavailableException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problem.setProperty("providerKey", ex.getProviderKey());
+        return problem;
+    }
+
+    /**
+     * A rate limit was exceeded; <code>Retry-After</code> tells the client when to try again
+     * (in whole seconds, rounded up).
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleRateLimitExceeded(RateLimitExceededException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+        problem.setProperty("limit", ex.getLimit());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(problem);
+    }
+
+    /**
+     * A refresh token was rejected; the client has to log in again.
+     */
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ProblemDetail handleInvalidRefreshToken(InvalidRefreshTokenException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, ex.getMessage());
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.demo.auth.config;
+
+import com.example.demo.auth.metrics.AuthMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meter filters, applied by Spring Boot to every auto-configured meter registry.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * @return percentile histograms for the login observations' timers
+     */
+    @Bean
+    public MeterFilter authLoginHistograms() {
+        return AuthMetrics.loginHistograms();
+    }
+}
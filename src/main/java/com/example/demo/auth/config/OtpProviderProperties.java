@@ -0,0 +1,114 @@
+package com.example.demo.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-provider settings for OTP provider calls, bound from <code>otp.providers.*</code>.
+ * <p>
+ * Example:
+ * <pre>
+ *     otp.providers.TWILIO.timeout=3s
+ *     otp.providers.FIREBASE.timeout=2s
+ *     otp.providers.FIREBASE.hedge=true
+ *     otp.providers.FIREBASE.hedge-delay=150ms
+ *     otp.providers.FIREBASE.max-concurrent-calls=50
+ *     otp.providers.FIREBASE.circuit-breaker.open-duration=30s
+ *     otp.providers.TWILIO.fallback=FIREBASE
+ * </pre>
+ * Providers without an entry use {@link #defaults}.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "otp")
+public class OtpProviderProperties {
+
+    /**
+     * Settings applied to providers that have no entry in {@link #providers}.
+     */
+    private Provider defaults = new Provider();
+
+    /**
+     * Provider key (as returned by {@code OtpProviderAdapter#providerKey()}) → settings.
+     */
+    private Map<String, Provider> providers = new HashMap<>();
+
+    /**
+     * Returns the settings for a provider, falling back to {@link #defaults}.
+     *
+     * @param providerKey the provider key
+     * @return the provider's settings, never {@code null}
+     */
+    public Provider settingsFor(String providerKey) {
+        return providers.getOrDefault(providerKey, defaults);
+    }
+
+    @Data
+    public static class Provider {
+
+        /**
+         * Upper bound on a verification, including any hedged request.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /**
+         * Whether to send a second request when the first one is slow.
+         * Only applies to providers whose verification is idempotent.
+         */
+        private boolean hedge = false;
+
+        /**
+         * Delay before the hedged request is sent. When unset, the provider's
+         * observed p95 latency is used once enough samples have been collected.
+         */
+        private Duration hedgeDelay;
+
+        /**
+         * Bulkhead: maximum number of verifications in flight for this provider.
+         * Further calls are rejected immediately instead of waiting.
+         */
+        private int maxConcurrentCalls = 100;
+
+        /**
+         * Key of a provider to try when this one is unavailable (circuit open,
+         * bulkhead full, timed out or failing). Not chained: the fallback's own
+         * fallback is not used.
+         */
+        private String fallback;
+
+        private CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+    }
+
+    @Data
+    public static class CircuitBreakerSettings {
+
+        /**
+         * Failure rate, in percent, at which the circuit opens.
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * Number of most recent calls the failure rate is computed over.
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Calls required in the window before the failure rate is evaluated.
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * How long the circuit stays open before probe calls are let through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * Probe calls permitted while half-open; all must succeed to close the circuit.
+         */
+        private int halfOpenCalls = 3;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the shared outbound HTTP client, bound from <code>http.client.*</code>.
+ * <p>
+ * Example:
+ * <pre>
+ *     http.client.connect-timeout=2s
+ *     http.client.read-timeout=5s
+ *     http.client.http2=true
+ * </pre>
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "http.client")
+public class OutboundHttpProperties {
+
+    /**
+     * Maximum time to establish a TCP connection (including the TLS handshake).
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Maximum time to wait for a response once the request has been sent.
+     */
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Whether to negotiate HTTP/2 (via ALPN) and multiplex requests to a host over one connection.
+     * Hosts that do not support HTTP/2 are served over pooled HTTP/1.1 keep-alive connections.
+     */
+    private boolean http2 = true;
+}
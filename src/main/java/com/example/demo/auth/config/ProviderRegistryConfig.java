@@ -1,6 +1,7 @@
 package com.example.demo.auth.config;
 
 import com.example.demo.auth.adapter.OtpProviderAdapter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -30,6 +31,7 @@ import java.util.stream.Collectors;
  * </p>
  */
 @Configuration
+@EnableConfigurationProperties({OtpProviderProperties.class, OutboundHttpProperties.class})
 public class ProviderRegistryConfig {
 
     /**
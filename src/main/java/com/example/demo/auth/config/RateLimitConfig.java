@@ -0,0 +1,29 @@
+package com.example.demo.auth.config;
+
+import com.example.demo.auth.ratelimit.InMemoryRateLimitStore;
+import com.example.demo.auth.ratelimit.RateLimitStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the rate limit settings and the default, in-memory bucket store.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    /**
+     * Keeps the buckets of this instance in memory. Declaring another {@link RateLimitStore}
+     * bean (e.g. backed by Redis) replaces it.
+     *
+     * @param properties the rate limit settings
+     * @return the in-memory store
+     */
+    @Bean
+    @ConditionalOnMissingBean(RateLimitStore.class)
+    public InMemoryRateLimitStore rateLimitStore(RateLimitProperties properties) {
+        return new InMemoryRateLimitStore(properties.getMaximumKeys(), properties.getIdleTimeout());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Rate limits of <code>POST /api/auth/verify-otp</code>, bound from <code>otp.rate-limit.*</code>.
+ * <p>
+ * Example:
+ * <pre>
+ *     otp.rate-limit.ip.capacity=60
+ *     otp.rate-limit.ip.period=1m
+ *     otp.rate-limit.phone-number.capacity=10
+ *     otp.rate-limit.phone-number.period=1m
+ *     otp.rate-limit.provider.capacity=500
+ *     otp.rate-limit.provider.period=1s
+ * </pre>
+ * Each limit allows <code>capacity</code> requests per <code>period</code>, all of which may
+ * arrive as a burst.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "otp.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of buckets kept in memory. When exceeded, the least recently used
+     * buckets are dropped, which resets (i.e. refills) them.
+     */
+    private long maximumKeys = 100_000;
+
+    /**
+     * Buckets not used for this long are dropped. Must be at least the longest period,
+     * otherwise a bucket could be refilled before its period has passed.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Requests per client IP address.
+     */
+    private Limit ip = new Limit(60, Duration.ofMinutes(1));
+
+    /**
+     * Requests per phone number (<code>meta.phoneNumber</code>), across all clients.
+     */
+    private Limit phoneNumber = new Limit(10, Duration.ofMinutes(1));
+
+    /**
+     * Calls per provider, across all clients. Routed requests and fallbacks are charged to the
+     * provider they call.
+     */
+    private Limit provider = new Limit(500, Duration.ofSeconds(1));
+
+    @Data
+    public static class Limit {
+
+        private long capacity;
+
+        private Duration period;
+
+        public Limit() {
+        }
+
+        public Limit(long capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.auth.config;
+
+import com.example.demo.auth.datasource.ReplicaDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to read replicas when <code>db.replicas.urls</code> is set.
+ * <p>
+ * The application's {@link DataSource} then becomes a {@link LazyConnectionDataSourceProxy}
+ * over the primary pool (configured as usual through <code>spring.datasource.*</code>), with a
+ * {@link ReplicaDataSource} as its read-only target:
+ * <ul>
+ *     <li><code>@Transactional(readOnly = true)</code> work – user lookups, the user list and
+ *     stream – reads from a replica;</li>
+ *     <li>everything else – upserts, imports, token writes and reads outside a read-only
+ *     transaction – runs on the primary.</li>
+ * </ul>
+ * Without replica URLs, none of these beans exist and Spring Boot configures the single pool.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    /**
+     * @param properties <code>spring.datasource.*</code>
+     * @return the primary pool, further configured by <code>spring.datasource.hikari.*</code>
+     */
+    @Bean
+    @ConditionalOnProperty("db.replicas.urls")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * @param primaryDataSource  fallback when no replica is available
+     * @param dataSourceProperties credentials used for replicas without their own
+     * @param replicaProperties  replica URLs and pool settings
+     * @return one pool per replica, load-balanced
+     */
+    @Bean
+    @ConditionalOnProperty("db.replicas.urls")
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                               DataSourceProperties dataSourceProperties,
+                                               ReplicaProperties replicaProperties) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getUrls().size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(replicaProperties.getUrls().get(i));
+            config.setUsername(replicaProperties.getUsername() != null
+                    ? replicaProperties.getUsername() : dataSourceProperties.determineUsername());
+            config.setPassword(replicaProperties.getPassword() != null
+                    ? replicaProperties.getPassword() : dataSourceProperties.determinePassword());
+            config.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            config.setConnectionTimeout(replicaProperties.getConnectionTimeout().toMillis());
+            config.setReadOnly(true);
+            // a replica that is down at startup must not prevent the application from starting
+            config.setInitializationFailTimeout(-1);
+            pools.add(new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(primaryDataSource, pools);
+    }
+
+    /**
+     * @param primaryDataSource target of read-write transactions
+     * @param replicaDataSource target of read-only transactions
+     * @return the data source used by JPA and all repositories
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty("db.replicas.urls")
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas of the primary database, bound from <code>db.replicas.*</code>.
+ * <p>
+ * Example:
+ * <pre>
+ *     db.replicas.urls=jdbc:postgresql://replica-1:5432/yourdb,jdbc:postgresql://replica-2:5432/yourdb
+ *     db.replicas.maximum-pool-size=10
+ *     db.replicas.sticky-window=5s
+ * </pre>
+ * Without URLs, all traffic goes to <code>spring.datasource.url</code>.
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "db.replicas")
+public class ReplicaProperties {
+
+    /**
+     * JDBC URLs of the replicas.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Replica user; defaults to <code>spring.datasource.username</code>.
+     */
+    private String username;
+
+    /**
+     * Replica password; defaults to <code>spring.datasource.password</code>.
+     */
+    private String password;
+
+    /**
+     * Connection pool size per replica.
+     */
+    private int maximumPoolSize = 10;
+
+    /**
+     * How long a read waits for a replica connection before moving on to the next replica or
+     * the primary. Kept short, since the primary can always serve the read. A replica that
+     * cannot connect within it is marked down; one whose connections are all in use is not.
+     */
+    private Duration connectionTimeout = Duration.ofMillis(500);
+
+    /**
+     * How often replicas are probed, so that a replica marked down is used again once it recovers.
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * After a user is created or changed, reads of that user go to the primary for this long,
+     * so the change is seen before it has reached the replicas. Should exceed the usual
+     * replication lag.
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,12 @@
+package com.example.demo.auth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} maintenance tasks, such as the cleanup of expired refresh tokens.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
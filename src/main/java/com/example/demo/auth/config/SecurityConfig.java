@@ -1,9 +1,13 @@
 package com.example.demo.auth.config;
 
 import com.example.demo.auth.filter.JwtAuthFilter;
+import com.example.demo.auth.filter.PublicPaths;
 import com.example.demo.auth.service.UserService;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -21,6 +25,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
  * - Providing a UserDetailsService bean for security’s authentication process
  */
 @Configuration
+@EnableConfigurationProperties(JwtSigningProperties.class)
 public class SecurityConfig {
 
     private final UserService userService;
@@ -34,7 +39,10 @@ public class SecurityConfig {
      * <p>
      * - Disables CSRF since tokens make CSRF protection unnecessary
      * - Sets session policy to STATELESS because we rely entirely on JWT
-     * - Allows unauthenticated access to /api/auth/** routes
+     * - Allows unauthenticated access to {@link PublicPaths} (/api/auth/**, JWKS, health probes, static resources)
+     * - Restricts bulk user import and provider stats to administrators
+     * - Permits async dispatches, which complete requests (e.g. the streamed user listing)
+     *   that were already authorized; without a session they carry no authentication
      * - Requires authentication for all other endpoints
      * - Registers the JwtAuthFilter to run before Spring Security’s username/password filter
      */
@@ -47,7 +55,12 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/**").permitAll()
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(PublicPaths.patterns()).permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/users/import").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/api/users/*/tokens").hasRole("ADMIN")
+                        .requestMatchers("/api/providers/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
 
@@ -66,6 +79,9 @@ public class SecurityConfig {
      * whenever authentication is needed.
      * <p>
      * - We delegate to our existing UserService, avoiding duplicate logic.
+     * <p>
+     * - Lookups that miss the user cache wait for a database permit in {@link UserService},
+     * so request concurrency (unbounded with virtual threads) cannot exhaust the connection pool.
      */
     @Bean
     public UserDetailsService userDetailsService(UserService userService) {
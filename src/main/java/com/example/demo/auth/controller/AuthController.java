@@ -2,56 +2,109 @@ package com.example.demo.auth.controller;
 
 import com.example.demo.auth.dto.JwtResponse;
 import com.example.demo.auth.dto.OtpVerifyRequest;
-import com.example.demo.auth.service.JWTServiceImpl;
+import com.example.demo.auth.dto.RefreshTokenRequest;
+import com.example.demo.auth.ratelimit.OtpRateLimiter;
 import com.example.demo.auth.service.OtpAuthServiceImpl;
+import com.example.demo.auth.service.RefreshTokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST controller responsible for handling authentication requests.
  *
- * <p>This controller provides two main functionalities:
+ * <p>This controller provides three main functionalities:
  * <ul>
  *     <li>Login using username → returns JWT (mock login, no password validation yet).</li>
  *     <li>OTP verification using dynamic provider selection (e.g., Firebase, Twilio).</li>
+ *     <li>Refreshing a JWT with a refresh token, without calling any OTP provider.</li>
  * </ul>
  *
  * <p>The OTP verification logic is delegated to {@link OtpAuthServiceImpl},
  * which uses the Adapter Pattern to support multiple OTP providers
  * without changing backend logic.
+ *
+ * <p>Verifications are rate limited per client IP and phone number by
+ * {@link OtpRateLimiter} before any provider is called; each provider call is limited
+ * per provider by the provider registry.
  */
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final OtpAuthServiceImpl otpAuthServiceImpl;
+    private final OtpRateLimiter otpRateLimiter;
+    private final RefreshTokenService refreshTokenService;
 
     /**
      * Constructor injection for required services.
      *
      * @param otpAuthServiceImpl Service responsible for OTP verification.
+     * @param otpRateLimiter     Rate limits verifications per client, phone number and provider.
+     * @param refreshTokenService Rotates refresh tokens.
      */
-    public AuthController(OtpAuthServiceImpl otpAuthServiceImpl) {
+    public AuthController(OtpAuthServiceImpl otpAuthServiceImpl,
+                          OtpRateLimiter otpRateLimiter,
+                          RefreshTokenService refreshTokenService) {
         this.otpAuthServiceImpl = otpAuthServiceImpl;
+        this.otpRateLimiter = otpRateLimiter;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
-     * Verifies OTP using the configured provider and returns a JWT token.
+     * Verifies OTP using the configured provider and returns a JWT token and a refresh token.
+     *
+     * <p>If {@code providerKey} is omitted, the provider with the best recent latency and
+     * success rate among {@code providerKeys} (or all providers) is used.</p>
      *
-     * @param request Contains providerKey, providerToken, and optional meta data.
-     * @return ResponseEntity containing a JWT wrapped in {@link JwtResponse}.
+     * @param request     Contains providerKey (or providerKeys), providerToken, and optional meta data.
+     * @param httpRequest The servlet request, used for the client's IP address.
+     * @return ResponseEntity containing a JWT and a refresh token wrapped in {@link JwtResponse}.
      * @throws IllegalArgumentException If invalid providerKey is passed.
      * @throws RuntimeException         If OTP verification fails.
+     * @throws com.example.demo.auth.exception.RateLimitExceededException If a rate limit is exceeded (429).
      * @apiNote This endpoint uses dynamic provider selection
      * (Adapter Pattern) to remain independent of the OTP provider.
      */
     @PostMapping("/verify-otp")
-    public ResponseEntity<?> verifyOtp(@RequestBody OtpVerifyRequest request) {
-        String token = otpAuthServiceImpl.verifyAndGenerateToken(
-                request.getProviderKey(),
-                request.getProviderToken(),
-                request.getMeta()
+    public ResponseEntity<?> verifyOtp(@RequestBody OtpVerifyRequest request, HttpServletRequest httpRequest) {
+        Object phoneNumber = request.getMeta() != null ? request.getMeta().get("phoneNumber") : null;
+        otpRateLimiter.checkVerification(
+                httpRequest.getRemoteAddr(),
+                phoneNumber != null ? phoneNumber.toString() : null
         );
-        return ResponseEntity.ok(new JwtResponse(token));
+
+        JwtResponse tokens;
+        if (request.getProviderKey() != null) {
+            tokens = otpAuthServiceImpl.verifyAndGenerateToken(
+                    request.getProviderKey(),
+                    request.getProviderToken(),
+                    request.getMeta()
+            );
+        } else {
+            tokens = otpAuthServiceImpl.verifyAndGenerateToken(
+                    request.getProviderKeys() != null ? request.getProviderKeys() : List.of(),
+                    request.getProviderToken(),
+                    request.getMeta()
+            );
+        }
+        return ResponseEntity.ok(tokens);
+    }
+
+    /**
+     * Exchanges a refresh token for a new JWT and a new refresh token.
+     *
+     * <p>The presented refresh token can be used only once. No OTP provider is called.</p>
+     *
+     * @param request Contains the refresh token from the last login or refresh.
+     * @return ResponseEntity containing the new JWT and refresh token wrapped in {@link JwtResponse}.
+     * @throws com.example.demo.auth.exception.InvalidRefreshTokenException If the token is invalid,
+     *                                                                      expired or already used (401).
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refresh(@RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(refreshTokenService.refresh(request.getRefreshToken()));
     }
 }
@@ -0,0 +1,47 @@
+package com.example.demo.auth.controller;
+
+import com.example.demo.auth.service.JwtKeyring;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the public JWT verification keys as a JSON Web Key Set (RFC 7517).
+ * <p>
+ * Edge proxies and other services fetch this document to verify tokens locally instead of
+ * calling back into this service. It is public and may be cached for
+ * {@value #MAX_AGE_SECONDS} seconds; a newly added key must therefore be published at least
+ * that long before it becomes active.
+ * </p>
+ */
+@RestController
+public class JwksController {
+
+    static final long MAX_AGE_SECONDS = 300;
+
+    private final JwtKeyring keyring;
+
+    /**
+     * @param keyring the keys to publish
+     */
+    public JwksController(JwtKeyring keyring) {
+        this.keyring = keyring;
+    }
+
+    /**
+     * Returns every configured public key; the key set is empty in HS256 mode.
+     *
+     * @return a {@link ResponseEntity} containing <code>{"keys": [...]}</code>
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, String>>>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(MAX_AGE_SECONDS)).cachePublic())
+                .body(Map.of("keys", keyring.jwks()));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.auth.controller;
+
+import com.example.demo.auth.adapter.ResilientOtpProviderRegistry;
+import com.example.demo.auth.dto.OutboundHostStatsDto;
+import com.example.demo.auth.dto.ProviderStatsDto;
+import com.example.demo.auth.http.OutboundHttpClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller exposing the health of the configured OTP providers (administrators only).
+ */
+@RestController
+@RequestMapping("/api/providers")
+public class ProviderController {
+
+    private final ResilientOtpProviderRegistry otpProviderRegistry;
+    private final OutboundHttpClient outboundHttpClient;
+
+    /**
+     * @param otpProviderRegistry the guarded provider registry whose counters are reported
+     * @param outboundHttpClient  the shared HTTP client whose per-host counters are reported
+     */
+    public ProviderController(ResilientOtpProviderRegistry otpProviderRegistry,
+                              OutboundHttpClient outboundHttpClient) {
+        this.otpProviderRegistry = otpProviderRegistry;
+        this.outboundHttpClient = outboundHttpClient;
+    }
+
+    /**
+     * Returns circuit breaker state, bulkhead usage, fallback and latency counters per provider.
+     *
+     * @return a {@link ResponseEntity} containing one {@link ProviderStatsDto} per provider
+     */
+    @GetMapping
+    public ResponseEntity<List<ProviderStatsDto>> getProviderStats() {
+        return ResponseEntity.ok(otpProviderRegistry.stats());
+    }
+
+    /**
+     * Returns per-host counters of the shared outbound HTTP client.
+     *
+     * @return a {@link ResponseEntity} containing one {@link OutboundHostStatsDto} per host
+     */
+    @GetMapping("/http")
+    public ResponseEntity<List<OutboundHostStatsDto>> getHttpStats() {
+        return ResponseEntity.ok(outboundHttpClient.hostStats());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.auth.controller;
+
+import com.example.demo.auth.dto.JwtPrincipal;
+import com.example.demo.auth.service.TokenRevocationService;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the caller's own access token.
+ */
+@RestController
+@RequestMapping("/api/tokens")
+public class TokenController {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * @param tokenRevocationService revokes tokens before they expire
+     */
+    public TokenController(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    /**
+     * Revokes the bearer token of this request (logout). Other tokens of the user stay valid.
+     *
+     * @param authentication the current authentication; its details are the verified token
+     * @return {@code 204 No Content}, or {@code 400 Bad Request} if the token has no ID
+     */
+    @DeleteMapping("/current")
+    public ResponseEntity<@NonNull Void> revokeCurrent(Authentication authentication) {
+        if (!(authentication.getDetails() instanceof JwtPrincipal principal) || principal.tokenId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        tokenRevocationService.revokeToken(principal);
+        return ResponseEntity.noContent().build();
+    }
+}
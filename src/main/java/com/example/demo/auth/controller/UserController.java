@@ -1,21 +1,33 @@
 package com.example.demo.auth.controller;
 
 import com.example.demo.auth.dto.UserDto;
+import com.example.demo.auth.dto.UserImportRequest;
+import com.example.demo.auth.dto.UserImportResultDto;
+import com.example.demo.auth.dto.UserPageDto;
+import com.example.demo.auth.service.UserImportService;
 import com.example.demo.auth.service.UserService;
+import jakarta.validation.Valid;
 import org.jspecify.annotations.NonNull;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * REST controller responsible for handling user-related API endpoints.
  * <p>
  * This controller exposes endpoints to retrieve:
  * <ul>
- *     <li>All registered users</li>
+ *     <li>Registered users, one keyset-paginated page at a time</li>
+ *     <li>All registered users as a streamed NDJSON response</li>
  *     <li>A single user based on phone number</li>
  * </ul>
+ * and to bulk-import users and revoke a user's tokens (administrators only).
  * </p>
  *
  * <p>
@@ -27,25 +39,104 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserController {
 
+    /**
+     * Media type of the streamed user listing: one JSON object per line.
+     */
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ObjectWriter userWriter;
 
     /**
      * Constructs the {@link UserController} with the required {@link UserService}.
      *
-     * @param userService the service responsible for user-related operations
+     * @param userService       the service responsible for user-related operations
+     * @param userImportService the service responsible for bulk user imports
+     * @param jsonMapper        the application's JSON mapper, used to write streamed users
      */
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          UserImportService userImportService,
+                          JsonMapper jsonMapper) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.userWriter = jsonMapper.writerFor(UserDto.class);
     }
 
     /**
-     * Retrieves all users in the system.
+     * Retrieves one page of users, ordered by ID.
+     * <p>
+     * Pagination is keyset-based: pass the {@code nextCursor} of the previous
+     * response as {@code after} to get the following page.
+     * </p>
      *
-     * @return a {@link ResponseEntity} containing a list of {@link UserDto}
+     * @param after the cursor from the previous page; omit for the first page
+     * @param limit the page size, clamped to [1, {@value #MAX_PAGE_SIZE}]
+     * @return a {@link ResponseEntity} containing a {@link UserPageDto}
      */
     @GetMapping
-    public ResponseEntity<@NonNull List<UserDto>> getUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<@NonNull UserPageDto> getUsers(
+            @RequestParam(name = "after", required = false) Long after,
+            @RequestParam(name = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        return ResponseEntity.ok(userService.getUsersPage(after, pageSize));
+    }
+
+    /**
+     * Streams all users as newline-delimited JSON.
+     * <p>
+     * Users are read through a database cursor and written to the response one
+     * line at a time, so memory use stays constant regardless of the number of users.
+     * </p>
+     *
+     * @return a {@link ResponseEntity} whose body writes one {@link UserDto} per line
+     */
+    @GetMapping(value = "/stream", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<@NonNull StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = out -> userService.forEachUser(user -> {
+            try {
+                out.write(userWriter.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Bulk-imports users from a list of phone numbers.
+     * <p>
+     * Users are inserted in JDBC batches, one transaction per chunk. Phone numbers
+     * that already belong to a user are skipped. Requires <code>ROLE_ADMIN</code>.
+     * </p>
+     *
+     * @param request the phone numbers to import
+     * @return a {@link ResponseEntity} containing the import summary
+     */
+    @PostMapping("/import")
+    public ResponseEntity<@NonNull UserImportResultDto> importUsers(@Valid @RequestBody UserImportRequest request) {
+        return ResponseEntity.ok(userImportService.importUsers(request.getPhoneNumbers()));
+    }
+
+    /**
+     * Revokes every token issued to a user so far, including refresh tokens.
+     * <p>
+     * The user has to log in again with an OTP. Requires <code>ROLE_ADMIN</code>.
+     * </p>
+     * @param phoneNumber the unique phone number associated with the user
+     * @return {@code 204 No Content}, or {@code 404 Not Found} if the user does not exist
+     */
+    @DeleteMapping("/{phoneNumber}/tokens")
+    public ResponseEntity<@NonNull Void> revokeTokens(@PathVariable("phoneNumber") String phoneNumber) {
+        return userService.revokeTokens(phoneNumber)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
     }
 
     /**
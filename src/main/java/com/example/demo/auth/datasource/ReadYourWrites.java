@@ -0,0 +1,89 @@
+package com.example.demo.auth.datasource;
+
+import com.example.demo.auth.config.ReplicaProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes consistency on top of replica routing.
+ * <p>
+ * Replicas lag behind the primary, so a user read from a replica right after being created or
+ * changed may be missing or stale. Writers {@link #written(String) mark} the key they changed;
+ * for <code>db.replicas.sticky-window</code> afterwards, {@link #read(String, Supplier)} sends
+ * reads of that key to the primary. Reads that must see the latest state regardless (e.g. the
+ * read of a read-modify-write) use {@link #onPrimary(Supplier)}.
+ * </p>
+ *
+ * <p>
+ * Marks are kept per instance: a request for a just-created user served by another instance
+ * may still read from a replica. Without replicas, every read goes to the primary anyway.
+ * </p>
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private static final long MAXIMUM_KEYS = 100_000;
+
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWrites(ReplicaProperties properties) {
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_KEYS)
+                .expireAfterWrite(properties.getStickyWindow())
+                .build();
+    }
+
+    /**
+     * Sends reads of the given key to the primary for the sticky window.
+     *
+     * @param key the changed key, e.g. a phone number
+     */
+    public void written(String key) {
+        recentWrites.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * Runs a read of the given key, on the primary if the key was written recently.
+     *
+     * @param key  the key being read
+     * @param read the read
+     * @return the read's result
+     */
+    public <T> T read(String key, Supplier<T> read) {
+        return recentWrites.getIfPresent(key) != null ? onPrimary(read) : read.get();
+    }
+
+    /**
+     * Runs a read on the primary, even in a read-only transaction.
+     * <p>
+     * The choice is made when the transaction's first statement needs a connection, so the
+     * read must not join a transaction that is already running.
+     * </p>
+     *
+     * @param read the read
+     * @return the read's result
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY.remove();
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the current thread runs inside {@link #onPrimary(Supplier)}
+     */
+    static boolean primaryRequested() {
+        return PRIMARY.get() != null;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.auth.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source for read-only transactions, spread over a set of replica pools.
+ * <p>
+ * Each connection is taken from the healthy replica with the fewest active connections,
+ * starting the scan at a rotating offset so ties are broken round-robin. A replica whose
+ * connections are all in use is busy, not down: it is skipped for this read only. A replica
+ * whose pool cannot connect, or hands out a connection that fails validation, is marked down
+ * and the next one is tried; {@link #checkHealth()} probes every replica periodically and
+ * brings recovered ones back. If no replica is available, or the caller asked for the primary
+ * ({@link ReadYourWrites}), the connection comes from the primary.
+ * </p>
+ *
+ * <p>
+ * Used as the read-only target of a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which fetches the
+ * physical connection only at the first statement, when the transaction's read-only flag is known.
+ * </p>
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 1;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param primary  serves reads when no replica can
+     * @param replicas one pool per replica
+     */
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicas) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWrites.primaryRequested()) {
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+            Set<Replica> tried = new HashSet<>();
+            Replica replica;
+            while ((replica = leastBusyAvailable(start, tried)) != null) {
+                tried.add(replica);
+                try {
+                    return replica.pool.getConnection();
+                } catch (SQLException ex) {
+                    if (!exhausted(replica, ex)) {
+                        markDown(replica, ex);
+                    }
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Not supported, like on the underlying Hikari pools: credentials are configured per pool.
+     *
+     * @throws SQLFeatureNotSupportedException always
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica credentials are configured per pool");
+    }
+
+    /**
+     * Probes every replica with a connection validity check and updates its health.
+     * A replica whose connections are all in use is serving reads, so it is left as it is.
+     */
+    @Scheduled(fixedDelayString = "${db.replicas.health-check-interval:5s}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            if (replica.saturated()) {
+                continue;
+            }
+            try (Connection connection = replica.pool.getConnection()) {
+                boolean valid = connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS);
+                if (valid && !replica.healthy) {
+                    log.info("Replica {} is back up", replica.pool.getJdbcUrl());
+                }
+                replica.healthy = valid;
+            } catch (SQLException ex) {
+                if (!exhausted(replica, ex)) {
+                    markDown(replica, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of replicas currently receiving reads
+     */
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private Replica leastBusyAvailable(int start, Set<Replica> tried) {
+        Replica best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy || tried.contains(replica) || replica.saturated()) {
+                continue;
+            }
+            int active = replica.activeConnections();
+            if (active < bestActive) {
+                best = replica;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Hikari times out with {@link SQLTransientConnectionException} both when every connection
+     * is in use and when it cannot connect; only a full pool means the replica is merely busy.
+     */
+    private static boolean exhausted(Replica replica, SQLException ex) {
+        return ex instanceof SQLTransientConnectionException && replica.saturated();
+    }
+
+    private static void markDown(Replica replica, SQLException ex) {
+        if (replica.healthy) {
+            log.warn("Replica {} is down, reading from other replicas or the primary: {}",
+                    replica.pool.getJdbcUrl(), ex.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    /**
+     * One replica pool and whether it currently receives reads.
+     */
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+        private volatile boolean healthy = true;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            return bean != null ? bean.getActiveConnections() : 0;
+        }
+
+        boolean saturated() {
+            return activeConnections() >= pool.getMaximumPoolSize();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.auth.dto;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Immutable view of a verified JSON Web Token.
+ * <p>
+ * Produced by {@code JWTService#verifyToken(String)} after the signature and
+ * expiration have been checked exactly once, so callers can read the subject,
+ * roles and expiry without parsing the token again.
+ * </p>
+ *
+ * <p>
+ * In claims-trust mode this record is used directly as the authenticated
+ * principal, so it also implements {@link Principal}.
+ * </p>
+ *
+ * @param subject   the token subject (the user's phone number)
+ * @param roles     the roles carried in the {@code roles} claim, never {@code null}
+ * @param issuedAt  the instant the token was issued ({@code iat}, second precision)
+ * @param expiresAt the instant after which the token is no longer accepted
+ * @param tokenId   the token's unique ID ({@code jti}), used to revoke it; {@code null} for
+ *                  tokens issued before IDs were added
+ */
+public record JwtPrincipal(String subject, Set<String> roles, Instant issuedAt, Instant expiresAt, String tokenId)
+        implements Principal {
+
+    public JwtPrincipal {
+        roles = (roles == null) ? Set.of() : Set.copyOf(roles);
+    }
+
+    /**
+     * The subject is used as the principal name, matching
+     * {@code User#getUsername()} for database-backed principals.
+     *
+     * @return the token subject
+     */
+    @Override
+    public String getName() {
+        return subject;
+    }
+}
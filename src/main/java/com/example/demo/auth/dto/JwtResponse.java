@@ -10,6 +10,9 @@ import lombok.Data;
  * <p>This DTO is typically returned from login or OTP verification
  * endpoints to allow the client to use the token for subsequent
  * authenticated requests.</p>
+ *
+ * <p>It is also returned by the refresh endpoint, together with the
+ * rotated refresh token.</p>
  */
 @Data
 @AllArgsConstructor
@@ -19,4 +22,10 @@ public class JwtResponse {
      * The JSON Web Token generated for the authenticated user.
      */
     private String jwt;
+
+    /**
+     * Opaque token for <code>POST /api/auth/refresh</code>, which returns a new JWT without
+     * repeating the OTP flow. Single use: each refresh returns a new refresh token.
+     */
+    private String refreshToken;
 }
@@ -2,6 +2,7 @@ package com.example.demo.auth.dto;
 
 import lombok.Data;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,9 +27,19 @@ public class OtpVerifyRequest {
      *     <li>"custom-provider"</li>
      * </ul>
      * </p>
+     * <p>
+     * Optional: when omitted, the server picks the provider with the best recent
+     * latency and success rate among {@link #providerKeys}.
+     * </p>
      */
     private String providerKey;
 
+    /**
+     * Providers the client accepts when {@link #providerKey} is not set.
+     * Omitted or empty means any registered provider.
+     */
+    private List<String> providerKeys;
+
     /**
      * The token, code, or verification value returned by the OTP provider
      * (e.g., the OTP code entered by the user or a provider-issued session token).
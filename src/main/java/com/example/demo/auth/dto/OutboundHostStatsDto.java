@@ -0,0 +1,49 @@
+package com.example.demo.auth.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Counters of outbound HTTP calls to one host (e.g. <code>verify.twilio.com:443</code>),
+ * as reported by {@code GET /api/providers/http}.
+ * <p>
+ * Counters are cumulative since application start.
+ * </p>
+ */
+@Getter
+@Builder
+public class OutboundHostStatsDto {
+
+    /**
+     * Host and port.
+     */
+    private String host;
+
+    private long requests;
+
+    /**
+     * Requests currently in flight: busy keep-alive connections for HTTP/1.1,
+     * open streams for HTTP/2.
+     */
+    private int activeRequests;
+
+    /**
+     * Highest number of requests in flight at the same time.
+     */
+    private int peakActiveRequests;
+
+    /**
+     * Requests that got no response (connect/read timeout, I/O error, cancellation).
+     */
+    private long failedRequests;
+
+    /**
+     * Responses received over HTTP/2.
+     */
+    private long http2Responses;
+
+    /**
+     * Average time to response in milliseconds.
+     */
+    private double averageLatencyMs;
+}
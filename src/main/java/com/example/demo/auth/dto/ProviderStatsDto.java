@@ -0,0 +1,91 @@
+package com.example.demo.auth.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Health and resilience counters of one OTP provider, as reported by
+ * {@code GET /api/providers}.
+ * <p>
+ * Counters are cumulative since application start.
+ * </p>
+ */
+@Getter
+@Builder
+public class ProviderStatsDto {
+
+    /**
+     * The provider key, e.g. "TWILIO".
+     */
+    private String providerKey;
+
+    /**
+     * Circuit breaker state: CLOSED, OPEN or HALF_OPEN.
+     */
+    private String circuitState;
+
+    /**
+     * Failure rate in percent over the breaker's sliding window,
+     * or {@code -1} if too few calls have been recorded.
+     */
+    private float failureRate;
+
+    private long successfulCalls;
+
+    private long failedCalls;
+
+    /**
+     * Calls rejected because the circuit was open.
+     */
+    private long circuitRejectedCalls;
+
+    /**
+     * How many times the circuit has opened.
+     */
+    private long circuitOpenedCount;
+
+    /**
+     * Verifications currently in flight.
+     */
+    private int activeCalls;
+
+    /**
+     * Bulkhead size.
+     */
+    private int maxConcurrentCalls;
+
+    /**
+     * Calls rejected because the bulkhead was full.
+     */
+    private long bulkheadRejectedCalls;
+
+    /**
+     * Calls served by the fallback provider because this provider was unavailable.
+     */
+    private long fallbackCalls;
+
+    /**
+     * Observed p95 latency of successful calls in milliseconds, or {@code null} if unknown.
+     */
+    private Long p95LatencyMs;
+
+    /**
+     * Decaying peak-EWMA latency in milliseconds used for routing, {@code 0} if never sampled.
+     */
+    private double ewmaLatencyMs;
+
+    /**
+     * Decaying error rate in [0, 1] used for routing.
+     */
+    private double ewmaErrorRate;
+
+    /**
+     * Calls in flight as seen by the router.
+     */
+    private int pendingCalls;
+
+    /**
+     * Routing cost; unpinned verifications go to the provider with the lowest cost.
+     */
+    private double routingCost;
+}
@@ -0,0 +1,15 @@
+package com.example.demo.auth.dto;
+
+import lombok.Data;
+
+/**
+ * Request payload of <code>POST /api/auth/refresh</code>.
+ */
+@Data
+public class RefreshTokenRequest {
+
+    /**
+     * The refresh token returned by the last login or refresh.
+     */
+    private String refreshToken;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.auth.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Request payload for bulk-importing users (e.g. a partner's user list).
+ * <p>
+ * Every phone number that does not belong to an existing user is created with
+ * the default role. Blank and duplicate entries are ignored.
+ * </p>
+ */
+@Data
+public class UserImportRequest {
+
+    /**
+     * Phone numbers to import, preferably normalized (e.g. E.164 format).
+     */
+    @NotNull(message = "Phone numbers are required")
+    private List<String> phoneNumbers;
+}
@@ -0,0 +1,27 @@
+package com.example.demo.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Summary of a bulk user import.
+ */
+@Data
+@AllArgsConstructor
+public class UserImportResultDto {
+
+    /**
+     * Number of distinct, non-blank phone numbers in the request.
+     */
+    private int requested;
+
+    /**
+     * Number of users created by this import.
+     */
+    private int created;
+
+    /**
+     * Number of phone numbers skipped because a user already existed.
+     */
+    private int skipped;
+}
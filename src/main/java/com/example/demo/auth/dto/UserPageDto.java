@@ -0,0 +1,29 @@
+package com.example.demo.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A single page of users returned by the keyset-paginated user listing.
+ *
+ * <p>To fetch the next page, pass {@link #nextCursor} as the {@code after}
+ * query parameter. When {@code nextCursor} is {@code null}, there are no
+ * more users.</p>
+ */
+@Data
+@AllArgsConstructor
+public class UserPageDto {
+
+    /**
+     * Users on this page, in ascending ID order.
+     */
+    private List<UserDto> users;
+
+    /**
+     * Opaque cursor pointing past the last user on this page,
+     * or {@code null} if this is the last page.
+     */
+    private Long nextCursor;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.auth.exception;
+
+/**
+ * Thrown when a refresh token is unknown, expired, already used or revoked.
+ * <p>
+ * Reported as {@code 401 Unauthorized}; the client has to log in again with an OTP.
+ * </p>
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.auth.exception;
+
+/**
+ * Thrown when an OTP provider cannot give a verification result in time,
+ * e.g. because it timed out or is at capacity.
+ * <p>
+ * Unlike a failed verification (wrong or expired code), this is not the client's
+ * fault and is reported as {@code 503 Service Unavailable}.
+ * </p>
+ */
+public class OtpProviderUnavailableException extends RuntimeException {
+
+    private final String providerKey;
+
+    public OtpProviderUnavailableException(String providerKey, String message, Throwable cause) {
+        super(message, cause);
+        this.providerKey = providerKey;
+    }
+
+    /**
+     * @return the key of the provider that was unavailable
+     */
+    public String getProviderKey() {
+        return providerKey;
+    }
+}
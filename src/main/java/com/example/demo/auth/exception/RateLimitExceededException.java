@@ -0,0 +1,39 @@
+package com.example.demo.auth.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a client exceeds one of the OTP verification rate limits.
+ * <p>
+ * Reported as {@code 429 Too Many Requests} with a <code>Retry-After</code> header.
+ * </p>
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final String limit;
+    private final Duration retryAfter;
+
+    /**
+     * @param limit      name of the exceeded limit, e.g. {@code ip}
+     * @param retryAfter time until the request would be permitted
+     */
+    public RateLimitExceededException(String limit, Duration retryAfter) {
+        super("Too many requests (" + limit + " limit)");
+        this.limit = limit;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return name of the exceeded limit
+     */
+    public String getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return time until the request would be permitted
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.demo.auth.filter;
 
+import com.example.demo.auth.dto.JwtPrincipal;
+import com.example.demo.auth.metrics.AuthMetrics;
 import com.example.demo.auth.service.JWTServiceImpl;
+import com.example.demo.auth.revocation.RevocationIndex;
+import com.example.demo.auth.util.Authorities;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,7 +19,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * A custom authentication filter responsible for validating incoming JWT tokens.
@@ -25,8 +29,31 @@ import java.util.List;
  * </p>
  *
  * <p>
- * Requests that match configured public URLs are bypassed, allowing anonymous
- * access (e.g., login endpoints).
+ * Requests to {@link PublicPaths} (login endpoints, health probes, static resources)
+ * are not filtered at all: {@link #shouldNotFilter(HttpServletRequest)} checks them
+ * against a precompiled trie before any token processing happens.
+ * </p>
+ *
+ * <p>
+ * Revoked tokens (by token ID, or issued to a user before a cut-off such as a role change)
+ * are rejected in both modes via the in-memory {@link RevocationIndex}.
+ * </p>
+ *
+ * <p>
+ * The principal is resolved in one of two modes, selected by
+ * <code>jwt.claims-trust.enabled</code>:
+ * <ul>
+ *     <li><strong>Database</strong> (default) – the user is loaded through the
+ *     {@link UserDetailsService} on every request.</li>
+ *     <li><strong>Claims-trust</strong> – the authentication is built directly from the
+ *     verified token's subject and {@code roles} claim, without touching the database.</li>
+ * </ul>
+ * The verified {@link JwtPrincipal} is set as the authentication's details in both modes.
+ * </p>
+ *
+ * <p>
+ * The time spent verifying the token, checking revocation and building the principal is
+ * recorded per stage by {@link AuthMetrics}.
  * </p>
  */
 @Component
@@ -34,28 +61,44 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JWTServiceImpl jwtService;
     private final UserDetailsService userDetailsService;
+    private final RevocationIndex revocationIndex;
+    private final AuthMetrics authMetrics;
 
     /**
-     * URLs that should bypass JWT authentication.
-     * <p>
-     * Any request whose path {@code startsWith()} these values will be treated
-     * as public and will not require authentication.
-     * </p>
+     * Whether authentication is built from token claims instead of a database lookup.
      */
-    private static final List<String> PUBLIC_URLS = List.of(
-            "/api/auth"
-    );
+    private final boolean claimsTrust;
 
     /**
      * Constructs a new {@link JwtAuthFilter}.
      *
-     * @param jwtService         service for verifying and extracting information from JWT tokens
-     * @param userDetailsService bean for loading user details based on phone number (username)
+     * @param jwtService             service for verifying and extracting information from JWT tokens
+     * @param userDetailsService     bean for loading user details based on phone number (username)
+     * @param revocationIndex        revoked tokens and user cut-offs
+     * @param authMetrics            records the time spent in each stage
+     * @param claimsTrust            {@code true} to authenticate from token claims only
      */
     public JwtAuthFilter(JWTServiceImpl jwtService,
-                         UserDetailsService userDetailsService) {
+                         UserDetailsService userDetailsService,
+                         RevocationIndex revocationIndex,
+                         AuthMetrics authMetrics,
+                         @Value("${jwt.claims-trust.enabled:false}") boolean claimsTrust) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.revocationIndex = revocationIndex;
+        this.authMetrics = authMetrics;
+        this.claimsTrust = claimsTrust;
+    }
+
+    /**
+     * Skips the filter for public paths, which need no authentication.
+     *
+     * @param request the incoming HTTP request
+     * @return {@code true} if the request path is one of the {@link PublicPaths}
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return PublicPaths.matches(request.getServletPath());
     }
 
     /**
@@ -64,12 +107,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
      * The filter applies the following logic:
      * </p>
      * <ol>
-     *     <li>Skip filtering for public URLs.</li>
      *     <li>Check the Authorization header for a Bearer token.</li>
-     *     <li>If a token is present and valid:
+     *     <li>If a token is present, verify it once and, if valid and not revoked:
      *         <ul>
-     *             <li>Extract the user identifier (phone number).</li>
-     *             <li>Load the corresponding user details.</li>
+     *             <li>Take the user identifier (phone number) from the verified principal.</li>
+     *             <li>Build the authentication from the token claims (claims-trust mode)
+     *             or load the corresponding user details (database mode).</li>
      *             <li>Populate the Spring Security context with an authenticated token.</li>
      *         </ul>
      *     </li>
@@ -87,28 +130,26 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        String path = request.getServletPath();
-
-        boolean isPublic = PUBLIC_URLS.stream().anyMatch(path::startsWith);
-        if (isPublic) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
         String header = request.getHeader("Authorization");
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
             String token = header.substring(7);
 
-            if (jwtService.isTokenValid(token)) {
-                String username = jwtService.extractUsername(token);
+            long startNanos = System.nanoTime();
+            JwtPrincipal principal = jwtService.verifyToken(token);
+            long verifiedNanos = System.nanoTime();
+            authMetrics.recordVerify(verifiedNanos - startNanos, principal != null);
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    var userDetails = userDetailsService.loadUserByUsername(username);
+            if (principal != null && !isRevoked(principal, verifiedNanos)) {
+                String username = principal.subject();
 
-                    UsernamePasswordAuthenticationToken auth =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
+                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    long principalStartNanos = System.nanoTime();
+                    UsernamePasswordAuthenticationToken auth = claimsTrust
+                            ? authenticateFromClaims(principal)
+                            : authenticateFromDatabase(username);
+                    authMetrics.recordPrincipal(System.nanoTime() - principalStartNanos, claimsTrust);
 
+                    auth.setDetails(principal);
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
             }
@@ -116,4 +157,40 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Checks the revocation index and records the time spent.
+     *
+     * @param principal  the verified token
+     * @param startNanos when the check started
+     * @return {@code true} if the token was revoked
+     */
+    private boolean isRevoked(JwtPrincipal principal, long startNanos) {
+        boolean revoked = revocationIndex.isRevoked(principal);
+        authMetrics.recordRevocationCheck(System.nanoTime() - startNanos);
+        return revoked;
+    }
+
+    /**
+     * Builds the authentication from the verified token alone.
+     *
+     * @param principal the verified token
+     * @return the authentication
+     */
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(JwtPrincipal principal) {
+        return new UsernamePasswordAuthenticationToken(principal, null, Authorities.forRoles(principal.roles()));
+    }
+
+    /**
+     * Builds the authentication from the user record stored in the database.
+     *
+     * @param username the token subject (phone number)
+     * @return the authentication
+     */
+    private UsernamePasswordAuthenticationToken authenticateFromDatabase(String username) {
+        var userDetails = userDetailsService.loadUserByUsername(username);
+
+        return new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+    }
 }
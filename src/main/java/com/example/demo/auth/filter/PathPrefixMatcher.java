@@ -0,0 +1,115 @@
+package com.example.demo.auth.filter;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Precompiled matcher for a fixed set of request path patterns.
+ * <p>
+ * Two pattern forms are supported, with the same meaning as in Spring Security's
+ * <code>requestMatchers(...)</code>:
+ * <ul>
+ *     <li><code>/favicon.ico</code> – exactly this path;</li>
+ *     <li><code>/api/auth/**</code> – <code>/api/auth</code> itself and everything below it,
+ *     but not <code>/api/authz</code>.</li>
+ * </ul>
+ * The patterns are compiled into a character trie once. Matching walks the path a single
+ * time without allocating, so its cost depends on the path length only, not on the number
+ * of patterns.
+ * </p>
+ */
+public final class PathPrefixMatcher {
+
+    private static final String ANY_SUFFIX = "/**";
+
+    private final Node root = new Node();
+
+    /**
+     * @param patterns exact paths, or paths ending in <code>/**</code>
+     * @throws IllegalArgumentException if a pattern does not start with <code>/</code> or
+     *                                  contains a wildcard anywhere but at the end
+     */
+    public PathPrefixMatcher(Collection<String> patterns) {
+        for (String pattern : patterns) {
+            add(pattern);
+        }
+    }
+
+    /**
+     * @param path the request path, without context path
+     * @return {@code true} if any pattern matches the path
+     */
+    public boolean matches(String path) {
+        Node node = root;
+        int length = path.length();
+        for (int i = 0; i < length; i++) {
+            char c = path.charAt(i);
+            if (c == '/' && node.prefix) {
+                return true;
+            }
+            node = node.child(c);
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.exact || node.prefix;
+    }
+
+    private void add(String pattern) {
+        boolean prefix = pattern.endsWith(ANY_SUFFIX);
+        String path = prefix ? pattern.substring(0, pattern.length() - ANY_SUFFIX.length()) : pattern;
+        if (!pattern.startsWith("/") || path.indexOf('*') >= 0) {
+            throw new IllegalArgumentException("Unsupported path pattern: " + pattern);
+        }
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.getOrAddChild(path.charAt(i));
+        }
+        if (prefix) {
+            node.prefix = true;
+        } else {
+            node.exact = true;
+        }
+    }
+
+    /**
+     * Trie node. Children are kept in two parallel arrays; paths use few distinct
+     * characters per position, so a linear scan beats hashing.
+     */
+    private static final class Node {
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+
+        /**
+         * A pattern ends here: the path up to this node matches.
+         */
+        private boolean exact;
+
+        /**
+         * A <code>/**</code> pattern ends here: this path and everything below it matches.
+         */
+        private boolean prefix;
+
+        Node child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node getOrAddChild(char c) {
+            Node child = child(c);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = c;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
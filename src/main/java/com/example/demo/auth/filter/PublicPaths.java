@@ -0,0 +1,77 @@
+package com.example.demo.auth.filter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Request paths that are accessible without authentication.
+ * <p>
+ * This is the single source of truth for public endpoints: {@code SecurityConfig} permits
+ * them, and {@link JwtAuthFilter} skips token processing for them. Patterns are exact paths
+ * or end in <code>/**</code> (see {@link PathPrefixMatcher}).
+ * </p>
+ */
+public final class PublicPaths {
+
+    /**
+     * Login and OTP verification.
+     */
+    public static final List<String> AUTH = List.of(
+            "/api/auth/**"
+    );
+
+    /**
+     * Public JWT verification keys.
+     */
+    public static final List<String> JWKS = List.of(
+            "/.well-known/jwks.json"
+    );
+
+    /**
+     * Liveness/readiness probes; every other actuator endpoint stays protected.
+     */
+    public static final List<String> ACTUATOR = List.of(
+            "/actuator/health",
+            "/actuator/health/**",
+            "/actuator/info"
+    );
+
+    /**
+     * Static resources served from <code>classpath:/static</code> and webjars.
+     */
+    public static final List<String> STATIC = List.of(
+            "/favicon.ico",
+            "/static/**",
+            "/css/**",
+            "/js/**",
+            "/images/**",
+            "/webjars/**"
+    );
+
+    private static final List<String> ALL = concat(AUTH, JWKS, ACTUATOR, STATIC);
+
+    private static final PathPrefixMatcher MATCHER = new PathPrefixMatcher(ALL);
+
+    private PublicPaths() {
+    }
+
+    /**
+     * @return every public path pattern, for {@code requestMatchers(...).permitAll()}
+     */
+    public static String[] patterns() {
+        return ALL.toArray(String[]::new);
+    }
+
+    /**
+     * @param path the request path, without context path
+     * @return {@code true} if the path is public
+     */
+    public static boolean matches(String path) {
+        return MATCHER.matches(path);
+    }
+
+    @SafeVarargs
+    private static List<String> concat(List<String>... groups) {
+        return Arrays.stream(groups).flatMap(List::stream).toList();
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.demo.auth.http;
+
+import com.example.demo.auth.config.OutboundHttpProperties;
+import com.example.demo.auth.dto.OutboundHostStatsDto;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Outbound HTTP client shared by all OTP provider adapters (and anything else calling
+ * external REST APIs).
+ * <p>
+ * All calls go through a single {@link HttpClient}, which:
+ * <ul>
+ *     <li>keeps connections to each host alive and reuses them across requests;</li>
+ *     <li>negotiates HTTP/2 via ALPN and multiplexes concurrent requests to a host over
+ *     one connection (<code>http.client.http2</code>);</li>
+ *     <li>reuses TLS sessions through its single {@link javax.net.ssl.SSLContext}, so
+ *     reconnecting to a known host resumes the session instead of a full handshake.</li>
+ * </ul>
+ * Creating a client (or connection) per verification would instead add a TCP and full
+ * TLS handshake to every login.
+ * </p>
+ *
+ * <p>
+ * Connect and read timeouts come from <code>http.client.connect-timeout</code> and
+ * <code>http.client.read-timeout</code>. The JDK client does not expose its connection pool,
+ * so per-host statistics (requests, in-flight requests, failures, HTTP/2 share, latency)
+ * are recorded around each call instead; see {@link #hostStats()}.
+ * </p>
+ */
+@Component
+public class OutboundHttpClient implements DisposableBean {
+
+    private final HttpClient client;
+    private final Duration readTimeout;
+    private final Map<String, HostStats> hosts = new ConcurrentSkipListMap<>();
+
+    public OutboundHttpClient(OutboundHttpProperties properties) {
+        this.readTimeout = properties.getReadTimeout();
+        this.client = HttpClient.newBuilder()
+                .version(properties.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * Starts a request with the configured read timeout applied.
+     *
+     * @param uri the request URI
+     * @return a request builder
+     */
+    public HttpRequest.Builder newRequest(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(readTimeout);
+    }
+
+    /**
+     * Sends a request and maps the response on the calling thread.
+     *
+     * @param request        the request
+     * @param responseMapper converts the response (any status code) into the result
+     * @param <T>            the result type
+     * @return the mapped response
+     * @throws UncheckedIOException  if the request could not be sent or timed out
+     * @throws IllegalStateException if the calling thread was interrupted
+     */
+    public <T> T send(HttpRequest request, Function<HttpResponse<String>, T> responseMapper) {
+        HostStats stats = statsFor(request.uri());
+        long startNanos = stats.start();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException ex) {
+            stats.complete(startNanos, null);
+            throw new UncheckedIOException("HTTP request failed: " + request.uri().getHost(), ex);
+        } catch (InterruptedException ex) {
+            stats.complete(startNanos, null);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling " + request.uri().getHost(), ex);
+        }
+        stats.complete(startNanos, response);
+        return responseMapper.apply(response);
+    }
+
+    /**
+     * Sends a request asynchronously.
+     * <p>
+     * Cancelling the returned future aborts the exchange.
+     * </p>
+     *
+     * @param request        the request
+     * @param responseMapper converts the response (any status code) into the result
+     * @param <T>            the result type
+     * @return a future completed with the mapped response, or exceptionally with
+     * an {@link IOException} if the request could not be sent or timed out
+     */
+    public <T> CompletableFuture<T> sendAsync(HttpRequest request, Function<HttpResponse<String>, T> responseMapper) {
+        HostStats stats = statsFor(request.uri());
+        long startNanos = stats.start();
+        CompletableFuture<HttpResponse<String>> exchange =
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        CompletableFuture<T> result = exchange
+                .whenComplete((response, ex) -> stats.complete(startNanos, response))
+                .thenApply(responseMapper);
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return statistics of every host called so far, ordered by host
+     */
+    public List<OutboundHostStatsDto> hostStats() {
+        return hosts.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .toList();
+    }
+
+    @Override
+    public void destroy() {
+        client.shutdownNow();
+    }
+
+    private HostStats statsFor(URI uri) {
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return hosts.computeIfAbsent(uri.getHost() + ":" + port, key -> new HostStats());
+    }
+
+    /**
+     * Lock-free counters of one host.
+     */
+    private static final class HostStats {
+
+        private final LongAdder requests = new LongAdder();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger peakActive = new AtomicInteger();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder http2Responses = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+
+        long start() {
+            requests.increment();
+            peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            return System.nanoTime();
+        }
+
+        /**
+         * @param response the response, or {@code null} if the request failed or was cancelled
+         */
+        void complete(long startNanos, HttpResponse<?> response) {
+            active.decrementAndGet();
+            if (response == null) {
+                failures.increment();
+                return;
+            }
+            completed.increment();
+            latencyNanos.add(System.nanoTime() - startNanos);
+            if (response.version() == HttpClient.Version.HTTP_2) {
+                http2Responses.increment();
+            }
+        }
+
+        OutboundHostStatsDto snapshot(String host) {
+            long completedCount = completed.sum();
+            return OutboundHostStatsDto.builder()
+                    .host(host)
+                    .requests(requests.sum())
+                    .activeRequests(active.get())
+                    .peakActiveRequests(peakActive.get())
+                    .failedRequests(failures.sum())
+                    .http2Responses(http2Responses.sum())
+                    .averageLatencyMs(completedCount > 0 ? latencyNanos.sum() / 1_000_000.0 / completedCount : 0)
+                    .build();
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.example.demo.auth.mapper;
 
 import com.example.demo.auth.dto.UserDto;
 import com.example.demo.auth.model.User;
+import com.example.demo.auth.repository.UserView;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Mapper responsible for converting between {@link User} entity objects and
  * their corresponding {@link UserDto} representations.
@@ -29,6 +34,19 @@ public class UserMapper {
                 .build();
     }
 
+    /**
+     * Converts a {@link UserView} projection to a {@link UserDto}.
+     *
+     * @param view the projection returned by a repository query
+     * @return the corresponding UserDto with phone number and roles populated
+     */
+    public UserDto toDTO(UserView view) {
+        return UserDto.builder()
+                .roles(toRoleSet(view.getRoles()))
+                .phoneNumber(view.getPhoneNumber())
+                .build();
+    }
+
     /**
      * Converts a {@link UserDto} to a {@link User} entity.
      * <p>
@@ -45,4 +63,37 @@ public class UserMapper {
                 userDto.getRoles()
         );
     }
+
+    /**
+     * Converts a {@link UserView} projection to a detached {@link User}.
+     * <p>
+     * The result is not managed by the persistence context; it carries the
+     * ID, phone number and roles, which is all that token generation and
+     * principal resolution need.
+     * </p>
+     *
+     * @param view the projection returned by a repository query
+     * @return a new User populated from the projection
+     */
+    public User toEntity(UserView view) {
+        return new User(
+                view.getId(),
+                view.getPhoneNumber(),
+                toRoleSet(view.getRoles())
+        );
+    }
+
+    /**
+     * Collects roles aggregated in SQL into a set.
+     *
+     * @param roles the roles of a {@link UserView}, or {@code null}
+     * @return the individual roles, or an empty set
+     */
+    private static Set<String> toRoleSet(String[] roles) {
+        Set<String> result = new HashSet<>();
+        if (roles != null) {
+            Collections.addAll(result, roles);
+        }
+        return result;
+    }
 }
@@ -0,0 +1,91 @@
+package com.example.demo.auth.metrics;
+
+import com.example.demo.auth.cache.UserCache;
+import com.example.demo.auth.cache.VerificationReplayCache;
+import com.example.demo.auth.concurrent.DatabaseConcurrencyLimiter;
+import com.example.demo.auth.revocation.RevocationIndex;
+import com.example.demo.auth.service.JWTServiceImpl;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jspecify.annotations.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Exposes the counters the authentication components already keep as meters, read only when
+ * scraped:
+ * <ul>
+ *     <li><code>cache.gets{cache, result=hit|miss}</code> and <code>cache.evictions{cache}</code>
+ *     for the verified-token cache (<code>jwt.verified</code>) and the user caches
+ *     (<code>user.principal</code>, <code>user.view</code>);</li>
+ *     <li><code>auth.replay-cache.requests{result=replayed|issued}</code>;</li>
+ *     <li><code>auth.db.permits.available</code> – free {@link DatabaseConcurrencyLimiter} permits;</li>
+ *     <li><code>auth.revocation.entries</code> – revoked tokens and user cut-offs held in memory.</li>
+ * </ul>
+ */
+@Component
+public class AuthMeterBinder implements MeterBinder {
+
+    private final JWTServiceImpl jwtService;
+    private final UserCache userCache;
+    private final VerificationReplayCache replayCache;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final RevocationIndex revocationIndex;
+
+    public AuthMeterBinder(JWTServiceImpl jwtService,
+                           UserCache userCache,
+                           VerificationReplayCache replayCache,
+                           DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                           RevocationIndex revocationIndex) {
+        this.jwtService = jwtService;
+        this.userCache = userCache;
+        this.replayCache = replayCache;
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.revocationIndex = revocationIndex;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        bindCache(registry, "jwt.verified", jwtService, JWTServiceImpl::verifiedTokenCacheStats);
+        bindCache(registry, "user.principal", userCache, UserCache::principalStats);
+        bindCache(registry, "user.view", userCache, UserCache::viewStats);
+
+        FunctionCounter.builder("auth.replay-cache.requests", replayCache, VerificationReplayCache::replayedCount)
+                .description("OTP verifications answered from an identical earlier or in-flight verification")
+                .tag("result", "replayed")
+                .register(registry);
+        FunctionCounter.builder("auth.replay-cache.requests", replayCache, VerificationReplayCache::issuedCount)
+                .description("OTP verifications that ran and issued tokens")
+                .tag("result", "issued")
+                .register(registry);
+
+        Gauge.builder("auth.db.permits.available", databaseConcurrencyLimiter,
+                        DatabaseConcurrencyLimiter::availablePermits)
+                .description("Database concurrency permits currently available")
+                .register(registry);
+        Gauge.builder("auth.revocation.entries", revocationIndex, RevocationIndex::size)
+                .description("Revoked tokens and user cut-offs held in memory")
+                .register(registry);
+    }
+
+    /**
+     * Meters hold their source weakly, so they are bound to the (singleton) cache owner.
+     */
+    private static <T> void bindCache(MeterRegistry registry, String cache, T owner, Function<T, CacheStats> stats) {
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).hitCount())
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).missCount())
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", owner, o -> stats.apply(o).evictionCount())
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
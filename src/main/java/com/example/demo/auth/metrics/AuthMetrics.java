@@ -0,0 +1,188 @@
+package com.example.demo.auth.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency instrumentation of the authentication pipeline, exported through Micrometer
+ * (<code>/actuator/prometheus</code>) with percentile histograms, so p99 per stage can be
+ * computed with <code>histogram_quantile</code>.
+ * <p>
+ * Two kinds of instrumentation are used, depending on the cost of the stage:
+ * <ul>
+ *     <li><strong>Request filter</strong> (every authenticated request, microseconds per stage)
+ *     – plain {@link Timer}s registered once, recorded from {@link System#nanoTime()} deltas:
+ *     <code>auth.filter{stage=verify|revocation|principal}</code>. No span is created, so the
+ *     overhead is a histogram update per stage.</li>
+ *     <li><strong>Login</strong> (milliseconds, dominated by provider and database round trips)
+ *     – {@link Observation}s, which record a timer and, with a tracer on the classpath, a span:
+ *     <code>auth.login{provider}</code> around each verification,
+ *     <code>auth.provider.verify{provider}</code> around each adapter call (including
+ *     fallbacks and routed attempts) and <code>auth.login.stage{stage=user|jwt|refresh-token}</code>
+ *     around the remaining steps.</li>
+ * </ul>
+ * Repository calls are timed by Spring Data's own <code>spring.data.repository.invocations</code>.
+ * </p>
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String FILTER = "auth.filter";
+    public static final String LOGIN = "auth.login";
+    public static final String LOGIN_STAGE = "auth.login.stage";
+    public static final String PROVIDER_VERIFY = "auth.provider.verify";
+
+    /**
+     * Provider tag of logins whose provider key is not registered.
+     */
+    public static final String UNKNOWN_PROVIDER = "unknown";
+
+    private static final Set<String> LOGIN_TIMERS = Set.of(LOGIN, LOGIN_STAGE, PROVIDER_VERIFY);
+
+    private final ObservationRegistry observationRegistry;
+
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+    private final Timer revocationCheck;
+    private final Timer principalFromClaims;
+    private final Timer principalFromDatabase;
+
+    /**
+     * @param meterRegistry       registry of the filter timers
+     * @param observationRegistry registry of the login observations
+     */
+    public AuthMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+        this.verifyValid = filterTimer(meterRegistry, "verify", "valid");
+        this.verifyInvalid = filterTimer(meterRegistry, "verify", "invalid");
+        this.revocationCheck = filterTimer(meterRegistry, "revocation", "checked");
+        this.principalFromClaims = filterTimer(meterRegistry, "principal", "claims");
+        this.principalFromDatabase = filterTimer(meterRegistry, "principal", "database");
+    }
+
+    /**
+     * @return instrumentation that records nothing, for tests and benchmarks
+     */
+    public static AuthMetrics noop() {
+        return new AuthMetrics(new CompositeMeterRegistry(), ObservationRegistry.NOOP);
+    }
+
+    /**
+     * Publishes percentile histograms for the login timers. The default bucket range
+     * (1 ms to 30 s) covers provider and database round trips.
+     *
+     * @return filter to register on every meter registry that exports the login timers
+     */
+    public static MeterFilter loginHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER || !LOGIN_TIMERS.contains(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    /**
+     * Records the time spent parsing and verifying a bearer token.
+     *
+     * @param nanos the elapsed time
+     * @param valid whether the token was accepted
+     */
+    public void recordVerify(long nanos, boolean valid) {
+        (valid ? verifyValid : verifyInvalid).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time spent checking a verified token against the revocation index.
+     *
+     * @param nanos the elapsed time
+     */
+    public void recordRevocationCheck(long nanos) {
+        revocationCheck.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time spent building the authenticated principal.
+     *
+     * @param nanos      the elapsed time
+     * @param fromClaims {@code true} in claims-trust mode, {@code false} for a user lookup
+     */
+    public void recordPrincipal(long nanos, boolean fromClaims) {
+        (fromClaims ? principalFromClaims : principalFromDatabase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Observes a complete OTP verification, from the replay cache to the issued tokens.
+     *
+     * @param provider a registered provider key, {@link #UNKNOWN_PROVIDER} or {@code routed};
+     *                 never a raw key from the request, since every value becomes a meter
+     * @param login    the verification
+     * @return the verification's result
+     */
+    public <T> T observeLogin(String provider, Supplier<T> login) {
+        return Observation.createNotStarted(LOGIN, observationRegistry)
+                .contextualName("login")
+                .lowCardinalityKeyValue("provider", provider)
+                .observe(login);
+    }
+
+    /**
+     * Observes one call to an OTP provider adapter.
+     *
+     * @param providerKey the provider's key
+     * @param call        the call
+     * @return the call's result
+     */
+    public <T> T observeProvider(String providerKey, Supplier<T> call) {
+        return Observation.createNotStarted(PROVIDER_VERIFY, observationRegistry)
+                .contextualName("provider " + providerKey)
+                .lowCardinalityKeyValue("provider", providerKey)
+                .observe(call);
+    }
+
+    /**
+     * Observes one step of a login after the provider call.
+     *
+     * @param stage <code>user</code>, <code>jwt</code> or <code>refresh-token</code>
+     * @param work  the step
+     * @return the step's result
+     */
+    public <T> T observeLoginStage(String stage, Supplier<T> work) {
+        return Observation.createNotStarted(LOGIN_STAGE, observationRegistry)
+                .contextualName("login " + stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .observe(work);
+    }
+
+    /**
+     * Filter stages take microseconds, so the histogram starts well below the default 1 ms.
+     */
+    private static Timer filterTimer(MeterRegistry registry, String stage, String result) {
+        return Timer.builder(FILTER)
+                .description("Time spent in each stage of JWT request authentication")
+                .tag("stage", stage)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(500))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(registry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.auth.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A refresh token, stored only as the SHA-256 digest of the opaque value given to the client.
+ * <p>
+ * Tokens are rotated on every use: the presented token is marked used and a new token of the
+ * same <em>family</em> is issued. A family starts with each OTP login. Presenting a token that
+ * was already used means it was copied, so the whole family is revoked.
+ * </p>
+ *
+ * <p>
+ * Rows are written and rotated with native statements in {@code RefreshTokenRepository};
+ * the entity defines the table and its indexes:
+ * <ul>
+ *     <li><code>token_hash</code> – unique, the lookup key of every refresh;</li>
+ *     <li><code>family_id</code> – revoking a family on reuse;</li>
+ *     <li><code>expires_at</code> – the periodic cleanup of expired tokens.</li>
+ * </ul>
+ * </p>
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+public class RefreshToken {
+
+    /**
+     * Number of IDs reserved per <code>refresh_tokens_seq</code> call; must match the sequence increment.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq",
+            allocationSize = RefreshToken.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    /**
+     * URL-safe Base64 SHA-256 digest of the token (43 characters).
+     */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 43)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /**
+     * Shared by all tokens rotated from the same login.
+     */
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * When the token was exchanged for a new one; {@code null} while it is still usable.
+     */
+    @Column(name = "used_at")
+    private Instant usedAt;
+}
@@ -0,0 +1,89 @@
+package com.example.demo.auth.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A persisted revocation: either a single token (<code>token_id</code> set) or every token of
+ * a subject issued before <code>not_before</code> (<code>subject</code> set).
+ * <p>
+ * The table is the durable source of the in-memory {@code RevocationIndex}: it is read
+ * completely at startup and incrementally (by <code>created_at</code>) afterwards, so
+ * revocations made on one instance reach all others. Rows are deleted once
+ * <code>expires_at</code> has passed, since no token they could reject is still valid.
+ * </p>
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_created_at", columnList = "created_at"),
+        @Index(name = "idx_token_revocations_expires_at", columnList = "expires_at")
+})
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_revocations_seq")
+    @SequenceGenerator(name = "token_revocations_seq", sequenceName = "token_revocations_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The revoked token's <code>jti</code>; {@code null} for subject revocations.
+     */
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    /**
+     * The subject (phone number) whose older tokens are revoked; {@code null} for token revocations.
+     */
+    @Column(name = "subject")
+    private String subject;
+
+    /**
+     * Cut-off of a subject revocation: tokens issued before it are rejected.
+     */
+    @Column(name = "not_before")
+    private Instant notBefore;
+
+    /**
+     * When the revocation stops mattering: the token's expiry, or the cut-off plus the token lifetime.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * @param tokenId   the revoked token's <code>jti</code>
+     * @param expiresAt the token's expiry
+     * @param createdAt the current time
+     * @return a token revocation
+     */
+    public static TokenRevocation ofToken(String tokenId, Instant expiresAt, Instant createdAt) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.tokenId = tokenId;
+        revocation.expiresAt = expiresAt;
+        revocation.createdAt = createdAt;
+        return revocation;
+    }
+
+    /**
+     * @param subject   the subject (phone number)
+     * @param notBefore tokens issued before this instant are rejected
+     * @param expiresAt when no token issued before the cut-off can still be valid
+     * @param createdAt the current time
+     * @return a subject revocation
+     */
+    public static TokenRevocation ofSubject(String subject, Instant notBefore, Instant expiresAt, Instant createdAt) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.subject = subject;
+        revocation.notBefore = notBefore;
+        revocation.expiresAt = expiresAt;
+        revocation.createdAt = createdAt;
+        return revocation;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.auth.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link RateLimitStore} keeping the buckets of this application instance in memory.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} updated with the generic cell rate algorithm
+ * (GCRA): it stores the <em>theoretical arrival time</em> at which the bucket would be full
+ * again, and a request is permitted if that time is at most one period ahead of now. This is
+ * equivalent to a token bucket, but needs no separate token count or refill timestamp, so a
+ * bucket is updated with one compare-and-set and no lock.
+ * </p>
+ *
+ * <p>
+ * Buckets live in a bounded Caffeine map: at most <code>maximumKeys</code> buckets, and buckets
+ * idle for <code>idleTimeout</code> are dropped. A dropped bucket simply starts full again.
+ * </p>
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    /**
+     * Initial theoretical arrival time: the bucket is full.
+     */
+    private static final long FULL = Long.MIN_VALUE;
+
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param maximumKeys maximum number of buckets kept
+     * @param idleTimeout buckets not used for this long are dropped
+     */
+    public InMemoryRateLimitStore(long maximumKeys, Duration idleTimeout) {
+        this(maximumKeys, idleTimeout, System::nanoTime);
+    }
+
+    InMemoryRateLimitStore(long maximumKeys, Duration idleTimeout, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public long tryAcquire(String key, RateLimit limit) {
+        AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(FULL));
+        long emissionInterval = limit.emissionIntervalNanos();
+        long period = limit.period().toNanos();
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + emissionInterval;
+            long waitNanos = next - period - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return the number of buckets currently kept
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
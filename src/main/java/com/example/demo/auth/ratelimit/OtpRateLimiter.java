@@ -0,0 +1,95 @@
+package com.example.demo.auth.ratelimit;
+
+import com.example.demo.auth.config.RateLimitProperties;
+import com.example.demo.auth.exception.RateLimitExceededException;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Rate limits OTP verifications before they reach a provider or the database.
+ * <p>
+ * <code>POST /api/auth/verify-otp</code> is public, so without limits a single client could
+ * drive unbounded provider calls (which cost money) and user inserts. Limits are taken from
+ * three kinds of buckets:
+ * <ul>
+ *     <li><strong>ip</strong> – the client's IP address, against floods from one client;</li>
+ *     <li><strong>phone-number</strong> – <code>meta.phoneNumber</code>, against guessing the
+ *     code of one number from many clients;</li>
+ *     <li><strong>provider</strong> – the provider key, capping the total call rate to each
+ *     provider.</li>
+ * </ul>
+ * The first two are checked by {@link #checkVerification} for every request, in that order;
+ * a request rejected by the second has still used a token of the first. The provider bucket
+ * is charged by {@link #checkProviderCall} right before each provider call, so routed
+ * requests and fallbacks are charged to the provider actually called. Limits are configured
+ * with {@link RateLimitProperties} and bucket state is kept in a {@link RateLimitStore}.
+ * </p>
+ */
+@Component
+public class OtpRateLimiter {
+
+    private final RateLimitStore store;
+    private final boolean enabled;
+    private final RateLimit ipLimit;
+    private final RateLimit phoneNumberLimit;
+    private final RateLimit providerLimit;
+
+    public OtpRateLimiter(RateLimitStore store, RateLimitProperties properties) {
+        this.store = store;
+        this.enabled = properties.isEnabled();
+        this.ipLimit = toRateLimit(properties.getIp());
+        this.phoneNumberLimit = toRateLimit(properties.getPhoneNumber());
+        this.providerLimit = toRateLimit(properties.getProvider());
+    }
+
+    /**
+     * @return a limiter that permits everything, for tests and benchmarks
+     */
+    public static OtpRateLimiter disabled() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(false);
+        return new OtpRateLimiter((key, limit) -> 0, properties);
+    }
+
+    /**
+     * Takes a token for one verification from the client's and the phone number's bucket.
+     *
+     * @param clientIp    the client's IP address
+     * @param phoneNumber the phone number being verified, if the client sent one
+     * @throws RateLimitExceededException if a bucket is empty
+     */
+    public void checkVerification(String clientIp, @Nullable String phoneNumber) {
+        if (!enabled) {
+            return;
+        }
+        acquire("ip", "ip:" + clientIp, ipLimit);
+        if (phoneNumber != null) {
+            acquire("phone-number", "phone:" + phoneNumber, phoneNumberLimit);
+        }
+    }
+
+    /**
+     * Takes a token for one call from the provider's bucket.
+     *
+     * @param providerKey the key of the registered provider about to be called
+     * @throws RateLimitExceededException if the bucket is empty
+     */
+    public void checkProviderCall(String providerKey) {
+        if (enabled) {
+            acquire("provider", "provider:" + providerKey, providerLimit);
+        }
+    }
+
+    private void acquire(String name, String key, RateLimit limit) {
+        long waitNanos = store.tryAcquire(key, limit);
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException(name, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private static RateLimit toRateLimit(RateLimitProperties.Limit limit) {
+        return new RateLimit(limit.getCapacity(), limit.getPeriod());
+    }
+}
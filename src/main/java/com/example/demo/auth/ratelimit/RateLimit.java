@@ -0,0 +1,29 @@
+package com.example.demo.auth.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * A token bucket limit: at most {@code capacity} requests per {@code period}, refilled
+ * continuously at one token every {@code period / capacity}.
+ *
+ * @param capacity number of requests allowed per period (and the largest burst)
+ * @param period   time in which an empty bucket fills up completely
+ */
+public record RateLimit(long capacity, Duration period) {
+
+    public RateLimit {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+    }
+
+    /**
+     * @return the time it takes to refill one token, in nanoseconds
+     */
+    public long emissionIntervalNanos() {
+        return Math.max(1, period.toNanos() / capacity);
+    }
+}
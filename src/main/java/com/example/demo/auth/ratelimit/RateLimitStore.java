@@ -0,0 +1,22 @@
+package com.example.demo.auth.ratelimit;
+
+/**
+ * Holds the state of the rate limit buckets.
+ * <p>
+ * The default {@link InMemoryRateLimitStore} limits each application instance separately.
+ * A shared store (e.g. Redis running the same algorithm in a script) can be plugged in by
+ * declaring another {@code RateLimitStore} bean, so that all instances share one budget.
+ * </p>
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one token from the bucket with the given key, if one is available.
+     *
+     * @param key   identifies the bucket, e.g. <code>ip:203.0.113.7</code>
+     * @param limit the bucket's capacity and refill period
+     * @return {@code 0} if the request is permitted, otherwise the number of nanoseconds
+     * until a token will be available
+     */
+    long tryAcquire(String key, RateLimit limit);
+}
@@ -0,0 +1,114 @@
+package com.example.demo.auth.repository;
+
+import com.example.demo.auth.model.RefreshToken;
+import org.jspecify.annotations.NonNull;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for {@link RefreshToken} rows.
+ * <p>
+ * Every operation is a single native statement in its own transaction, looked up through the
+ * indexes declared on the entity. Rotation in particular is one atomic statement, so two
+ * concurrent refreshes with the same token can never both succeed.
+ * </p>
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<@NonNull RefreshToken, @NonNull Long> {
+
+    /**
+     * Stores a new token.
+     *
+     * @param tokenHash digest of the token
+     * @param userId    the owning user
+     * @param familyId  the token family
+     * @param expiresAt expiry of the token
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO refresh_tokens (id, token_hash, user_id, family_id, expires_at)
+            VALUES (nextval('refresh_tokens_seq'), :tokenHash, :userId, :familyId, :expiresAt)
+            """, nativeQuery = true)
+    void insert(String tokenHash, long userId, UUID familyId, Instant expiresAt);
+
+    /**
+     * Exchanges an unused, unexpired token for a new one of the same family in one round trip.
+     * <p>
+     * The presented token is marked used only if it still is unused, and the new token is only
+     * inserted if that update matched, so the exchange happens at most once per token.
+     * </p>
+     *
+     * @param tokenHash    digest of the presented token
+     * @param newTokenHash digest of the replacement token
+     * @param now          the current time
+     * @param expiresAt    expiry of the replacement token
+     * @return the ID of the token's user, or empty if the token is unknown, expired or already used
+     */
+    @Transactional
+    @Query(value = """
+            WITH used AS (
+                UPDATE refresh_tokens SET used_at = :now
+                WHERE token_hash = :tokenHash AND used_at IS NULL AND expires_at > :now
+                RETURNING user_id, family_id
+            )
+            INSERT INTO refresh_tokens (id, token_hash, user_id, family_id, expires_at)
+            SELECT nextval('refresh_tokens_seq'), :newTokenHash, user_id, family_id, :expiresAt FROM used
+            RETURNING user_id
+            """, nativeQuery = true)
+    Optional<Long> rotate(String tokenHash, String newTokenHash, Instant now, Instant expiresAt);
+
+    /**
+     * Revokes the family of a token that has already been used.
+     *
+     * @param tokenHash digest of the presented token
+     * @return the number of revoked tokens; {@code 0} if the token is unknown or unused
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM refresh_tokens
+            WHERE family_id = (SELECT family_id FROM refresh_tokens WHERE token_hash = :tokenHash AND used_at IS NOT NULL)
+            """, nativeQuery = true)
+    int deleteFamilyOfUsedToken(String tokenHash);
+
+    /**
+     * Revokes every refresh token of a user.
+     *
+     * @param userId the user
+     * @return the number of revoked tokens
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE user_id = :userId", nativeQuery = true)
+    int deleteAllOfUser(long userId);
+
+    /**
+     * Deletes up to {@code batchSize} expired tokens.
+     *
+     * @param now       the current time
+     * @param batchSize maximum number of rows to delete
+     * @return the number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM refresh_tokens
+            WHERE id IN (SELECT id FROM refresh_tokens WHERE expires_at <= :now LIMIT :batchSize)
+            """, nativeQuery = true)
+    int deleteExpired(Instant now, int batchSize);
+
+    /**
+     * @param tokenHash digest of a token
+     * @return the token, if stored
+     */
+    @Transactional(readOnly = true)
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+}
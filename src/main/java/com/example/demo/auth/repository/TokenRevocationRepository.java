@@ -0,0 +1,44 @@
+package com.example.demo.auth.repository;
+
+import com.example.demo.auth.model.TokenRevocation;
+import org.jspecify.annotations.NonNull;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for {@link TokenRevocation} rows.
+ */
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<@NonNull TokenRevocation, @NonNull Long> {
+
+    /**
+     * Loads the revocations that still matter and were created at or after {@code since}.
+     *
+     * @param now   the current time; expired revocations are skipped
+     * @param since lower bound of <code>created_at</code> ({@link Instant#EPOCH} for all)
+     * @return the matching revocations
+     */
+    @Transactional(readOnly = true)
+    List<TokenRevocation> findByExpiresAtAfterAndCreatedAtGreaterThanEqual(Instant now, Instant since);
+
+    /**
+     * Deletes up to {@code batchSize} expired revocations.
+     *
+     * @param now       the current time
+     * @param batchSize maximum number of rows to delete
+     * @return the number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM token_revocations
+            WHERE id IN (SELECT id FROM token_revocations WHERE expires_at <= :now LIMIT :batchSize)
+            """, nativeQuery = true)
+    int deleteExpired(Instant now, int batchSize);
+}
@@ -0,0 +1,13 @@
+package com.example.demo.auth.repository;
+
+/**
+ * Result of {@link UserRepository#upsertByPhoneNumber(String, String)}: the user, and whether
+ * this statement created it.
+ */
+public interface UpsertedUserView extends UserView {
+
+    /**
+     * {@code true} if the statement inserted the user, {@code false} if it already existed.
+     */
+    boolean isInserted();
+}
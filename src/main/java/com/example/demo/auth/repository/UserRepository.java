@@ -1,11 +1,20 @@
 package com.example.demo.auth.repository;
 
 import com.example.demo.auth.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.jspecify.annotations.NonNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for performing CRUD and query operations
@@ -19,6 +28,17 @@ import java.util.Optional;
  *     <li>Automatic query derivation based on method names</li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * Read endpoints use the {@link UserView} projection queries below. They return
+ * the phone number and roles (aggregated in SQL) in a single round trip without
+ * materializing {@link User} entities, and run in read-only transactions.
+ * </p>
+ *
+ * <p>
+ * With <code>db.replicas.urls</code> set, read-only transactions are served by a read replica
+ * and the remaining methods by the primary.
+ * </p>
  */
 @Repository
 public interface UserRepository extends JpaRepository<@NonNull User, @NonNull Long> {
@@ -34,5 +54,124 @@ public interface UserRepository extends JpaRepository<@NonNull User, @NonNull Lo
      * @return an {@link Optional} containing the user if found,
      * or an empty Optional if no user exists with the given phone number
      */
+    @Transactional(readOnly = true)
     Optional<User> findByPhoneNumber(String phoneNumber);
+
+    /**
+     * Finds the projection of a user by their unique phone number.
+     *
+     * @param phoneNumber the phone number used to look up the user
+     * @return an {@link Optional} containing the user view if found
+     */
+    @Transactional(readOnly = true)
+    @Query(value = """
+            SELECT u.id AS "id", u.phone_number AS "phoneNumber", array_agg(r.role) FILTER (WHERE r.role IS NOT NULL) AS "roles"
+            FROM users u
+            LEFT JOIN user_roles r ON r.user_id = u.id
+            WHERE u.phone_number = :phoneNumber
+            GROUP BY u.id, u.phone_number
+            """, nativeQuery = true)
+    Optional<UserView> findViewByPhoneNumber(String phoneNumber);
+
+    /**
+     * Returns which of the given phone numbers already belong to a user.
+     *
+     * @param phoneNumbers the phone numbers to check
+     * @return the subset of {@code phoneNumbers} that already exist
+     */
+    @Query("select u.phoneNumber from User u where u.phoneNumber in :phoneNumbers")
+    Set<String> findExistingPhoneNumbers(Collection<String> phoneNumbers);
+
+    /**
+     * Atomically finds or creates a user by phone number in a single round trip.
+     * <p>
+     * The user row and its default role are inserted by one statement using
+     * {@code INSERT ... ON CONFLICT (phone_number) DO NOTHING}, so concurrent first
+     * logins for the same phone number cannot violate the unique constraint.
+     * If the user already exists, its current projection is returned instead.
+     * </p>
+     *
+     * <p>
+     * The ID is taken directly from <code>users_seq</code>. This is safe alongside
+     * Hibernate's pooled optimizer: a {@code nextval} result {@code v} reserves the
+     * block {@code (v - 50, v]} for its caller, and this statement only uses {@code v}.
+     * </p>
+     *
+     * <p>
+     * The result is empty in one narrow case: another transaction inserted the same
+     * phone number and committed after this statement's snapshot was taken. The row
+     * then exists but is not visible to this statement, and callers should read it
+     * with {@link #findViewByPhoneNumber(String)}.
+     * </p>
+     *
+     * @param phoneNumber the phone number of the user
+     * @param defaultRole the role assigned if the user is created
+     * @return the existing or newly created user, flagged {@link UpsertedUserView#isInserted()
+     * inserted} if this statement created it, or empty if it must be re-read
+     */
+    @Transactional
+    @Query(value = """
+            WITH inserted AS (
+                INSERT INTO users (id, phone_number) VALUES (nextval('users_seq'), :phoneNumber)
+                ON CONFLICT (phone_number) DO NOTHING
+                RETURNING id, phone_number
+            ), inserted_roles AS (
+                INSERT INTO user_roles (user_id, role)
+                SELECT id, CAST(:defaultRole AS varchar) FROM inserted
+                RETURNING user_id
+            )
+            SELECT i.id AS "id", i.phone_number AS "phoneNumber", ARRAY[CAST(:defaultRole AS varchar)] AS "roles",
+                   true AS "inserted"
+            FROM inserted i
+            UNION ALL
+            SELECT u.id, u.phone_number, array_agg(r.role) FILTER (WHERE r.role IS NOT NULL), false
+            FROM users u
+            LEFT JOIN user_roles r ON r.user_id = u.id
+            WHERE u.phone_number = :phoneNumber
+            GROUP BY u.id, u.phone_number
+            """, nativeQuery = true)
+    Optional<UpsertedUserView> upsertByPhoneNumber(String phoneNumber, String defaultRole);
+
+    /**
+     * Returns the next page of users in ascending ID order (keyset pagination).
+     * <p>
+     * Unlike offset pagination, the cost of fetching a page does not grow with
+     * its position, because the database seeks directly to {@code id > after}
+     * using the primary key index. The page is selected first and only its
+     * roles are joined and aggregated.
+     * </p>
+     *
+     * @param after the ID of the last user on the previous page ({@code 0} for the first page)
+     * @param limit the maximum number of users to return
+     * @return up to {@code limit} users whose ID is greater than {@code after}
+     */
+    @Transactional(readOnly = true)
+    @Query(value = """
+            SELECT p.id AS "id", p.phone_number AS "phoneNumber", array_agg(r.role) FILTER (WHERE r.role IS NOT NULL) AS "roles"
+            FROM (SELECT id, phone_number FROM users WHERE id > :after ORDER BY id LIMIT :limit) p
+            LEFT JOIN user_roles r ON r.user_id = p.id
+            GROUP BY p.id, p.phone_number
+            ORDER BY p.id
+            """, nativeQuery = true)
+    List<UserView> findViewPage(long after, int limit);
+
+    /**
+     * Streams all users in ascending ID order through a forward-only database cursor.
+     * <p>
+     * Must be called inside a transaction, and the returned stream must be closed.
+     * Rows are fetched from the database in chunks of the configured fetch size
+     * instead of being loaded all at once.
+     * </p>
+     *
+     * @return a stream over all users
+     */
+    @Query(value = """
+            SELECT u.id AS "id", u.phone_number AS "phoneNumber", array_agg(r.role) FILTER (WHERE r.role IS NOT NULL) AS "roles"
+            FROM users u
+            LEFT JOIN user_roles r ON r.user_id = u.id
+            GROUP BY u.id, u.phone_number
+            ORDER BY u.id
+            """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<UserView> streamAllViews();
 }
@@ -0,0 +1,22 @@
+package com.example.demo.auth.repository;
+
+/**
+ * Read-only projection of a user, returned by the native queries in {@link UserRepository}.
+ * <p>
+ * Projections are plain values rather than managed entities: Hibernate does not
+ * keep dirty-checking snapshots for them and does not load the {@code roles}
+ * collection separately.
+ * </p>
+ */
+public interface UserView {
+
+    Long getId();
+
+    String getPhoneNumber();
+
+    /**
+     * All roles of the user, aggregated into an array in SQL,
+     * or {@code null} if the user has no roles.
+     */
+    String[] getRoles();
+}
@@ -0,0 +1,132 @@
+package com.example.demo.auth.revocation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings.
+ * <p>
+ * {@link #mightContain(String)} never returns {@code false} for a key that was {@link #put put};
+ * for other keys it returns {@code true} with roughly the false-positive rate the filter was
+ * sized for. The filter answers "definitely not revoked" for almost every token with a few bit
+ * reads and no allocation, so the exact revocation set is consulted only for the rare hits.
+ * </p>
+ *
+ * <p>
+ * Keys are hashed directly from their characters into two 64-bit hashes, combined into
+ * <code>k</code> bit positions (Kirsch–Mitzenmacher double hashing). Bits live in an
+ * {@link AtomicLongArray}, so lookups may run concurrently with {@link #put}; entries cannot be
+ * removed, so expiring keys requires building a new filter.
+ * </p>
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long SECOND_SEED = 0x9e3779b97f4a7c15L;
+    private static final long SECOND_MULTIPLIER = 0xc6a4a7935bd1e995L;
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+
+    /**
+     * @param bitSize   number of bits, at least 64
+     * @param hashCount number of bit positions per key, at least 1
+     */
+    public BloomFilter(long bitSize, int hashCount) {
+        if (bitSize < Long.SIZE || hashCount < 1) {
+            throw new IllegalArgumentException("bitSize must be >= 64 and hashCount >= 1");
+        }
+        this.words = new AtomicLongArray(Math.toIntExact((bitSize + Long.SIZE - 1) / Long.SIZE));
+        this.bitSize = (long) words.length() * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Sizes a filter for the given number of keys and false-positive rate:
+     * <code>m = -n ln p / (ln 2)²</code> bits and <code>k = m / n · ln 2</code> hashes.
+     *
+     * @param expectedKeys      number of keys the filter will hold
+     * @param falsePositiveRate target false-positive rate, in (0, 1)
+     * @return an empty filter
+     */
+    public static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        long n = Math.max(1, expectedKeys);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int hashes = (int) Math.max(1, Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilter(Math.max(Long.SIZE, bits), hashes);
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key the key
+     */
+    public void put(String key) {
+        long h1 = hash(key, FNV_OFFSET, FNV_PRIME);
+        long h2 = hash(key, SECOND_SEED, SECOND_MULTIPLIER);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return {@code false} if the key was definitely never added; {@code true} if it might have been
+     */
+    public boolean mightContain(String key) {
+        long h1 = hash(key, FNV_OFFSET, FNV_PRIME);
+        long h2 = hash(key, SECOND_SEED, SECOND_MULTIPLIER);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of bits (the filter's memory is {@code bitSize / 8} bytes)
+     */
+    public long bitSize() {
+        return bitSize;
+    }
+
+    /**
+     * @return number of bit positions per key
+     */
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private long index(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % bitSize;
+    }
+
+    /**
+     * Multiplicative hash over the key's characters, finished with the MurmurHash3 64-bit mix.
+     */
+    private static long hash(String key, long seed, long multiplier) {
+        long h = seed;
+        for (int i = 0, length = key.length(); i < length; i++) {
+            h = (h ^ key.charAt(i)) * multiplier;
+        }
+        h ^= key.length();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.demo.auth.revocation;
+
+import com.example.demo.auth.dto.JwtPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked tokens, checked by the JWT filter on every authenticated request.
+ * <p>
+ * Two kinds of revocation are held:
+ * <ul>
+ *     <li><strong>Token</strong> – a single token, by its <code>jti</code>, until the token's
+ *     <code>exp</code>;</li>
+ *     <li><strong>Subject</strong> – every token of a user issued before a cut-off ("not
+ *     before"), until no such token can still be valid (cut-off + <code>jwt.expiration-ms</code>).</li>
+ * </ul>
+ * Each kind is an exact map guarded by a {@link BloomFilter}. {@link #isRevoked(JwtPrincipal)}
+ * reads the filters first; only on a filter hit (a revoked token, or a false positive at the
+ * configured rate) does it look into the map. The check takes no lock and allocates nothing.
+ * </p>
+ *
+ * <p>
+ * Writes are rare and serialized. Entries expire at the instants above and are removed by
+ * {@link #prune(Instant)}, which then rebuilds the filters, since Bloom filters cannot remove
+ * keys. The filters are also rebuilt, with twice the capacity, when more entries are held than
+ * they were sized for, so the false-positive rate stays bounded.
+ * </p>
+ *
+ * <p>
+ * Configuration (<code>application.properties</code>):
+ * <ul>
+ *     <li><code>jwt.revocation.expected-entries</code> – initial filter capacity per kind</li>
+ *     <li><code>jwt.revocation.false-positive-rate</code> – target filter false-positive rate</li>
+ * </ul>
+ * </p>
+ */
+@Component
+public class RevocationIndex {
+
+    /**
+     * Token ID → expiry of the revoked token (epoch seconds).
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Subject → tokens issued strictly before this instant are rejected (epoch seconds).
+     */
+    private final Map<String, Long> notBeforeBySubject = new ConcurrentHashMap<>();
+
+    private final long initialCapacity;
+    private final double falsePositiveRate;
+    private final long tokenLifetimeSeconds;
+
+    private volatile Filters filters;
+
+    /**
+     * Bloom filters over the keys of both maps, replaced as a whole when rebuilt.
+     */
+    private record Filters(BloomFilter tokens, BloomFilter subjects, long capacity) {
+    }
+
+    /**
+     * @param expectedEntries   initial number of entries per kind the filters are sized for
+     * @param falsePositiveRate target false-positive rate of the filters
+     * @param expirationMs      token lifetime, i.e. how long a subject cut-off stays relevant
+     */
+    public RevocationIndex(@Value("${jwt.revocation.expected-entries:100000}") long expectedEntries,
+                           @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                           @Value("${jwt.expiration-ms}") long expirationMs) {
+        this.initialCapacity = Math.max(1, expectedEntries);
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenLifetimeSeconds = Math.ceilDiv(expirationMs, 1000);
+        this.filters = newFilters(initialCapacity);
+    }
+
+    /**
+     * Checks whether a verified token has been revoked, by token ID or by subject cut-off.
+     *
+     * @param principal the verified token
+     * @return {@code true} if the token must be rejected
+     */
+    public boolean isRevoked(JwtPrincipal principal) {
+        Filters current = filters;
+        String tokenId = principal.tokenId();
+        if (tokenId != null && current.tokens().mightContain(tokenId) && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        String subject = principal.subject();
+        if (subject == null || !current.subjects().mightContain(subject)) {
+            return false;
+        }
+        Long notBefore = notBeforeBySubject.get(subject);
+        return notBefore != null
+                && (principal.issuedAt() == null || principal.issuedAt().getEpochSecond() < notBefore);
+    }
+
+    /**
+     * Revokes a single token until it expires.
+     *
+     * @param tokenId   the token's <code>jti</code>
+     * @param expiresAt the token's <code>exp</code>
+     */
+    public synchronized void revokeToken(String tokenId, Instant expiresAt) {
+        revokedTokens.merge(tokenId, expiresAt.getEpochSecond(), Math::max);
+        filters.tokens().put(tokenId);
+        growIfFull();
+    }
+
+    /**
+     * Revokes every token of a subject issued before a cut-off.
+     * <p>
+     * JWT <code>iat</code> values have second precision; a token issued in the cut-off's own
+     * second stays valid.
+     * </p>
+     *
+     * @param subject   the token subject (phone number)
+     * @param notBefore tokens issued before this instant are rejected
+     */
+    public synchronized void revokeSubject(String subject, Instant notBefore) {
+        notBeforeBySubject.merge(subject, notBefore.getEpochSecond(), Math::max);
+        filters.subjects().put(subject);
+        growIfFull();
+    }
+
+    /**
+     * Removes entries that can no longer match a valid token and rebuilds the filters without them.
+     *
+     * @param now the current time
+     * @return the number of removed entries
+     */
+    public synchronized int prune(Instant now) {
+        long nowSeconds = now.getEpochSecond();
+        int before = size();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= nowSeconds);
+        notBeforeBySubject.values().removeIf(notBefore -> notBefore + tokenLifetimeSeconds <= nowSeconds);
+        int removed = before - size();
+        if (removed > 0) {
+            long capacity = initialCapacity;
+            while (capacity < maxEntries()) {
+                capacity *= 2;
+            }
+            rebuild(capacity);
+        }
+        return removed;
+    }
+
+    /**
+     * @return number of revoked tokens and subject cut-offs held
+     */
+    public int size() {
+        return revokedTokens.size() + notBeforeBySubject.size();
+    }
+
+    /**
+     * @return number of bits in each filter
+     */
+    public long filterBitSize() {
+        return filters.tokens().bitSize();
+    }
+
+    private void growIfFull() {
+        if (maxEntries() > filters.capacity()) {
+            rebuild(filters.capacity() * 2);
+        }
+    }
+
+    private long maxEntries() {
+        return Math.max(revokedTokens.size(), notBeforeBySubject.size());
+    }
+
+    /**
+     * Builds filters over the current map keys and publishes them. Must hold the lock, so no
+     * revocation is added to the old filters after their keys were copied.
+     */
+    private void rebuild(long capacity) {
+        Filters rebuilt = newFilters(capacity);
+        revokedTokens.keySet().forEach(rebuilt.tokens()::put);
+        notBeforeBySubject.keySet().forEach(rebuilt.subjects()::put);
+        filters = rebuilt;
+    }
+
+    private Filters newFilters(long capacity) {
+        return new Filters(
+                BloomFilter.create(capacity, falsePositiveRate),
+                BloomFilter.create(capacity, falsePositiveRate),
+                capacity);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.demo.auth.service;
 
+import com.example.demo.auth.dto.JwtPrincipal;
 import com.example.demo.auth.model.User;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Service interface for handling JSON Web Token (JWT) operations.
@@ -47,4 +49,16 @@ public interface JWTService {
      * @return {@code true} if the token is valid; {@code false} otherwise
      */
     boolean isTokenValid(String token);
+
+    /**
+     * Parses and verifies the provided JWT token in a single pass.
+     * <p>
+     * Prefer this over calling {@link #isTokenValid(String)} followed by
+     * {@link #extractUsername(String)}, which verifies the signature twice.
+     * </p>
+     *
+     * @param token the token to verify
+     * @return the verified principal, or {@code null} if the token is invalid or expired
+     */
+    @Nullable JwtPrincipal verifyToken(String token);
 }
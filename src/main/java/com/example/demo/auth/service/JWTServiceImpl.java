@@ -1,15 +1,33 @@
 package com.example.demo.auth.service;
 
+import com.example.demo.auth.dto.JwtPrincipal;
 import com.example.demo.auth.model.User;
+import com.example.demo.auth.util.Digests;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
+import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Implementation of {@link JWTService} responsible for generating, parsing,
@@ -30,6 +48,25 @@ import java.util.Date;
  *     <li><code>jwt.expiration-ms</code> – token lifetime in milliseconds</li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * With <code>jwt.signing.algorithm=ES256</code>, tokens are instead signed with the active
+ * private key of the {@link JwtKeyring} and carry its ID in the <code>kid</code> header.
+ * Verification picks the public key by <code>kid</code>, so tokens signed with any configured
+ * key stay valid during a key rotation, and other services can verify tokens with the public
+ * keys alone (<code>GET /.well-known/jwks.json</code>).
+ * </p>
+ *
+ * <p>
+ * Optionally, already-verified tokens are cached so that a client sending the same
+ * bearer token repeatedly skips signature verification and claim decoding:
+ * <ul>
+ *     <li><code>jwt.verified-cache.enabled</code> – turns the cache on (default {@code false})</li>
+ *     <li><code>jwt.verified-cache.maximum-size</code> – maximum number of cached tokens</li>
+ * </ul>
+ * Entries are keyed by a SHA-256 digest of the token, so raw tokens are never held
+ * in memory, and expire no later than the token's own {@code exp}.
+ * </p>
  */
 @Service
 public class JWTServiceImpl implements JWTService {
@@ -40,13 +77,65 @@ public class JWTServiceImpl implements JWTService {
     @Value("${jwt.expiration-ms}")
     private long expiration;
 
+    @Value("${jwt.verified-cache.enabled:false}")
+    private boolean verifiedCacheEnabled;
+
+    @Value("${jwt.verified-cache.maximum-size:10000}")
+    private long verifiedCacheMaximumSize;
+
+    private final JwtKeyring keyring;
+
+    /**
+     * Time source of issued and expiry timestamps and of the verified-token cache's expiry.
+     */
+    private final Clock clock;
+
+    /**
+     * Time source of the verified-token cache; must advance with {@link #clock}.
+     */
+    private final Ticker ticker;
+
     /**
      * Parsed SecretKey generated from the configured secret.
      */
     private SecretKey key;
 
     /**
-     * Initializes the signing key after dependency injection.
+     * Parser resolving the verification key per token (HMAC {@link #key}, or the keyring's
+     * public key named by <code>kid</code>), built once and reused for every request.
+     * <p>
+     * {@link JwtParser} instances are immutable and thread-safe.
+     * </p>
+     */
+    private JwtParser parser;
+
+    /**
+     * Token digest → verified principal, or {@code null} when the cache is disabled.
+     */
+    private Cache<String, JwtPrincipal> verifiedTokens;
+
+    /**
+     * @param keyring asymmetric signing and verification keys (empty in HS256 mode)
+     */
+    @Autowired
+    public JWTServiceImpl(JwtKeyring keyring) {
+        this(keyring, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    /**
+     * @param keyring asymmetric signing and verification keys (empty in HS256 mode)
+     * @param clock   time source of the tokens and of the verified-token cache's expiry
+     * @param ticker  time source of the verified-token cache
+     */
+    JWTServiceImpl(JwtKeyring keyring, Clock clock, Ticker ticker) {
+        this.keyring = keyring;
+        this.clock = clock;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Initializes the signing key, the token parser and the verified-token cache
+     * after dependency injection.
      * <p>
      * Converts the configured secret string into an HMAC SHA key compatible
      * with the JJWT library.
@@ -55,6 +144,16 @@ public class JWTServiceImpl implements JWTService {
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setClock(() -> Date.from(clock.instant()))
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return verificationKey(header);
+                    }
+                })
+                .build();
+        this.verifiedTokens = verifiedCacheEnabled ? newVerifiedTokenCache(verifiedCacheMaximumSize) : null;
     }
 
     /**
@@ -63,26 +162,36 @@ public class JWTServiceImpl implements JWTService {
      * The token includes:
      * </p>
      * <ul>
+     *     <li>A random unique ID (<code>jti</code>), so the token can be revoked individually</li>
      *     <li>The user's phone number as the <strong>subject</strong></li>
      *     <li>Issued-at timestamp</li>
      *     <li>Expiration timestamp</li>
      *     <li>Assigned roles as a claim</li>
      * </ul>
      *
+     * Signed with ES256 and a <code>kid</code> header in asymmetric mode, otherwise with HS256.
+     *
      * @param user the authenticated user
      * @return a signed JWT string
      */
     @Override
     public String generateToken(User user) {
 
-        long now = System.currentTimeMillis();
+        long now = clock.millis();
 
         JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getUsername())
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + expiration))
                 .claim("roles", user.getRoles());
 
+        if (keyring.isAsymmetric()) {
+            return builder
+                    .setHeaderParam(JwsHeader.KEY_ID, keyring.activeKeyId())
+                    .signWith(keyring.activePrivateKey(), SignatureAlgorithm.ES256)
+                    .compact();
+        }
         return builder
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
@@ -120,6 +229,65 @@ public class JWTServiceImpl implements JWTService {
         }
     }
 
+    /**
+     * Verifies the token once and returns its subject, roles, issue time and expiry.
+     * <p>
+     * When the verified-token cache is enabled, a token seen before is returned
+     * from the cache without running signature verification again.
+     * </p>
+     *
+     * @param token the token to verify
+     * @return the verified principal, or {@code null} if the token is invalid or expired
+     */
+    @Override
+    public @Nullable JwtPrincipal verifyToken(String token) {
+        if (verifiedTokens == null) {
+            return parsePrincipal(token);
+        }
+
+        String digest = Digests.sha256(token);
+        JwtPrincipal cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        JwtPrincipal principal = parsePrincipal(token);
+        if (principal != null) {
+            verifiedTokens.put(digest, principal);
+        }
+        return principal;
+    }
+
+    /**
+     * Returns the hit/miss/eviction counters of the verified-token cache.
+     *
+     * @return the cache statistics, or {@link CacheStats#empty()} if the cache is disabled
+     */
+    public CacheStats verifiedTokenCacheStats() {
+        return verifiedTokens != null ? verifiedTokens.stats() : CacheStats.empty();
+    }
+
+    /**
+     * Verifies the signature and expiry of a token and maps its claims.
+     *
+     * @param token the token to verify
+     * @return the verified principal, or {@code null} if the token is invalid or expired
+     */
+    private @Nullable JwtPrincipal parsePrincipal(String token) {
+        try {
+            Claims claims = parseClaims(token);
+            return new JwtPrincipal(
+                    claims.getSubject(),
+                    extractRoles(claims),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration().toInstant(),
+                    claims.getId()
+            );
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
     /**
      * Parses and returns the JWT claims.
      *
@@ -128,10 +296,72 @@ public class JWTServiceImpl implements JWTService {
      * @throws JwtException if the token is invalid or expired
      */
     private Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
+
+    /**
+     * Selects the key a token must be signed with.
+     * <p>
+     * Tokens with a <code>kid</code> must be ES256 and signed by that keyring key; tokens without
+     * one must be HS256 and are only accepted while HMAC tokens are (always in HS256 mode).
+     * Tying the algorithm to the key prevents algorithm-confusion attacks.
+     * </p>
+     *
+     * @param header the token header
+     * @return the verification key
+     * @throws JwtException if the token names an unknown key or an unexpected algorithm
+     */
+    private Key verificationKey(JwsHeader<?> header) {
+        String keyId = header.getKeyId();
+        if (keyId == null) {
+            if (!keyring.acceptsHmac() || !SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+                throw new UnsupportedJwtException("Unexpected algorithm: " + header.getAlgorithm());
+            }
+            return key;
+        }
+        if (!SignatureAlgorithm.ES256.getValue().equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("Unexpected algorithm: " + header.getAlgorithm());
+        }
+        PublicKey publicKey = keyring.verificationKey(keyId);
+        if (publicKey == null) {
+            throw new SignatureException("Unknown key ID: " + keyId);
+        }
+        return publicKey;
+    }
+
+    /**
+     * Builds the verified-token cache. Each entry lives until its token's {@code exp}.
+     *
+     * @param maximumSize maximum number of cached tokens
+     * @return a new cache
+     */
+    private Cache<String, JwtPrincipal> newVerifiedTokenCache(long maximumSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .ticker(ticker)
+                .expireAfter(Expiry.creating((String digest, JwtPrincipal principal) ->
+                        Duration.between(clock.instant(), principal.expiresAt())))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Reads the {@code roles} claim, which is serialized as a JSON array.
+     *
+     * @param claims the verified claims
+     * @return the role names, or an empty set if the claim is absent
+     */
+    private Set<String> extractRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof Collection<?> values)) {
+            return Set.of();
+        }
+        Set<String> result = new HashSet<>(values.size());
+        for (Object value : values) {
+            result.add(String.valueOf(value));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,197 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.config.JwtSigningProperties;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asymmetric keys used to sign and verify JWTs in ES256 mode.
+ * <p>
+ * Holds one <em>active</em> private key, which signs new tokens and whose ID is written to the
+ * <code>kid</code> header, and the public keys of every configured key ID. Keys are parsed once
+ * at startup; verification looks the parsed {@link PublicKey} up by <code>kid</code>.
+ * </p>
+ *
+ * <p>
+ * Because every instance accepts every configured key, keys can be rotated with rolling
+ * restarts instead of a synchronized one:
+ * <ol>
+ *     <li>add the new key's public key everywhere (verification and JWKS only);</li>
+ *     <li>make the new key active;</li>
+ *     <li>after <code>jwt.expiration-ms</code>, remove the old key.</li>
+ * </ol>
+ * Verification-only services fetch the public keys from the JWKS endpoint.
+ * </p>
+ *
+ * <p>
+ * In HS256 mode the keyring is empty and tokens are signed with <code>jwt.secret</code>.
+ * </p>
+ */
+@Component
+public class JwtKeyring {
+
+    /**
+     * Size in bytes of a P-256 coordinate in a JWK.
+     */
+    private static final int P256_COORDINATE_BYTES = 32;
+
+    private final @Nullable String activeKeyId;
+    private final @Nullable PrivateKey activePrivateKey;
+    private final Map<String, ECPublicKey> publicKeys;
+    private final boolean acceptHmac;
+
+    /**
+     * @param properties the signing settings
+     * @throws IllegalStateException if ES256 mode is configured without a usable active key,
+     *                               or a key is not a P-256 EC key
+     */
+    public JwtKeyring(JwtSigningProperties properties) {
+        if (properties.getAlgorithm() == JwtSigningProperties.Algorithm.HS256) {
+            this.activeKeyId = null;
+            this.activePrivateKey = null;
+            this.publicKeys = Map.of();
+            this.acceptHmac = true;
+            return;
+        }
+
+        Map<String, ECPublicKey> parsed = new LinkedHashMap<>();
+        properties.getKeys().forEach((keyId, location) -> parsed.put(keyId, readPublicKey(keyId, location.getPublicKey())));
+
+        String keyId = properties.getActiveKeyId();
+        JwtSigningProperties.KeyPairLocation active = keyId != null ? properties.getKeys().get(keyId) : null;
+        if (active == null || active.getPrivateKey() == null) {
+            throw new IllegalStateException("jwt.signing.active-key-id must name a key with a private key");
+        }
+        this.activeKeyId = keyId;
+        this.activePrivateKey = readPrivateKey(keyId, active.getPrivateKey());
+        this.publicKeys = Map.copyOf(parsed);
+        this.acceptHmac = properties.isAcceptHmac();
+    }
+
+    /**
+     * @return {@code true} if new tokens are signed with the active asymmetric key
+     */
+    public boolean isAsymmetric() {
+        return activePrivateKey != null;
+    }
+
+    /**
+     * @return the key ID written to the <code>kid</code> header of new tokens, or {@code null} in HS256 mode
+     */
+    public @Nullable String activeKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * @return the key new tokens are signed with, or {@code null} in HS256 mode
+     */
+    public @Nullable PrivateKey activePrivateKey() {
+        return activePrivateKey;
+    }
+
+    /**
+     * @param keyId the <code>kid</code> header of a token
+     * @return the public key, or {@code null} if the key ID is unknown
+     */
+    public @Nullable PublicKey verificationKey(String keyId) {
+        return publicKeys.get(keyId);
+    }
+
+    /**
+     * @return whether tokens signed with <code>jwt.secret</code> (without <code>kid</code>) are accepted
+     */
+    public boolean acceptsHmac() {
+        return acceptHmac;
+    }
+
+    /**
+     * Returns the public keys as JSON Web Keys (RFC 7517), for the JWKS endpoint.
+     *
+     * @return one JWK per key ID; empty in HS256 mode
+     */
+    public List<Map<String, String>> jwks() {
+        List<Map<String, String>> jwks = new ArrayList<>(publicKeys.size());
+        publicKeys.forEach((keyId, key) -> {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("kid", keyId);
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("x", coordinate(key.getW().getAffineX()));
+            jwk.put("y", coordinate(key.getW().getAffineY()));
+            jwks.add(jwk);
+        });
+        return jwks;
+    }
+
+    private static ECPublicKey readPublicKey(String keyId, @Nullable Resource resource) {
+        if (resource == null) {
+            throw new IllegalStateException("jwt.signing.keys." + keyId + ".public-key is required");
+        }
+        try {
+            PublicKey key = KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(pem(resource)));
+            if (!(key instanceof ECPublicKey ecKey) || ecKey.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalStateException("Key " + keyId + " is not a P-256 key");
+            }
+            return ecKey;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Invalid public key " + keyId, ex);
+        }
+    }
+
+    private static PrivateKey readPrivateKey(String keyId, Resource resource) {
+        try {
+            PrivateKey key = KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(pem(resource)));
+            if (!(key instanceof ECPrivateKey ecKey) || ecKey.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalStateException("Key " + keyId + " is not a P-256 key");
+            }
+            return key;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Invalid private key " + keyId, ex);
+        }
+    }
+
+    /**
+     * Decodes the Base64 body of a PEM file, ignoring the BEGIN/END lines.
+     */
+    private static byte[] pem(Resource resource) {
+        try {
+            String text = resource.getContentAsString(StandardCharsets.US_ASCII);
+            String body = text.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+            return Base64.getDecoder().decode(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read key " + resource.getDescription(), ex);
+        }
+    }
+
+    /**
+     * Encodes an EC coordinate as a fixed-length, unsigned, Base64url value.
+     */
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[P256_COORDINATE_BYTES];
+        int length = Math.min(bytes.length, P256_COORDINATE_BYTES);
+        System.arraycopy(bytes, bytes.length - length, fixed, P256_COORDINATE_BYTES - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.demo.auth.service;
 
+import com.example.demo.auth.dto.JwtResponse;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -30,7 +32,7 @@ public interface OtpAuthService {
      *     <li>If verification succeeds:
      *         <ul>
      *             <li>Create or retrieve the corresponding application user</li>
-     *             <li>Generate a JWT token for authenticated access</li>
+     *             <li>Generate a JWT token for authenticated access and a refresh token</li>
      *         </ul>
      *     </li>
      * </ol>
@@ -38,12 +40,29 @@ public interface OtpAuthService {
      * @param providerKey   identifier for the OTP provider (e.g., "firebase", "twilio")
      * @param providerToken the token or OTP code to be verified by the provider
      * @param meta          optional provider-specific metadata (e.g., phone number, session ID)
-     * @return a newly generated authentication token (e.g., JWT) if verification succeeds
+     * @return a newly generated authentication token (e.g., JWT) and refresh token if verification succeeds
      * @throws RuntimeException if verification fails or provider is unknown
      */
-    String verifyAndGenerateToken(
+    JwtResponse verifyAndGenerateToken(
             @NonNull String providerKey,
             @NonNull String providerToken,
             @Nullable Map<String, Object> meta
     );
+
+    /**
+     * Verifies an OTP with whichever of the accepted providers currently performs best
+     * (lowest recent latency and error rate) and, if successful, generates an
+     * authentication token for the user.
+     *
+     * @param providerKeys  identifiers of the providers the client accepts; empty for any provider
+     * @param providerToken the token or OTP code to be verified by the provider
+     * @param meta          optional provider-specific metadata (e.g., phone number, session ID)
+     * @return a newly generated authentication token (e.g., JWT) and refresh token if verification succeeds
+     * @throws RuntimeException if verification fails or a provider is unknown
+     */
+    JwtResponse verifyAndGenerateToken(
+            @NonNull Collection<String> providerKeys,
+            @NonNull String providerToken,
+            @Nullable Map<String, Object> meta
+    );
 }
@@ -1,13 +1,21 @@
 package com.example.demo.auth.service;
 
 import com.example.demo.auth.adapter.OtpProviderAdapter;
+import com.example.demo.auth.adapter.OtpProviderInvoker;
+import com.example.demo.auth.adapter.ResilientOtpProviderRegistry;
+import com.example.demo.auth.cache.VerificationReplayCache;
+import com.example.demo.auth.dto.JwtResponse;
 import com.example.demo.auth.dto.ProviderVerifyResult;
+import com.example.demo.auth.exception.OtpProviderUnavailableException;
+import com.example.demo.auth.metrics.AuthMetrics;
 import com.example.demo.auth.model.User;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.TreeSet;
 
 /**
  * Service responsible for performing OTP verification and generating authentication tokens.
@@ -19,35 +27,62 @@ import java.util.Map;
  *
  * <p>Once OTP verification succeeds, a user record is retrieved or created
  * (depending on application rules), and a JWT token is generated for the user.</p>
+ *
+ * <p>The provider call goes through {@link ResilientOtpProviderRegistry}, which guards
+ * every provider with a bulkhead, a circuit breaker and an optional fallback provider,
+ * and {@link OtpProviderInvoker}, which runs it asynchronously (on virtual threads when
+ * <code>spring.threads.virtual.enabled=true</code>) with a per-provider timeout and
+ * optional hedging. A user lookup that misses the cache waits for a database
+ * permit in {@link UserService} so that unbounded virtual-thread concurrency
+ * cannot exhaust the connection pool.</p>
+ *
+ * <p>Client retries of the same verification are absorbed by the
+ * {@link VerificationReplayCache}: a retry shortly after a successful login gets the JWT that
+ * was already issued, and concurrent duplicates share one provider call and one user lookup.</p>
+ *
+ * <p>Each verification is observed by {@link AuthMetrics} as <code>auth.login</code>, with the
+ * user upsert, JWT signing and refresh token as <code>auth.login.stage</code> children.</p>
  */
 @Service
 public class OtpAuthServiceImpl implements OtpAuthService {
 
     /**
-     * Registry mapping provider keys to their respective OTP adapters.
+     * Registry of OTP adapters, guarded per provider by a bulkhead and a circuit breaker.
      * <p>Keys must match the value returned by {@link OtpProviderAdapter#providerKey()}.</p>
      */
     @NonNull
-    private final Map<String, OtpProviderAdapter> otpProviderRegistry;
+    private final ResilientOtpProviderRegistry otpProviderRegistry;
 
     private final JWTServiceImpl jwtService;
     private final UserService userService;
+    private final VerificationReplayCache replayCache;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthMetrics authMetrics;
 
     /**
      * Constructs an instance of {@code OtpAuthServiceImpl}.
      *
-     * @param otpProviderRegistry map of available OTP providers
+     * @param otpProviderRegistry guarded registry of available OTP providers
      * @param jwtService          service for generating JWT tokens
      * @param userService         service for managing and retrieving user records
+     * @param replayCache         collapses retried and duplicate verifications
+     * @param refreshTokenService issues the refresh token returned with the JWT
+     * @param authMetrics         observes the verification and its stages
      */
     public OtpAuthServiceImpl(
-            @NonNull Map<String, OtpProviderAdapter> otpProviderRegistry,
+            @NonNull ResilientOtpProviderRegistry otpProviderRegistry,
             JWTServiceImpl jwtService,
-            UserService userService
+            UserService userService,
+            VerificationReplayCache replayCache,
+            RefreshTokenService refreshTokenService,
+            AuthMetrics authMetrics
     ) {
         this.otpProviderRegistry = otpProviderRegistry;
         this.jwtService = jwtService;
         this.userService = userService;
+        this.replayCache = replayCache;
+        this.refreshTokenService = refreshTokenService;
+        this.authMetrics = authMetrics;
     }
 
     /**
@@ -56,33 +91,70 @@ public class OtpAuthServiceImpl implements OtpAuthService {
      *
      * <p>Workflow:</p>
      * <ol>
-     *     <li>Resolve the provider using {@code providerKey}</li>
-     *     <li>Call {@link OtpProviderAdapter#verify(String, Map)} to validate the token</li>
+     *     <li>Return the JWT of an identical, recent or in-flight verification if there is one</li>
+     *     <li>Call the provider selected by {@code providerKey} through the
+     *     {@link ResilientOtpProviderRegistry} to validate the token</li>
      *     <li>Ensure the provider returned a phone number</li>
      *     <li>Retrieve or create a user with that phone number</li>
-     *     <li>Generate a JWT token representing the authenticated user</li>
+     *     <li>Generate a JWT token representing the authenticated user, and a refresh token</li>
      * </ol>
      *
      * @param providerKey   the identifier of the OTP provider to use
      * @param providerToken the OTP or verification token to validate
      * @param meta          optional metadata required by the OTP provider (e.g., requestId, phoneNumber)
-     * @return a JWT token if verification succeeds
-     * @throws IllegalArgumentException if {@code providerKey} does not match any provider
-     * @throws RuntimeException         if OTP verification fails or the provider does not return a phone number
+     * @return a JWT token and a refresh token if verification succeeds
+     * @throws IllegalArgumentException        if {@code providerKey} does not match any provider
+     * @throws OtpProviderUnavailableException if the provider (and its fallback) is unavailable
+     * @throws RuntimeException                if OTP verification fails or the provider does not return a phone number
      */
     @Override
-    public String verifyAndGenerateToken(
+    public JwtResponse verifyAndGenerateToken(
             @NonNull String providerKey,
             @NonNull String providerToken,
             @Nullable Map<String, Object> meta
     ) {
-        OtpProviderAdapter adapter = otpProviderRegistry.get(providerKey);
+        // the key comes straight from an unauthenticated request, so unknown keys share one tag value
+        String providerTag = otpProviderRegistry.isRegistered(providerKey) ? providerKey : AuthMetrics.UNKNOWN_PROVIDER;
+        return authMetrics.observeLogin(providerTag, () -> replayCache.getOrVerify(providerKey, providerToken, meta,
+                () -> generateToken(otpProviderRegistry.verify(providerKey, providerToken, meta))));
+    }
 
-        if (adapter == null) {
-            throw new IllegalArgumentException("Unknown OTP provider: " + providerKey);
-        }
+    /**
+     * Verifies an OTP token with the best-performing of the accepted providers and generates
+     * a JWT authentication token if verification succeeds.
+     * <p>
+     * The provider is chosen by the {@link ResilientOtpProviderRegistry} from its recent
+     * latency and error rate; if it is unavailable, the next-best provider is tried.
+     * </p>
+     *
+     * @param providerKeys  the providers the client accepts; empty for any registered provider
+     * @param providerToken the OTP or verification token to validate
+     * @param meta          optional metadata required by the OTP provider
+     * @return a JWT token and a refresh token if verification succeeds
+     * @throws IllegalArgumentException        if a key does not match any provider
+     * @throws OtpProviderUnavailableException if none of the providers is available
+     * @throws RuntimeException                if OTP verification fails or the provider does not return a phone number
+     */
+    @Override
+    public JwtResponse verifyAndGenerateToken(
+            @NonNull Collection<String> providerKeys,
+            @NonNull String providerToken,
+            @Nullable Map<String, Object> meta
+    ) {
+        // the routed provider may differ between retries, so the key covers the accepted set
+        String scope = "routed:" + new TreeSet<>(providerKeys);
+        return authMetrics.observeLogin("routed", () -> replayCache.getOrVerify(scope, providerToken, meta,
+                () -> generateToken(otpProviderRegistry.verifyRouted(providerKeys, providerToken, meta))));
+    }
 
-        ProviderVerifyResult result = adapter.verify(providerToken, meta);
+    /**
+     * Finds or creates the user behind a provider result and issues a JWT and a refresh token for them.
+     *
+     * @param result the provider's verification result
+     * @return a JWT token and a refresh token for the verified user
+     * @throws RuntimeException if verification failed or no phone number was returned
+     */
+    private JwtResponse generateToken(ProviderVerifyResult result) {
         if (!result.isSuccess()) {
             throw new RuntimeException("OTP verification failed!");
         }
@@ -92,7 +164,9 @@ public class OtpAuthServiceImpl implements OtpAuthService {
             throw new RuntimeException("OTP provider did not return a phone number!");
         }
 
-        User user = userService.findOrCreateUserByPhoneNumber(phoneNumber);
-        return jwtService.generateToken(user);
+        User user = authMetrics.observeLoginStage("user", () -> userService.findOrCreateUserByPhoneNumber(phoneNumber));
+        String accessToken = authMetrics.observeLoginStage("jwt", () -> jwtService.generateToken(user));
+        String refreshToken = authMetrics.observeLoginStage("refresh-token", () -> refreshTokenService.issue(user));
+        return new JwtResponse(accessToken, refreshToken);
     }
 }
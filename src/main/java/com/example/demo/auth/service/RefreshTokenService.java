@@ -0,0 +1,141 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.concurrent.DatabaseConcurrencyLimiter;
+import com.example.demo.auth.dto.JwtResponse;
+import com.example.demo.auth.exception.InvalidRefreshTokenException;
+import com.example.demo.auth.model.User;
+import com.example.demo.auth.repository.RefreshTokenRepository;
+import com.example.demo.auth.repository.UserRepository;
+import com.example.demo.auth.util.Digests;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens, so returning users get a new access token without
+ * repeating the OTP flow (no provider call, no user upsert).
+ * <p>
+ * Refresh tokens are 256-bit random values. Only their SHA-256 digest is stored, so a leaked
+ * table cannot be used to refresh. Each refresh exchanges the token for a new one of the same
+ * family in a single atomic statement; presenting an already-exchanged token revokes the
+ * whole family (reuse detection), since either the client or an attacker holds a stolen copy.
+ * </p>
+ *
+ * <p>
+ * Configuration (<code>application.properties</code>):
+ * <ul>
+ *     <li><code>jwt.refresh.expiration</code> – lifetime of each refresh token (default 30 days)</li>
+ *     <li><code>jwt.refresh.cleanup-interval</code> – how often expired tokens are deleted</li>
+ *     <li><code>jwt.refresh.cleanup-batch-size</code> – rows deleted per statement</li>
+ * </ul>
+ * All database work waits for a {@link DatabaseConcurrencyLimiter} permit.
+ * </p>
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JWTServiceImpl jwtService;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final Duration expiration;
+    private final int cleanupBatchSize;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JWTServiceImpl jwtService,
+                               DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                               @Value("${jwt.refresh.expiration:30d}") Duration expiration,
+                               @Value("${jwt.refresh.cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtService = jwtService;
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.expiration = expiration;
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+
+    /**
+     * Starts a new token family for a user who just logged in.
+     *
+     * @param user the authenticated user
+     * @return the refresh token to hand to the client
+     */
+    public String issue(User user) {
+        String token = newToken();
+        Instant expiresAt = Instant.now().plus(expiration);
+        databaseConcurrencyLimiter.run(() ->
+                refreshTokenRepository.insert(Digests.sha256(token), user.getId(), UUID.randomUUID(), expiresAt));
+        return token;
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     *
+     * @param refreshToken the refresh token returned by the last login or refresh
+     * @return the new access and refresh tokens
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, already used or revoked
+     */
+    public JwtResponse refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token is required");
+        }
+        String tokenHash = Digests.sha256(refreshToken);
+        String newToken = newToken();
+        Instant now = Instant.now();
+
+        User user = databaseConcurrencyLimiter.call(() -> refreshTokenRepository
+                .rotate(tokenHash, Digests.sha256(newToken), now, now.plus(expiration))
+                .flatMap(userRepository::findById)
+                .orElse(null));
+        if (user == null) {
+            int revoked = databaseConcurrencyLimiter.call(() -> refreshTokenRepository.deleteFamilyOfUsedToken(tokenHash));
+            throw new InvalidRefreshTokenException(revoked > 0
+                    ? "Refresh token was already used; all tokens of this login have been revoked"
+                    : "Refresh token is invalid or expired");
+        }
+        return new JwtResponse(jwtService.generateToken(user), newToken);
+    }
+
+    /**
+     * Revokes every refresh token of a user, so none of their logins can be refreshed.
+     *
+     * @param user the user
+     */
+    public void revokeAll(User user) {
+        databaseConcurrencyLimiter.run(() -> refreshTokenRepository.deleteAllOfUser(user.getId()));
+    }
+
+    /**
+     * Deletes expired refresh tokens in batches, so no single statement locks many rows.
+     *
+     * @return the number of deleted tokens
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.cleanup-interval:1h}",
+            initialDelayString = "${jwt.refresh.cleanup-interval:1h}")
+    public int deleteExpired() {
+        Instant now = Instant.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = databaseConcurrencyLimiter.call(() -> refreshTokenRepository.deleteExpired(now, cleanupBatchSize));
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        return total;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.concurrent.DatabaseConcurrencyLimiter;
+import com.example.demo.auth.dto.JwtPrincipal;
+import com.example.demo.auth.model.TokenRevocation;
+import com.example.demo.auth.repository.TokenRevocationRepository;
+import com.example.demo.auth.revocation.RevocationIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Revokes issued tokens before they expire, either one token at a time (by its <code>jti</code>)
+ * or every token of a user issued before now.
+ * <p>
+ * Revocations are written to the <code>token_revocations</code> table and applied to the
+ * in-memory {@link RevocationIndex}, which the JWT filter checks on every request. At startup
+ * the index is rebuilt from the table; afterwards, {@link #sync()} periodically loads the
+ * revocations other instances have written, removes expired entries from the index and
+ * deletes expired rows in batches.
+ * </p>
+ *
+ * <p>
+ * A user-wide revocation is used when a user's roles change: tokens issued before the change
+ * still carry the old {@code roles} claim, so the user has to log in again.
+ * </p>
+ *
+ * <p>
+ * Configuration (<code>application.properties</code>):
+ * <ul>
+ *     <li><code>jwt.revocation.sync-interval</code> – how often revocations are synchronized (default 30s)</li>
+ *     <li><code>jwt.revocation.cleanup-batch-size</code> – expired rows deleted per statement</li>
+ * </ul>
+ * </p>
+ */
+@Service
+public class TokenRevocationService {
+
+    /**
+     * How far before the last synchronization rows are read again, to cover commits that were
+     * still in flight and clock differences between instances. Re-reading a row is harmless.
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevocationIndex revocationIndex;
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final Duration tokenLifetime;
+    private final int cleanupBatchSize;
+
+    /**
+     * Start of the last successful load; rows created since are loaded on the next sync.
+     */
+    private volatile Instant syncedSince = Instant.EPOCH;
+
+    public TokenRevocationService(RevocationIndex revocationIndex,
+                                  TokenRevocationRepository tokenRevocationRepository,
+                                  DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                                  @Value("${jwt.expiration-ms}") long expirationMs,
+                                  @Value("${jwt.revocation.cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.revocationIndex = revocationIndex;
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.tokenLifetime = Duration.ofMillis(expirationMs);
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+
+    /**
+     * Rebuilds the index from all unexpired revocations before the first request is served.
+     */
+    @PostConstruct
+    public void load() {
+        loadSince(Instant.EPOCH);
+    }
+
+    /**
+     * Revokes a single token until it expires.
+     *
+     * @param principal the verified token
+     * @throws IllegalArgumentException if the token has no <code>jti</code>
+     */
+    public void revokeToken(JwtPrincipal principal) {
+        if (principal.tokenId() == null) {
+            throw new IllegalArgumentException("Token has no ID and can only be revoked per user");
+        }
+        revocationIndex.revokeToken(principal.tokenId(), principal.expiresAt());
+        databaseConcurrencyLimiter.run(() -> tokenRevocationRepository.save(
+                TokenRevocation.ofToken(principal.tokenId(), principal.expiresAt(), Instant.now())));
+    }
+
+    /**
+     * Rejects every token issued to the given user up to now.
+     * <p>
+     * JWT {@code iat} values have second precision, so the cut-off is rounded up to the next
+     * second: every token issued in the current second is rejected too, including one issued
+     * just before this call. A login in that same second after the revocation has to be
+     * repeated.
+     * </p>
+     *
+     * @param subject the token subject (phone number) of the affected user
+     */
+    public void revokeTokensIssuedBeforeNow(String subject) {
+        Instant now = Instant.now();
+        Instant notBefore = now.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        revocationIndex.revokeSubject(subject, notBefore);
+        databaseConcurrencyLimiter.run(() -> tokenRevocationRepository.save(
+                TokenRevocation.ofSubject(subject, notBefore, notBefore.plus(tokenLifetime), now)));
+    }
+
+    /**
+     * Checks whether a verified token was revoked.
+     *
+     * @param principal the verified token
+     * @return {@code true} if the token must be rejected; {@code false} otherwise
+     */
+    public boolean isRevoked(JwtPrincipal principal) {
+        return revocationIndex.isRevoked(principal);
+    }
+
+    /**
+     * Loads revocations written since the last run (including by other instances), drops
+     * expired entries from the index and deletes expired rows.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:30s}",
+            initialDelayString = "${jwt.revocation.sync-interval:30s}")
+    public void sync() {
+        loadSince(syncedSince.minus(SYNC_OVERLAP));
+        Instant now = Instant.now();
+        revocationIndex.prune(now);
+        int deleted;
+        do {
+            deleted = databaseConcurrencyLimiter.call(() -> tokenRevocationRepository.deleteExpired(now, cleanupBatchSize));
+        } while (deleted == cleanupBatchSize);
+    }
+
+    private void loadSince(Instant since) {
+        Instant now = Instant.now();
+        List<TokenRevocation> revocations = databaseConcurrencyLimiter.call(() ->
+                tokenRevocationRepository.findByExpiresAtAfterAndCreatedAtGreaterThanEqual(now, since));
+        for (TokenRevocation revocation : revocations) {
+            if (revocation.getTokenId() != null) {
+                revocationIndex.revokeToken(revocation.getTokenId(), revocation.getExpiresAt());
+            } else {
+                revocationIndex.revokeSubject(revocation.getSubject(), revocation.getNotBefore());
+            }
+        }
+        syncedSince = now;
+    }
+}
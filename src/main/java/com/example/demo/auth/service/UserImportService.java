@@ -0,0 +1,157 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.concurrent.DatabaseConcurrencyLimiter;
+import com.example.demo.auth.dto.UserImportResultDto;
+import com.example.demo.auth.model.User;
+import com.example.demo.auth.repository.UpsertedUserView;
+import com.example.demo.auth.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service responsible for importing large lists of users (e.g. partner user lists).
+ * <p>
+ * Phone numbers are processed in chunks of <code>user.import.chunk-size</code>, one
+ * transaction per chunk:
+ * </p>
+ * <ol>
+ *     <li>Look up which phone numbers of the chunk already exist (one query).</li>
+ *     <li>Persist the remaining users. IDs come from the pooled <code>users_seq</code>
+ *     sequence, so Hibernate sends the <code>users</code> and <code>user_roles</code>
+ *     inserts in JDBC batches (<code>hibernate.jdbc.batch_size</code>).</li>
+ *     <li>Flush and clear the persistence context so memory stays bounded.</li>
+ * </ol>
+ *
+ * <p>
+ * If a chunk fails because a user was created concurrently (e.g. by a login),
+ * that chunk is retried row by row with the atomic upsert.
+ * </p>
+ *
+ * <p>
+ * Each chunk, including its fallback, holds one {@link DatabaseConcurrencyLimiter} permit,
+ * so an import takes a single connection's share of the pool at a time.
+ * </p>
+ */
+@Service
+public class UserImportService {
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final int chunkSize;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param userRepository     repository for user persistence operations
+     * @param entityManager      used to persist, flush and clear each chunk
+     * @param transactionManager         used to run each chunk in its own transaction
+     * @param databaseConcurrencyLimiter bounds concurrent database work to the pool size
+     * @param chunkSize                  number of phone numbers per transaction
+     */
+    public UserImportService(UserRepository userRepository,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                             @Value("${user.import.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates a user with the default role for every phone number that does not exist yet.
+     *
+     * @param phoneNumbers phone numbers to import; blank and duplicate entries are ignored
+     * @return how many users were requested, created and skipped
+     */
+    public UserImportResultDto importUsers(Collection<String> phoneNumbers) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String phoneNumber : phoneNumbers) {
+            if (phoneNumber != null && !phoneNumber.isBlank()) {
+                distinct.add(phoneNumber.trim());
+            }
+        }
+
+        int created = 0;
+        List<String> chunk = new ArrayList<>(chunkSize);
+        for (String phoneNumber : distinct) {
+            chunk.add(phoneNumber);
+            if (chunk.size() == chunkSize) {
+                created += databaseConcurrencyLimiter.call(() -> importChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += databaseConcurrencyLimiter.call(() -> importChunk(chunk));
+        }
+
+        return new UserImportResultDto(distinct.size(), created, distinct.size() - created);
+    }
+
+    /**
+     * Imports one chunk in a single transaction, falling back to row-by-row upserts
+     * if another transaction created one of its users in the meantime.
+     *
+     * @param chunk distinct phone numbers
+     * @return the number of users created
+     */
+    private int importChunk(List<String> chunk) {
+        try {
+            Integer created = transactionTemplate.execute(status -> {
+                Set<String> existing = userRepository.findExistingPhoneNumbers(chunk);
+                int count = 0;
+                for (String phoneNumber : chunk) {
+                    if (!existing.contains(phoneNumber)) {
+                        entityManager.persist(new User(phoneNumber, Set.of(UserService.DEFAULT_ROLE)));
+                        count++;
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return count;
+            });
+            return created != null ? created : 0;
+        } catch (DataAccessException | PersistenceException ex) {
+            return upsertChunk(chunk);
+        }
+    }
+
+    /**
+     * Slow path: creates the missing users of a chunk one at a time with the atomic upsert.
+     * <p>
+     * Only users the upsert actually inserted are counted; a user created concurrently
+     * between the existence check and the upsert counts as skipped.
+     * </p>
+     *
+     * @param chunk distinct phone numbers
+     * @return the number of users created by this import
+     */
+    private int upsertChunk(List<String> chunk) {
+        Set<String> existing = userRepository.findExistingPhoneNumbers(chunk);
+        int created = 0;
+        for (String phoneNumber : chunk) {
+            if (!existing.contains(phoneNumber)
+                    && userRepository.upsertByPhoneNumber(phoneNumber, UserService.DEFAULT_ROLE)
+                    .map(UpsertedUserView::isInserted)
+                    .orElse(false)) {
+                created++;
+            }
+        }
+        return created;
+    }
+}
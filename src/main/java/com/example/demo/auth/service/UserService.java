@@ -1,15 +1,26 @@
 package com.example.demo.auth.service;
 
+import com.example.demo.auth.cache.UserCache;
+import com.example.demo.auth.concurrent.DatabaseConcurrencyLimiter;
+import com.example.demo.auth.datasource.ReadYourWrites;
 import com.example.demo.auth.dto.UserDto;
+import com.example.demo.auth.dto.UserPageDto;
 import com.example.demo.auth.mapper.UserMapper;
 import com.example.demo.auth.model.User;
+import com.example.demo.auth.repository.UpsertedUserView;
 import com.example.demo.auth.repository.UserRepository;
+import com.example.demo.auth.repository.UserView;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Service responsible for user-related operations such as:
@@ -21,33 +32,65 @@ import java.util.stream.Collectors;
  * </ul>
  *
  * <p>This service acts as the domain layer for user management.</p>
+ *
+ * <p>Lookups by phone number go through {@link UserCache}, which is invalidated
+ * whenever a user is created or their roles change. Only cache misses wait for a
+ * {@link DatabaseConcurrencyLimiter} permit, in the cache loader, so cached lookups never
+ * queue behind database work. Every other database call of this service takes a permit
+ * too; the user stream holds its permit until the last user has been written.</p>
+ *
+ * <p>Read endpoints are served from {@link UserView} projections and never
+ * materialize {@link User} entities.</p>
+ *
+ * <p>Lookups may be served by a read replica. A user who was just created or changed is read
+ * from the primary for a short while ({@link ReadYourWrites}).</p>
  */
 @Service
 public class UserService {
 
+    /**
+     * Role assigned to every user created on first login.
+     */
+    static final String DEFAULT_ROLE = "ROLE_USER";
+
     private final UserRepository userRepository;
     private final UserMapper mapper;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final UserCache userCache;
+    private final ReadYourWrites readYourWrites;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final TransactionTemplate readOnlyTransaction;
 
     /**
      * Constructor-based dependency injection.
      *
-     * @param userRepository repository for user persistence operations
-     * @param mapper         mapper for converting between User and UserDto
+     * @param userRepository             repository for user persistence operations
+     * @param mapper                     mapper for converting between User and UserDto
+     * @param tokenRevocationService     revokes tokens issued before a user's roles changed
+     * @param refreshTokenService        revokes a user's refresh tokens
+     * @param userCache                  cache of resolved users keyed by phone number
+     * @param readYourWrites             sends reads of recently written users to the primary
+     * @param databaseConcurrencyLimiter bounds concurrent database work to the pool size
+     * @param transactionManager         runs the user stream in a read-only transaction
      */
-    public UserService(UserRepository userRepository, UserMapper mapper) {
+    public UserService(UserRepository userRepository,
+                       UserMapper mapper,
+                       TokenRevocationService tokenRevocationService,
+                       RefreshTokenService refreshTokenService,
+                       UserCache userCache,
+                       ReadYourWrites readYourWrites,
+                       DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                       PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.mapper = mapper;
-    }
-
-    /**
-     * Creates and persists a new user from a {@link UserDto}.
-     *
-     * @param userDto the user data to create
-     * @return the persisted User entity
-     */
-    private User createUser(UserDto userDto) {
-        User user = new User(userDto.getPhoneNumber(), userDto.getRoles());
-        return userRepository.save(user);
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.userCache = userCache;
+        this.readYourWrites = readYourWrites;
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     /**
@@ -57,8 +100,10 @@ public class UserService {
      * @return a UserDto if found, otherwise {@code null}
      */
     public UserDto getUser(String phoneNumber) {
-        User user = userRepository.findByPhoneNumber(phoneNumber).orElse(null);
-        return (user != null) ? mapper.toDTO(user) : null;
+        return userCache.getView(phoneNumber, key -> databaseConcurrencyLimiter.call(() ->
+                readYourWrites.read(key, () -> userRepository.findViewByPhoneNumber(key))
+                        .map(mapper::toDTO)
+                        .orElse(null)));
     }
 
     /**
@@ -68,7 +113,8 @@ public class UserService {
      * @return a User if found, otherwise {@code null}
      */
     public User findUserByPhoneNumber(String phoneNumber) {
-        return userRepository.findByPhoneNumber(phoneNumber).orElse(null);
+        return userCache.getPrincipal(phoneNumber, key -> databaseConcurrencyLimiter.call(() ->
+                readYourWrites.read(key, () -> userRepository.findByPhoneNumber(key)).orElse(null)));
     }
 
     /**
@@ -77,26 +123,115 @@ public class UserService {
      * New users are automatically assigned the role <code>ROLE_USER</code>.
      * </p>
      *
+     * <p>
+     * Cached users are returned without touching the database. Otherwise a single
+     * atomic upsert either inserts the user with its default role or returns the
+     * existing one, so concurrent first logins for the same phone number always
+     * resolve to the same user. Only when the user is new do its reads go to the primary
+     * for the sticky window, since the replicas may not have the row yet.
+     * </p>
+     *
      * @param phoneNumber the phone number associated with the user
      * @return the existing or newly created user
      */
     public User findOrCreateUserByPhoneNumber(String phoneNumber) {
-        Optional<User> userOptional = userRepository.findByPhoneNumber(phoneNumber);
+        return userCache.getOrCreatePrincipal(phoneNumber, key -> databaseConcurrencyLimiter.call(() -> {
+            Optional<UpsertedUserView> upserted = userRepository.upsertByPhoneNumber(key, DEFAULT_ROLE);
+            // no row: a concurrent login has just inserted the user, which is just as new
+            if (upserted.map(UpsertedUserView::isInserted).orElse(true)) {
+                readYourWrites.written(key);
+            }
+            return mapper.toEntity(upserted
+                    .<UserView>map(Function.identity())
+                    .or(() -> ReadYourWrites.onPrimary(() -> userRepository.findViewByPhoneNumber(key)))
+                    .orElseThrow(() -> new IllegalStateException("User could not be created: " + key)));
+        }));
+    }
 
-        return userOptional.orElseGet(
-                () -> createUser(new UserDto(phoneNumber, Set.of("ROLE_USER")))
-        );
+    /**
+     * Replaces the roles assigned to an existing user.
+     * <p>
+     * Tokens issued before the change still carry the old roles, so they are
+     * revoked and the user has to log in again to pick up the new ones.
+     * </p>
+     *
+     * @param phoneNumber the phone number of the user to update
+     * @param roles       the new set of roles
+     * @return the updated user, or {@code null} if no user exists with that phone number
+     */
+    public User updateRoles(String phoneNumber, Set<String> roles) {
+        User saved = databaseConcurrencyLimiter.call(() -> ReadYourWrites.onPrimary(() ->
+                        userRepository.findByPhoneNumber(phoneNumber))
+                .map(user -> {
+                    user.setRoles(new HashSet<>(roles));
+                    return userRepository.save(user);
+                })
+                .orElse(null));
+        if (saved == null) {
+            return null;
+        }
+        readYourWrites.written(phoneNumber);
+        userCache.invalidate(phoneNumber);
+        tokenRevocationService.revokeTokensIssuedBeforeNow(phoneNumber);
+        return saved;
     }
 
     /**
-     * Retrieves all users in the system and converts them to DTOs.
+     * Signs a user out everywhere: every access token issued so far is revoked and none of
+     * their refresh tokens can be used any more.
+     *
+     * @param phoneNumber the phone number of the user
+     * @return {@code false} if no user exists with that phone number
+     */
+    public boolean revokeTokens(String phoneNumber) {
+        User user = findUserByPhoneNumber(phoneNumber);
+        if (user == null) {
+            return false;
+        }
+        tokenRevocationService.revokeTokensIssuedBeforeNow(phoneNumber);
+        refreshTokenService.revokeAll(user);
+        return true;
+    }
+
+    /**
+     * Retrieves one page of users using keyset pagination on the user ID.
+     * <p>
+     * One user more than requested is read, so the last page already has a {@code null}
+     * cursor, even when it is full.
+     * </p>
+     *
+     * @param after the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the maximum number of users on the page
+     * @return the users on the page and the cursor for the next page
+     */
+    public UserPageDto getUsersPage(Long after, int limit) {
+        List<UserView> users = databaseConcurrencyLimiter.call(() ->
+                userRepository.findViewPage(after != null ? after : 0L, limit + 1));
+
+        Long nextCursor = null;
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            nextCursor = users.getLast().getId();
+        }
+        return new UserPageDto(users.stream().map(mapper::toDTO).toList(), nextCursor);
+    }
+
+    /**
+     * Passes every user, in ascending ID order, to the given consumer.
+     * <p>
+     * Users are read as projections through a forward-only database cursor, so
+     * nothing is retained in the persistence context and memory use does not grow
+     * with the number of users. The cursor keeps its connection until the consumer has
+     * seen every user, so the database permit is held for as long.
+     * </p>
      *
-     * @return a list of {@link UserDto} objects
+     * @param consumer receives each user as a {@link UserDto}
      */
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(mapper::toDTO)
-                .collect(Collectors.toList());
+    public void forEachUser(Consumer<UserDto> consumer) {
+        databaseConcurrencyLimiter.run(() -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<UserView> users = userRepository.streamAllViews()) {
+                users.forEach(user -> consumer.accept(mapper.toDTO(user)));
+            }
+        }));
     }
 }
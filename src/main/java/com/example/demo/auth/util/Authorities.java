@@ -0,0 +1,69 @@
+package com.example.demo.auth.util;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of interned {@link GrantedAuthority} instances.
+ * <p>
+ * Spring Security reads a principal's authorities several times per request (authentication
+ * filter, authorization manager, method security). Building a fresh set of
+ * {@link SimpleGrantedAuthority} objects on each call allocates for every request, although
+ * an application only ever has a handful of roles and role combinations. Instead:
+ * <ul>
+ *     <li>each role name maps to one shared {@link GrantedAuthority};</li>
+ *     <li>each distinct combination of roles maps to one shared, immutable authority set,
+ *     reused by every user and token principal with those roles.</li>
+ * </ul>
+ * Roles come only from the database or from tokens this application signed, so the number
+ * of entries stays small. As a safeguard, combinations beyond {@value #MAX_CACHED_ROLE_SETS}
+ * are built on each call instead of being cached.
+ * </p>
+ */
+public final class Authorities {
+
+    private static final int MAX_CACHED_ROLE_SETS = 1024;
+
+    private static final ConcurrentMap<String, GrantedAuthority> BY_ROLE = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Set<String>, Set<GrantedAuthority>> BY_ROLES = new ConcurrentHashMap<>();
+
+    private Authorities() {
+    }
+
+    /**
+     * @param role the role name, e.g. {@code ROLE_USER}
+     * @return the shared authority for the role
+     */
+    public static GrantedAuthority of(String role) {
+        GrantedAuthority authority = BY_ROLE.get(role);
+        return authority != null ? authority : BY_ROLE.computeIfAbsent(role, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * Returns the shared authority set for a combination of roles.
+     * <p>
+     * The lookup accepts any {@link Set} implementation (including Hibernate's persistent
+     * collections); a cache miss stores an immutable copy as the key.
+     * </p>
+     *
+     * @param roles the role names
+     * @return an immutable set of shared authorities
+     */
+    public static Set<GrantedAuthority> forRoles(Set<String> roles) {
+        Set<GrantedAuthority> authorities = BY_ROLES.get(roles);
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities = roles.stream().map(Authorities::of).collect(Collectors.toUnmodifiableSet());
+        if (BY_ROLES.size() < MAX_CACHED_ROLE_SETS) {
+            Set<GrantedAuthority> existing = BY_ROLES.putIfAbsent(Set.copyOf(roles), authorities);
+            return existing != null ? existing : authorities;
+        }
+        return authorities;
+    }
+}
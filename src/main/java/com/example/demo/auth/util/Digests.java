@@ -0,0 +1,56 @@
+package com.example.demo.auth.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Helpers for deriving fixed-size, non-reversible keys from secrets such as tokens.
+ * <p>
+ * Used wherever a secret value has to be looked up or stored without keeping
+ * the secret itself (e.g. as a cache key or a database column).
+ * </p>
+ */
+public final class Digests {
+
+    private static final MessageDigest SHA_256_PROTOTYPE;
+
+    static {
+        try {
+            SHA_256_PROTOTYPE = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private Digests() {
+    }
+
+    /**
+     * Computes the SHA-256 digest of the given value.
+     *
+     * @param value the value to hash (UTF-8 encoded)
+     * @return the URL-safe, unpadded Base64 encoding of the digest
+     */
+    public static String sha256(String value) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(newSha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Cloning a prototype avoids the provider lookup done by {@link MessageDigest#getInstance(String)}.
+     */
+    private static MessageDigest newSha256() {
+        try {
+            return (MessageDigest) SHA_256_PROTOTYPE.clone();
+        } catch (CloneNotSupportedException ex) {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+-- Migrates users.id from an IDENTITY column to the pooled users_seq sequence.
+--
+-- Required once for databases created by a version that used GenerationType.IDENTITY.
+-- Run it before starting the new version: otherwise Hibernate creates users_seq
+-- starting at 1 and new users collide with existing IDs.
+--
+-- The increment must match User.ID_ALLOCATION_SIZE (50).
+
+BEGIN;
+
+LOCK TABLE users IN EXCLUSIVE MODE;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+-- The next nextval() returns MAX(id) + 100, whose reserved block (MAX(id) + 50, MAX(id) + 100]
+-- lies entirely above every existing ID.
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users), true);
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+COMMIT;
@@ -0,0 +1,253 @@
+package com.example.demo.auth.adapter;
+
+import com.example.demo.auth.config.OutboundHttpProperties;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+import com.example.demo.auth.http.OutboundHttpClient;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies Firebase ID tokens locally against keys served by a local key server.
+ */
+class FirebaseIdTokenVerificationTest {
+
+    private static final String PROJECT_ID = "demo-project";
+
+    /**
+     * Self-signed certificate in the format of Google's <code>/robot/v1/metadata/x509</code> endpoint.
+     */
+    private static final String CERTIFICATE = """
+            -----BEGIN CERTIFICATE-----
+            MIIDCDCCAfCgAwIBAgIJAPPeVO90/zmOMA0GCSqGSIb3DQEBDAUAMDExLzAtBgNV
+            BAMTJnNlY3VyZXRva2VuLnN5c3RlbS5nc2VydmljZWFjY291bnQuY29tMCAXDTI2
+            MTAxODA5MjUzMFoYDzIxMjYwOTI0MDkyNTMwWjAxMS8wLQYDVQQDEyZzZWN1cmV0
+            b2tlbi5zeXN0ZW0uZ3NlcnZpY2VhY2NvdW50LmNvbTCCASIwDQYJKoZIhvcNAQEB
+            BQADggEPADCCAQoCggEBALM73F5/6BPdwC0t+Gz2q8+qy5XfFYrVyWsQ/XbqnLau
+            daT/BNGcCouyafe3Li1peWBl2myyaf/Yqm6lQcfmJMFr0/OLNFN7YfksxvcExJ6p
+            ELebtWeqtVepAf5BxpE1Y5gKAaLS3n/u4HCemjWP5h2PVJ+TWLmEATTbzZ1IvXcN
+            3i2IdHzmIYUKtbfG1iTOFtxrSIxo8XPM7QvvbJk/v7NOUD8NKkKbC5PIelr2df18
+            8L+KfHhxgNcf4ukMwcmghirCF0Zeqnjl926ztLpnzj3APAhIFAz5gYVukHnQEQns
+            0/2NunEcL/Fk4gMy1JBp3kuTeQCZOjGpabXEI4uY6CUCAwEAAaMhMB8wHQYDVR0O
+            BBYEFOV5hGq3pAx8Vt6K63zCR75WTxVzMA0GCSqGSIb3DQEBDAUAA4IBAQAA3zcE
+            Uq+lmGpjRVkkYnwlHg0PYbSCf8axOPfzxUN2nkJEaXUWiUEKqFlgq9Q7EolfKDbC
+            cZ5sHRDWz0bYF8hXm+Oi/runjFxnV8WjzqCvnjGtZqlugSS7OUJDcz6Ne0kMMYvN
+            Tp/FO+9PFpUmuvo9i4I13HvFtwlFk3h4AUUXg5tQvgMzO7ORCxS2tfGzrsIX4jL9
+            0883c0k/LOG3TETu9qkxIFqW9emQrx1cMSRE/kAGtCjAVKFgWeQML/xX3oXWe19s
+            RgenFjG/f2W40fnoemLCIknja52zK3vM7ixFKQpDEeWv9YCsB9Q5eRijM2cWspOS
+            dw9CwKbive2qOqe8
+            -----END CERTIFICATE-----
+            """;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final Map<String, KeyPair> publishedKeys = new LinkedHashMap<>();
+    private final AtomicInteger keyRequests = new AtomicInteger();
+    private volatile int keyServerStatus = 200;
+    private volatile long maxAgeSeconds = 3600;
+    private volatile CountDownLatch keyServerGate = new CountDownLatch(0);
+
+    private HttpServer server;
+    private OutboundHttpClient httpClient;
+    private FirebaseOtpProviderAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        publishedKeys.put("key-1", newKeyPair());
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/keys", exchange -> {
+            keyRequests.incrementAndGet();
+            try {
+                keyServerGate.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = keyServerStatus == 200 ? jwks().getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=" + maxAgeSeconds + ", must-revalidate");
+            exchange.sendResponseHeaders(keyServerStatus, bytes.length > 0 ? bytes.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/x509", exchange -> {
+            byte[] bytes = jsonMapper.writeValueAsString(Map.of("cert-1", CERTIFICATE)).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        httpClient = new OutboundHttpClient(new OutboundHttpProperties());
+        adapter = new FirebaseOtpProviderAdapter(httpClient, jsonMapper, "http://127.0.0.1:1", "",
+                PROJECT_ID, keysUrl(), Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        adapter.destroy();
+        httpClient.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void validIdTokenVerifiesWithoutARemoteCallPerLogin() {
+        for (int i = 0; i < 10; i++) {
+            ProviderVerifyResult result = adapter.verify(idToken("key-1", PROJECT_ID, 3600), null);
+
+            assertTrue(result.isSuccess());
+            assertEquals("firebase-uid", result.getUserId());
+            assertEquals("+919871188869", result.getPhoneNumber());
+        }
+        assertEquals(1, keyRequests.get());
+    }
+
+    @Test
+    void invalidIdTokensAreRejected() {
+        assertFalse(adapter.verify(idToken("key-1", "other-project", 3600), null).isSuccess(), "wrong audience");
+        assertFalse(adapter.verify(idToken("key-1", PROJECT_ID, -3600), null).isSuccess(), "expired");
+        assertFalse(adapter.verify(idToken("key-1", PROJECT_ID, 3600) + "x", null).isSuccess(), "bad signature");
+        assertFalse(adapter.verify("not-a-jwt", null).isSuccess(), "malformed");
+    }
+
+    @Test
+    void unknownKeyIdTriggersARefresh() {
+        assertTrue(adapter.verify(idToken("key-1", PROJECT_ID, 3600), null).isSuccess());
+
+        publishedKeys.put("key-2", newKeyPair());
+
+        assertTrue(adapter.verify(idToken("key-2", PROJECT_ID, 3600), null).isSuccess());
+        assertEquals(2, keyRequests.get());
+    }
+
+    @Test
+    void staleKeysAreServedWhileRefreshFails() throws InterruptedException {
+        maxAgeSeconds = 1;
+        assertTrue(adapter.verify(idToken("key-1", PROJECT_ID, 3600), null).isSuccess());
+
+        keyServerStatus = 500;
+        Thread.sleep(1_500);
+
+        assertTrue(keyRequests.get() >= 2, "the background refresh should have run");
+        assertTrue(adapter.verify(idToken("key-1", PROJECT_ID, 3600), null).isSuccess());
+    }
+
+    @Test
+    void missingKeysMakeTheProviderUnavailable() {
+        keyServerStatus = 503;
+
+        assertThrows(IllegalStateException.class, () -> adapter.verify(idToken("key-1", PROJECT_ID, 3600), null));
+    }
+
+    @Test
+    void cacheReadsX509CertificateMaps() {
+        URI x509Url = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/x509");
+        try (RemotePublicKeyCache cache = new RemotePublicKeyCache(httpClient, jsonMapper, x509Url, Duration.ZERO)) {
+            assertEquals("RSA", cache.get("cert-1").orElseThrow().getAlgorithm());
+            assertTrue(cache.get("missing").isEmpty());
+            assertEquals(1, cache.size());
+        }
+    }
+
+    @Test
+    void concurrentLookupsShareOneRefresh() throws InterruptedException {
+        int lookups = 8;
+        keyServerGate = new CountDownLatch(1);
+        AtomicInteger found = new AtomicInteger();
+        try (RemotePublicKeyCache cache = new RemotePublicKeyCache(httpClient, jsonMapper, URI.create(keysUrl()), Duration.ZERO)) {
+            List<Thread> threads = new ArrayList<>();
+            try {
+                for (int i = 0; i < lookups; i++) {
+                    threads.add(Thread.ofPlatform().daemon(true)
+                            .start(() -> cache.get("key-1").ifPresent(key -> found.incrementAndGet())));
+                }
+                // one lookup is downloading, the others wait for its result rather than for a lock
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (threads.stream().filter(thread -> thread.getState() == Thread.State.WAITING
+                        || thread.getState() == Thread.State.TIMED_WAITING).count() < lookups) {
+                    assertTrue(System.nanoTime() < deadline, "lookups did not all wait for the running refresh");
+                    Thread.sleep(10);
+                }
+            } finally {
+                keyServerGate.countDown();
+            }
+            for (Thread thread : threads) {
+                thread.join(5_000);
+            }
+        }
+
+        assertEquals(lookups, found.get());
+        assertEquals(1, keyRequests.get());
+    }
+
+    private String keysUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/keys";
+    }
+
+    private String idToken(String keyId, String audience, long expiresInSeconds) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setHeaderParam("kid", keyId)
+                .setIssuer(FirebaseOtpProviderAdapter.ISSUER_PREFIX + PROJECT_ID)
+                .setAudience(audience)
+                .setSubject("firebase-uid")
+                .setIssuedAt(new Date(now - 60_000))
+                .setExpiration(new Date(now + expiresInSeconds * 1000))
+                .claim("auth_time", now / 1000 - 60)
+                .claim("phone_number", "+919871188869")
+                .signWith(publishedKeys.get(keyId).getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    private String jwks() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        List<Map<String, String>> keys = publishedKeys.entrySet().stream()
+                .map(entry -> {
+                    RSAPublicKey key = (RSAPublicKey) entry.getValue().getPublic();
+                    return Map.of(
+                            "kid", entry.getKey(),
+                            "kty", "RSA",
+                            "alg", "RS256",
+                            "n", encoder.encodeToString(key.getModulus().toByteArray()),
+                            "e", encoder.encodeToString(key.getPublicExponent().toByteArray()));
+                })
+                .toList();
+        return jsonMapper.writeValueAsString(Map.of("keys", keys));
+    }
+
+    private static KeyPair newKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
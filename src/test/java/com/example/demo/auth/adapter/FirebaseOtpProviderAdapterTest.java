@@ -0,0 +1,119 @@
+package com.example.demo.auth.adapter;
+
+import com.example.demo.auth.config.OutboundHttpProperties;
+import com.example.demo.auth.dto.OutboundHostStatsDto;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+import com.example.demo.auth.http.OutboundHttpClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the adapter against a local stub of the Identity Toolkit API.
+ */
+class FirebaseOtpProviderAdapterTest {
+
+    private HttpServer server;
+    private OutboundHttpClient httpClient;
+    private FirebaseOtpProviderAdapter adapter;
+
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/accounts:lookup", exchange -> {
+            queries.add(exchange.getRequestURI().getQuery());
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+            if (body.contains("slow-token")) {
+                try {
+                    Thread.sleep(2_000);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.close();
+                return;
+            }
+
+            int status = body.contains("valid-token") ? 200 : 400;
+            String response = status == 200
+                    ? "{\"users\":[{\"localId\":\"firebase-uid\",\"phoneNumber\":\"+919871188869\"}]}"
+                    : "{\"error\":{\"code\":400,\"message\":\"INVALID_ID_TOKEN\"}}";
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        OutboundHttpProperties properties = new OutboundHttpProperties();
+        properties.setReadTimeout(Duration.ofSeconds(10));
+        httpClient = new OutboundHttpClient(properties);
+        adapter = new FirebaseOtpProviderAdapter(httpClient, JsonMapper.builder().build(),
+                "http://127.0.0.1:" + server.getAddress().getPort(), "api-key", "", "http://127.0.0.1:1/keys", Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void validIdTokenVerifies() {
+        ProviderVerifyResult result = adapter.verify("valid-token", null);
+
+        assertTrue(result.isSuccess());
+        assertEquals("firebase-uid", result.getUserId());
+        assertEquals("+919871188869", result.getPhoneNumber());
+        assertEquals("key=api-key", queries.getFirst());
+    }
+
+    @Test
+    void invalidIdTokenIsRejected() {
+        ProviderVerifyResult result = adapter.verifyAsync("expired-token", null, Runnable::run).join();
+
+        assertFalse(result.isSuccess());
+    }
+
+    @Test
+    void cancellingAnAsyncVerificationAbortsTheExchange() throws InterruptedException {
+        CompletableFuture<ProviderVerifyResult> result = adapter.verifyAsync("slow-token", null, Runnable::run);
+        while (queries.isEmpty()) {
+            Thread.sleep(10);
+        }
+
+        result.cancel(true);
+
+        OutboundHostStatsDto stats = httpClient.hostStats().getFirst();
+        assertEquals(0, stats.getActiveRequests());
+        assertEquals(1, stats.getFailedRequests());
+    }
+
+    @Test
+    void unconfiguredAdapterFallsBackToMock() {
+        FirebaseOtpProviderAdapter mock = new FirebaseOtpProviderAdapter(httpClient, JsonMapper.builder().build(),
+                "http://127.0.0.1:1", "", "", "http://127.0.0.1:1/keys", Duration.ZERO);
+
+        assertTrue(mock.verify("anything", null).isSuccess());
+        assertTrue(queries.isEmpty());
+    }
+}
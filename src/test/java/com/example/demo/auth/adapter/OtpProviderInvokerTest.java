@@ -0,0 +1,140 @@
+package com.example.demo.auth.adapter;
+
+import com.example.demo.auth.concurrent.OtpProviderExecutor;
+import com.example.demo.auth.config.OtpProviderProperties;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtpProviderInvokerTest {
+
+    private final OtpProviderExecutor executor = new OtpProviderExecutor(true, 4, 10);
+    private final OtpProviderProperties properties = new OtpProviderProperties();
+    private final OtpProviderInvoker invoker = new OtpProviderInvoker(properties, executor);
+
+    @AfterEach
+    void tearDown() {
+        invoker.destroy();
+        executor.destroy();
+    }
+
+    @Test
+    void slowProviderTimesOut() {
+        configure("STUB", Duration.ofMillis(100), false, null);
+        StubAdapter adapter = new StubAdapter(false, 2_000, 2_000);
+
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> invoker.invoke(adapter, "token", null).join());
+
+        assertInstanceOf(TimeoutException.class, ex.getCause());
+    }
+
+    @Test
+    void timedOutCallIsInterrupted() throws InterruptedException {
+        configure("STUB", Duration.ofMillis(100), false, null);
+        OtpProviderExecutor platformExecutor = new OtpProviderExecutor(false, 1, 10);
+        OtpProviderInvoker platformInvoker = new OtpProviderInvoker(properties, platformExecutor);
+        try {
+            StubAdapter adapter = new StubAdapter(false, 10_000, 0);
+
+            assertThrows(CompletionException.class, () -> platformInvoker.invoke(adapter, "token", null).join());
+
+            assertTrue(adapter.interrupted.await(5, TimeUnit.SECONDS));
+            // the single pool thread is free again for the next call
+            assertTrue(platformInvoker.invoke(adapter, "token", null).join().isSuccess());
+        } finally {
+            platformInvoker.destroy();
+            platformExecutor.destroy();
+        }
+    }
+
+    @Test
+    void idempotentProviderIsHedgedWhenFirstAttemptIsSlow() {
+        configure("STUB", Duration.ofSeconds(1), true, Duration.ofMillis(50));
+        StubAdapter adapter = new StubAdapter(true, 2_000, 0);
+
+        ProviderVerifyResult result = invoker.invoke(adapter, "token", null).join();
+
+        assertTrue(result.isSuccess());
+        assertEquals(2, adapter.calls.get());
+    }
+
+    @Test
+    void nonIdempotentProviderIsNeverHedged() {
+        configure("STUB", Duration.ofMillis(300), true, Duration.ofMillis(50));
+        StubAdapter adapter = new StubAdapter(false, 2_000, 0);
+
+        assertThrows(CompletionException.class, () -> invoker.invoke(adapter, "token", null).join());
+        assertEquals(1, adapter.calls.get());
+    }
+
+    @Test
+    void fastProviderIsNotHedged() throws InterruptedException {
+        configure("STUB", Duration.ofSeconds(1), true, Duration.ofMillis(200));
+        StubAdapter adapter = new StubAdapter(true, 0, 0);
+
+        assertTrue(invoker.invoke(adapter, "token", null).join().isSuccess());
+        Thread.sleep(300);
+
+        assertEquals(1, adapter.calls.get());
+        assertNotNull(invoker.observedLatency("STUB", 0.95));
+    }
+
+    private void configure(String key, Duration timeout, boolean hedge, Duration hedgeDelay) {
+        OtpProviderProperties.Provider settings = new OtpProviderProperties.Provider();
+        settings.setTimeout(timeout);
+        settings.setHedge(hedge);
+        settings.setHedgeDelay(hedgeDelay);
+        properties.getProviders().put(key, settings);
+    }
+
+    /**
+     * Provider stub whose first call takes {@code firstLatencyMs} and later calls {@code laterLatencyMs}.
+     */
+    private static class StubAdapter implements OtpProviderAdapter {
+
+        private final boolean idempotent;
+        private final long firstLatencyMs;
+        private final long laterLatencyMs;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        StubAdapter(boolean idempotent, long firstLatencyMs, long laterLatencyMs) {
+            this.idempotent = idempotent;
+            this.firstLatencyMs = firstLatencyMs;
+            this.laterLatencyMs = laterLatencyMs;
+        }
+
+        @Override
+        public ProviderVerifyResult verify(String providerToken, Map<String, Object> meta) {
+            int call = calls.incrementAndGet();
+            try {
+                Thread.sleep(call == 1 ? firstLatencyMs : laterLatencyMs);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return new ProviderVerifyResult(true, "uid", "9876543210", null);
+        }
+
+        @Override
+        public boolean supportsIdempotentVerification() {
+            return idempotent;
+        }
+
+        @Override
+        public String providerKey() {
+            return "STUB";
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.auth.adapter;
+
+import com.example.demo.auth.concurrent.OtpProviderExecutor;
+import com.example.demo.auth.config.OtpProviderProperties;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+import com.example.demo.auth.metrics.AuthMetrics;
+import com.example.demo.auth.ratelimit.OtpRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtpProviderRouterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final OtpProviderRouter router = new OtpProviderRouter(Duration.ofSeconds(10), now::get);
+
+    private final OtpProviderExecutor executor = new OtpProviderExecutor(true, 4, 10);
+    private final OtpProviderProperties properties = new OtpProviderProperties();
+    private final OtpProviderInvoker invoker = new OtpProviderInvoker(properties, executor);
+
+    @AfterEach
+    void tearDown() {
+        invoker.destroy();
+        executor.destroy();
+    }
+
+    @Test
+    void slowSampleRaisesLatencyImmediately() {
+        observe("A", 10, true);
+        observe("A", 500, true);
+
+        assertEquals(500_000_000, router.snapshot("A").latencyNanos(), 1_000_000);
+    }
+
+    @Test
+    void ranksByLatencyErrorsAndLoad() {
+        observe("FAST", 10, true);
+        observe("SLOW", 100, true);
+        assertEquals(List.of("FAST", "SLOW"), router.rank(List.of("SLOW", "FAST")));
+
+        observe("FAST", 10, false);
+        observe("FAST", 10, false);
+        assertTrue(router.snapshot("FAST").errorRate() > 0);
+
+        router.start("FAST");
+        router.start("FAST");
+        router.start("FAST");
+        assertTrue(router.snapshot("FAST").cost() > router.snapshot("FAST").latencyNanos());
+    }
+
+    @Test
+    void idleProviderBecomesAttractiveAgain() {
+        observe("A", 500, true);
+        observe("B", 50, true);
+        assertEquals("B", router.rank(List.of("A", "B")).getFirst());
+
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+        observe("B", 50, true);
+
+        assertEquals("A", router.rank(List.of("A", "B")).getFirst());
+    }
+
+    @Test
+    void routesVerificationsToTheFasterAdapter() {
+        TimedAdapter fast = new TimedAdapter("FAST", 5);
+        TimedAdapter slow = new TimedAdapter("SLOW", 80);
+        ResilientOtpProviderRegistry registry = new ResilientOtpProviderRegistry(
+                Map.of("FAST", fast, "SLOW", slow), invoker, new OtpProviderRouter(Duration.ofSeconds(10)), properties,
+                OtpRateLimiter.disabled(), AuthMetrics.noop());
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(registry.verifyRouted(List.of(), "token", null).isSuccess());
+        }
+
+        assertEquals(1, slow.calls.get(), "the slow adapter is only sampled once");
+        assertEquals(19, fast.calls.get());
+    }
+
+    private void observe(String key, long latencyMs, boolean success) {
+        long start = router.start(key);
+        now.addAndGet(Duration.ofMillis(latencyMs).toNanos());
+        router.complete(key, start, success);
+    }
+
+    /**
+     * Adapter stub with a fixed, controllable latency.
+     */
+    private static class TimedAdapter implements OtpProviderAdapter {
+
+        private final String key;
+        private final long latencyMs;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        TimedAdapter(String key, long latencyMs) {
+            this.key = key;
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public ProviderVerifyResult verify(String providerToken, Map<String, Object> meta) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return new ProviderVerifyResult(true, "uid", "9876543210", null);
+        }
+
+        @Override
+        public String providerKey() {
+            return key;
+        }
+    }
+}
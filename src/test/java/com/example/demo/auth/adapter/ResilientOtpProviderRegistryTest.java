@@ -0,0 +1,193 @@
+package com.example.demo.auth.adapter;
+
+import com.example.demo.auth.concurrent.OtpProviderExecutor;
+import com.example.demo.auth.config.OtpProviderProperties;
+import com.example.demo.auth.config.RateLimitProperties;
+import com.example.demo.auth.dto.ProviderStatsDto;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+import com.example.demo.auth.exception.OtpProviderUnavailableException;
+import com.example.demo.auth.exception.RateLimitExceededException;
+import com.example.demo.auth.metrics.AuthMetrics;
+import com.example.demo.auth.ratelimit.InMemoryRateLimitStore;
+import com.example.demo.auth.ratelimit.OtpRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientOtpProviderRegistryTest {
+
+    private final OtpProviderExecutor executor = new OtpProviderExecutor(true, 4, 10);
+    private final OtpProviderProperties properties = new OtpProviderProperties();
+    private final OtpProviderInvoker invoker = new OtpProviderInvoker(properties, executor);
+    private final RateLimitProperties rateLimits = new RateLimitProperties();
+
+    @AfterEach
+    void tearDown() {
+        invoker.destroy();
+        executor.destroy();
+    }
+
+    @Test
+    void failingProviderOpensItsCircuitWithoutAffectingOthers() {
+        OtpProviderProperties.Provider settings = new OtpProviderProperties.Provider();
+        settings.getCircuitBreaker().setMinimumCalls(2);
+        properties.getProviders().put("BROKEN", settings);
+        StubAdapter broken = new StubAdapter("BROKEN", true);
+        StubAdapter healthy = new StubAdapter("HEALTHY", false);
+        ResilientOtpProviderRegistry registry = registry(broken, healthy);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(OtpProviderUnavailableException.class, () -> registry.verify("BROKEN", "token", null));
+        }
+        OtpProviderUnavailableException rejected =
+                assertThrows(OtpProviderUnavailableException.class, () -> registry.verify("BROKEN", "token", null));
+
+        assertEquals("BROKEN", rejected.getProviderKey());
+        assertEquals(2, broken.calls.get(), "an open circuit must not call the provider");
+        assertTrue(registry.verify("HEALTHY", "token", null).isSuccess());
+        assertEquals("OPEN", stats(registry, "BROKEN").getCircuitState());
+        assertEquals("CLOSED", stats(registry, "HEALTHY").getCircuitState());
+    }
+
+    @Test
+    void unavailableProviderFallsBack() {
+        OtpProviderProperties.Provider settings = new OtpProviderProperties.Provider();
+        settings.setFallback("HEALTHY");
+        properties.getProviders().put("BROKEN", settings);
+        ResilientOtpProviderRegistry registry =
+                registry(new StubAdapter("BROKEN", true), new StubAdapter("HEALTHY", false));
+
+        ProviderVerifyResult result = registry.verify("BROKEN", "token", null);
+
+        assertTrue(result.isSuccess());
+        assertEquals(1, stats(registry, "BROKEN").getFallbackCalls());
+    }
+
+    @Test
+    void fullBulkheadRejectsImmediately() throws InterruptedException {
+        OtpProviderProperties.Provider settings = new OtpProviderProperties.Provider();
+        settings.setMaxConcurrentCalls(1);
+        properties.getProviders().put("BLOCKING", settings);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ResilientOtpProviderRegistry registry = registry(new StubAdapter("BLOCKING", false) {
+            @Override
+            public ProviderVerifyResult verify(String providerToken, Map<String, Object> meta) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.verify(providerToken, meta);
+            }
+        });
+
+        Thread first = Thread.ofVirtual().start(() -> registry.verify("BLOCKING", "token", null));
+        started.await();
+
+        assertThrows(OtpProviderUnavailableException.class, () -> registry.verify("BLOCKING", "token", null));
+        assertEquals(1, stats(registry, "BLOCKING").getBulkheadRejectedCalls());
+
+        release.countDown();
+        first.join();
+        assertEquals(0, stats(registry, "BLOCKING").getActiveCalls());
+    }
+
+    @Test
+    void routedCallsAreChargedToTheProviderCalled() {
+        rateLimits.setProvider(new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+        StubAdapter twilio = new StubAdapter("TWILIO", false);
+        ResilientOtpProviderRegistry registry = registry(twilio, new StubAdapter("FIREBASE", false));
+
+        assertTrue(registry.verifyRouted(List.of("TWILIO"), "token", null).isSuccess());
+
+        RateLimitExceededException routed = assertThrows(RateLimitExceededException.class,
+                () -> registry.verifyRouted(List.of("TWILIO"), "token", null));
+        assertEquals("provider", routed.getLimit());
+        assertThrows(RateLimitExceededException.class, () -> registry.verify("TWILIO", "token", null));
+        assertEquals(1, twilio.calls.get());
+        assertTrue(registry.verify("FIREBASE", "token", null).isSuccess());
+    }
+
+    @Test
+    void routedRequestsMoveOnFromAProviderAtItsLimit() {
+        rateLimits.setProvider(new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+        StubAdapter twilio = new StubAdapter("TWILIO", false);
+        StubAdapter firebase = new StubAdapter("FIREBASE", false);
+        ResilientOtpProviderRegistry registry = registry(twilio, firebase);
+
+        assertTrue(registry.verifyRouted(List.of(), "token", null).isSuccess());
+        assertTrue(registry.verifyRouted(List.of(), "token", null).isSuccess());
+
+        assertEquals(1, twilio.calls.get());
+        assertEquals(1, firebase.calls.get());
+        assertThrows(RateLimitExceededException.class, () -> registry.verifyRouted(List.of(), "token", null));
+    }
+
+    @Test
+    void fallbackCallsAreChargedToTheFallbackProvider() {
+        rateLimits.setProvider(new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+        OtpProviderProperties.Provider settings = new OtpProviderProperties.Provider();
+        settings.setFallback("HEALTHY");
+        properties.getProviders().put("BROKEN", settings);
+        ResilientOtpProviderRegistry registry =
+                registry(new StubAdapter("BROKEN", true), new StubAdapter("HEALTHY", false));
+
+        assertTrue(registry.verify("BROKEN", "token", null).isSuccess());
+
+        assertThrows(RateLimitExceededException.class, () -> registry.verify("HEALTHY", "token", null));
+    }
+
+    private ResilientOtpProviderRegistry registry(OtpProviderAdapter... adapters) {
+        Map<String, OtpProviderAdapter> map = new HashMap<>();
+        for (OtpProviderAdapter adapter : adapters) {
+            map.put(adapter.providerKey(), adapter);
+        }
+        OtpRateLimiter otpRateLimiter = new OtpRateLimiter(
+                new InMemoryRateLimitStore(rateLimits.getMaximumKeys(), rateLimits.getIdleTimeout()), rateLimits);
+        return new ResilientOtpProviderRegistry(map, invoker, new OtpProviderRouter(Duration.ofSeconds(10)), properties,
+                otpRateLimiter, AuthMetrics.noop());
+    }
+
+    private static ProviderStatsDto stats(ResilientOtpProviderRegistry registry, String providerKey) {
+        return registry.stats().stream()
+                .filter(stats -> stats.getProviderKey().equals(providerKey))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static class StubAdapter implements OtpProviderAdapter {
+
+        private final String key;
+        private final boolean failing;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        StubAdapter(String key, boolean failing) {
+            this.key = key;
+            this.failing = failing;
+        }
+
+        @Override
+        public ProviderVerifyResult verify(String providerToken, Map<String, Object> meta) {
+            calls.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("provider down");
+            }
+            return new ProviderVerifyResult(true, "uid", "9876543210", null);
+        }
+
+        @Override
+        public String providerKey() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.auth.adapter;
+
+import com.example.demo.auth.config.OutboundHttpProperties;
+import com.example.demo.auth.dto.OutboundHostStatsDto;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+import com.example.demo.auth.http.OutboundHttpClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the adapter against a local stub of the Twilio Verify API.
+ */
+class TwilioOtpProviderAdapterTest {
+
+    private static final String PHONE = "+15017122661";
+
+    private HttpServer server;
+    private OutboundHttpClient httpClient;
+    private TwilioOtpProviderAdapter adapter;
+
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v2/Services/VA123/VerificationCheck", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            requestBodies.add(body);
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+
+            int status;
+            String response;
+            if (body.contains("Code=123456")) {
+                status = 200;
+                response = "{\"sid\":\"VE1\",\"to\":\"" + PHONE + "\",\"status\":\"approved\",\"valid\":true}";
+            } else if (body.contains("Code=000000")) {
+                status = 503;
+                response = "{}";
+            } else {
+                status = 404;
+                response = "{\"code\":20404,\"message\":\"The requested resource was not found\"}";
+            }
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        httpClient = new OutboundHttpClient(new OutboundHttpProperties());
+        adapter = new TwilioOtpProviderAdapter(httpClient, JsonMapper.builder().build(),
+                "http://127.0.0.1:" + server.getAddress().getPort(), "AC123", "secret", "VA123");
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void approvedCodeVerifies() {
+        ProviderVerifyResult result = adapter.verify("123456", Map.of("phoneNumber", PHONE));
+
+        assertTrue(result.isSuccess());
+        assertEquals(PHONE, result.getPhoneNumber());
+        assertEquals("To=%2B15017122661&Code=123456", requestBodies.getFirst());
+        assertEquals("Basic QUMxMjM6c2VjcmV0", authorizations.getFirst());
+    }
+
+    @Test
+    void unknownCodeIsRejected() {
+        ProviderVerifyResult result = adapter.verifyAsync("999999", Map.of("phoneNumber", PHONE), Runnable::run).join();
+
+        assertFalse(result.isSuccess());
+        assertNull(result.getPhoneNumber());
+    }
+
+    @Test
+    void serverErrorFailsTheCall() {
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> adapter.verifyAsync("000000", Map.of("phoneNumber", PHONE), Runnable::run).join());
+
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    @Test
+    void missingPhoneNumberIsRejectedWithoutCallingTwilio() {
+        assertFalse(adapter.verify("123456", null).isSuccess());
+        assertTrue(requestBodies.isEmpty());
+    }
+
+    @Test
+    void connectionsAreReusedAcrossVerifications() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(adapter.verifyAsync("123456", Map.of("phoneNumber", PHONE), Runnable::run).join().isSuccess());
+        }
+
+        assertEquals(1, clientPorts.size(), "all requests should share one keep-alive connection");
+        OutboundHostStatsDto stats = httpClient.hostStats().getFirst();
+        assertEquals(5, stats.getRequests());
+        assertEquals(0, stats.getActiveRequests());
+        assertEquals(0, stats.getFailedRequests());
+    }
+
+    @Test
+    void unconfiguredAdapterFallsBackToMock() {
+        TwilioOtpProviderAdapter mock = new TwilioOtpProviderAdapter(httpClient, JsonMapper.builder().build(),
+                "http://127.0.0.1:1", "", "", "");
+
+        assertTrue(mock.verify("anything", null).isSuccess());
+        assertTrue(requestBodies.isEmpty());
+    }
+}
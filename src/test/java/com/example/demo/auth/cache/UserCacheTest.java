@@ -0,0 +1,273 @@
+package com.example.demo.auth.cache;
+
+import com.example.demo.auth.dto.UserDto;
+import com.example.demo.auth.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link UserCache} with a manual clock and same-thread evictions, so expiry and size eviction
+ * happen exactly when the test says so.
+ */
+class UserCacheTest {
+
+    private static final String PHONE_NUMBER = "+15550001";
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofMinutes(2);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final UserCache cache = cache(100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void cachedUsersAreReturnedWithoutLoadingAndCounted() {
+        User first = cache.getPrincipal(PHONE_NUMBER, this::load);
+        User second = cache.getPrincipal(PHONE_NUMBER, this::load);
+        cache.getView(PHONE_NUMBER, this::loadView);
+
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.principalStats().hitCount());
+        assertEquals(1, cache.principalStats().missCount());
+        assertEquals(0, cache.viewStats().hitCount());
+        assertEquals(1, cache.viewStats().missCount());
+    }
+
+    @Test
+    void usersExpireAfterTheirLastAccess() {
+        cache.getPrincipal(PHONE_NUMBER, this::load);
+        advance(EXPIRE_AFTER_ACCESS.minusSeconds(1));
+        cache.getPrincipal(PHONE_NUMBER, this::load);
+        advance(EXPIRE_AFTER_ACCESS.minusSeconds(1));
+        cache.getPrincipal(PHONE_NUMBER, this::load);
+        assertEquals(1, loads.get());
+
+        advance(EXPIRE_AFTER_ACCESS);
+        cache.getPrincipal(PHONE_NUMBER, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void usersInUseExpireAfterWrite() {
+        cache.getPrincipal(PHONE_NUMBER, this::load);
+        for (Duration age = Duration.ZERO; age.compareTo(EXPIRE_AFTER_WRITE) < 0; age = age.plusMinutes(1)) {
+            cache.getPrincipal(PHONE_NUMBER, this::load);
+            advance(Duration.ofMinutes(1));
+        }
+
+        cache.getPrincipal(PHONE_NUMBER, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void leastUsedUsersAreEvictedBeyondTheMaximumSize() {
+        UserCache small = cache(2);
+        for (int i = 0; i < 3; i++) {
+            small.getPrincipal(PHONE_NUMBER + i, this::load);
+        }
+
+        assertEquals(1, small.principalStats().evictionCount());
+        for (int i = 0; i < 3; i++) {
+            small.getPrincipal(PHONE_NUMBER + i, this::load);
+        }
+        assertTrue(loads.get() > 3, "an evicted user is loaded again");
+    }
+
+    @Test
+    void unknownUsersAreNotCached() {
+        assertNull(cache.getPrincipal(PHONE_NUMBER, key -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.getView(PHONE_NUMBER, key -> null));
+
+        assertEquals(PHONE_NUMBER, cache.getPrincipal(PHONE_NUMBER, this::load).getPhoneNumber());
+        assertEquals(PHONE_NUMBER, cache.getView(PHONE_NUMBER, this::loadView).getPhoneNumber());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void invalidationRemovesBothViews() {
+        cache.getPrincipal(PHONE_NUMBER, this::load);
+        cache.getView(PHONE_NUMBER, this::loadView);
+
+        cache.invalidate(PHONE_NUMBER);
+        cache.getPrincipal(PHONE_NUMBER, this::load);
+        cache.getView(PHONE_NUMBER, this::loadView);
+
+        assertEquals(4, loads.get());
+    }
+
+    /**
+     * The loader has read the user when its roles change: the caller still gets what was read,
+     * but it is not cached, so the next lookup reads the new roles.
+     */
+    @Test
+    void userInvalidatedWhileLoadingIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<User> stale = executor.submit(() -> cache.getPrincipal(PHONE_NUMBER, key -> {
+                User user = load(key);
+                loading.countDown();
+                await(release);
+                return user;
+            }));
+            await(loading);
+            cache.invalidate(PHONE_NUMBER);
+            release.countDown();
+
+            User read = stale.get(5, TimeUnit.SECONDS);
+            User next = cache.getPrincipal(PHONE_NUMBER, this::load);
+
+            assertNotSame(read, next);
+            assertEquals(2, loads.get());
+            assertSame(next, cache.getPrincipal(PHONE_NUMBER, this::load));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentLookupsOfOneUserShareOneLoad() throws Exception {
+        int lookups = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(lookups);
+        try {
+            List<Future<User>> results = new ArrayList<>();
+            for (int i = 0; i < lookups; i++) {
+                results.add(executor.submit(() -> cache.getPrincipal(PHONE_NUMBER, key -> {
+                    await(release);
+                    return load(key);
+                })));
+            }
+            // all lookups are either waiting on the first load or about to join it
+            while (cache.principalStats().hitCount() < lookups - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            User loaded = results.getFirst().get(5, TimeUnit.SECONDS);
+            for (Future<User> result : results) {
+                assertSame(loaded, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failuresAreRethrownUnwrappedToEveryWaiterAndNotCached() throws Exception {
+        IllegalStateException failure = new IllegalStateException("Timed out waiting for a database connection permit");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<User> failed = executor.submit(() -> cache.getPrincipal(PHONE_NUMBER, key -> {
+                loading.countDown();
+                await(release);
+                throw failure;
+            }));
+            await(loading);
+            Future<User> waiter = executor.submit(() -> cache.getPrincipal(PHONE_NUMBER, this::load));
+            while (cache.principalStats().hitCount() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertSame(failure, assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS)).getCause());
+            assertSame(failure, assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS)).getCause());
+            assertEquals(PHONE_NUMBER, cache.getPrincipal(PHONE_NUMBER, this::load).getPhoneNumber());
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A lookup of an unknown number is in flight when the first login of that number starts:
+     * the login does not take the lookup's {@code null} as its answer and creates the user.
+     */
+    @Test
+    void findOrCreateDoesNotReturnTheNullOfAConcurrentFind() throws Exception {
+        CountDownLatch findStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<User> find = executor.submit(() -> cache.getPrincipal(PHONE_NUMBER, key -> {
+                findStarted.countDown();
+                await(release);
+                return null;
+            }));
+            await(findStarted);
+            Future<User> findOrCreate = executor.submit(() -> cache.getOrCreatePrincipal(PHONE_NUMBER, this::load));
+            // the login is waiting on the lookup in flight
+            while (cache.principalStats().hitCount() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertNull(find.get(5, TimeUnit.SECONDS));
+            assertEquals(PHONE_NUMBER, findOrCreate.get(5, TimeUnit.SECONDS).getPhoneNumber());
+            assertEquals(1, loads.get());
+            assertEquals(PHONE_NUMBER, cache.getPrincipal(PHONE_NUMBER, key -> fail("the created user is cached"))
+                    .getPhoneNumber());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        UserCache disabled = new UserCache(false, 100, EXPIRE_AFTER_WRITE, EXPIRE_AFTER_ACCESS);
+
+        disabled.getPrincipal(PHONE_NUMBER, this::load);
+        disabled.getOrCreatePrincipal(PHONE_NUMBER, this::load);
+        disabled.getView(PHONE_NUMBER, this::loadView);
+
+        assertEquals(3, loads.get());
+        assertEquals(0, disabled.principalStats().requestCount());
+    }
+
+    private UserCache cache(long maximumSize) {
+        return new UserCache(true, maximumSize, EXPIRE_AFTER_WRITE, EXPIRE_AFTER_ACCESS, nanos::get, Runnable::run);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private User load(String phoneNumber) {
+        loads.incrementAndGet();
+        return new User(phoneNumber, Set.of("ROLE_USER"));
+    }
+
+    private UserDto loadView(String phoneNumber) {
+        loads.incrementAndGet();
+        return new UserDto(phoneNumber, Set.of("ROLE_USER"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
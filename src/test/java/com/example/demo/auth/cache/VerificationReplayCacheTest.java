@@ -0,0 +1,141 @@
+package com.example.demo.auth.cache;
+
+import com.example.demo.auth.dto.JwtResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationReplayCacheTest {
+
+    private final VerificationReplayCache cache =
+            new VerificationReplayCache(true, Duration.ofMinutes(1), 1000);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void retryReturnsTheAlreadyIssuedToken() {
+        JwtResponse first = cache.getOrVerify("TWILIO", "123456", Map.of("phoneNumber", "+15550001"), this::issue);
+        JwtResponse retry = cache.getOrVerify("TWILIO", "123456", Map.of("phoneNumber", "+15550001"), this::issue);
+
+        assertEquals(first, retry);
+        assertEquals(1, verifications.get());
+        assertEquals(1, cache.replayedCount());
+    }
+
+    @Test
+    void differentProviderTokenOrMetadataIsVerifiedAgain() {
+        cache.getOrVerify("TWILIO", "123456", Map.of("phoneNumber", "+15550001"), this::issue);
+        cache.getOrVerify("TWILIO", "123456", Map.of("phoneNumber", "+15550002"), this::issue);
+        cache.getOrVerify("TWILIO", "654321", Map.of("phoneNumber", "+15550001"), this::issue);
+        cache.getOrVerify("FIREBASE", "123456", Map.of("phoneNumber", "+15550001"), this::issue);
+
+        assertEquals(4, verifications.get());
+        assertEquals(0, cache.replayedCount());
+    }
+
+    @Test
+    void failedVerificationIsNotRemembered() {
+        RuntimeException failure = new RuntimeException("OTP verification failed!");
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> cache.getOrVerify("TWILIO", "123456", null, () -> {
+                    throw failure;
+                }));
+        JwtResponse retry = cache.getOrVerify("TWILIO", "123456", null, this::issue);
+
+        assertSame(failure, thrown);
+        assertEquals("jwt-1", retry.getJwt());
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneVerification() throws Exception {
+        int duplicates = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        try {
+            List<Future<JwtResponse>> results = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                results.add(executor.submit(() -> cache.getOrVerify("FIREBASE", "id-token", null, () -> {
+                    await(release);
+                    return issue();
+                })));
+            }
+            // all duplicates are either waiting on the first verification or about to join it
+            while (cache.replayedCount() < duplicates - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<JwtResponse> result : results) {
+                assertEquals("jwt-1", result.get(5, TimeUnit.SECONDS).getJwt());
+            }
+            assertEquals(1, verifications.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentDuplicatesShareAFailureAndTheNextRetryVerifiesAgain() throws Exception {
+        int duplicates = 4;
+        RuntimeException failure = new RuntimeException("OTP verification failed!");
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        try {
+            List<Future<JwtResponse>> results = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                results.add(executor.submit(() -> cache.getOrVerify("TWILIO", "000000", null, () -> {
+                    await(release);
+                    throw failure;
+                })));
+            }
+            while (cache.replayedCount() < duplicates - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<JwtResponse> result : results) {
+                ExecutionException thrown = assertThrows(ExecutionException.class,
+                        () -> result.get(5, TimeUnit.SECONDS));
+                assertSame(failure, thrown.getCause());
+            }
+            assertEquals("jwt-1", cache.getOrVerify("TWILIO", "000000", null, this::issue).getJwt());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void disabledCacheAlwaysVerifies() {
+        VerificationReplayCache disabled = new VerificationReplayCache(false, Duration.ofMinutes(1), 1000);
+
+        disabled.getOrVerify("TWILIO", "123456", null, this::issue);
+        disabled.getOrVerify("TWILIO", "123456", null, this::issue);
+
+        assertEquals(2, verifications.get());
+    }
+
+    private JwtResponse issue() {
+        int n = verifications.incrementAndGet();
+        return new JwtResponse("jwt-" + n, "refresh-" + n);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.demo.auth.controller;
+
+import com.example.demo.auth.model.User;
+import com.example.demo.auth.repository.UserRepository;
+import com.example.demo.auth.service.JWTServiceImpl;
+import com.example.demo.auth.service.UserImportService;
+import com.example.demo.auth.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HTTP tests for {@link UserController}.
+ * <p>
+ * Claims-trust mode is enabled so that a token minted for a made-up user carries its roles
+ * without the user having to exist.
+ * </p>
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "user.cache.enabled=false",
+                "jwt.claims-trust.enabled=true"
+        }
+)
+class UserControllerTest {
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private JWTServiceImpl jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void pagesFollowEachOtherWithoutDuplicatesOrGaps() throws Exception {
+        List<String> imported = IntStream.range(0, 7).mapToObj(i -> phoneNumber()).toList();
+        userImportService.importUsers(imported);
+        long after = idOf(imported.getFirst()) - 1;
+        List<String> expected = jdbc().queryForList(
+                "SELECT phone_number FROM users WHERE id > ? ORDER BY id", String.class, after);
+
+        List<String> walked = new ArrayList<>();
+        Long cursor = after;
+        do {
+            JsonNode page = getPage(cursor, 3);
+            assertFalse(page.get("users").isEmpty(), "a page with a cursor must be followed by users");
+            page.get("users").forEach(user -> walked.add(user.get("phoneNumber").asString()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asLong();
+        } while (cursor != null);
+
+        assertEquals(expected, walked);
+        assertEquals(walked.size(), new HashSet<>(walked).size());
+        assertEquals(imported, walked.subList(0, imported.size()));
+    }
+
+    @Test
+    void fullLastPageHasNoCursor() throws Exception {
+        userImportService.importUsers(List.of(phoneNumber(), phoneNumber(), phoneNumber()));
+        long beforeLastThree = jdbc().queryForObject(
+                "SELECT id FROM users ORDER BY id DESC OFFSET 3 LIMIT 1", Long.class);
+
+        JsonNode page = getPage(beforeLastThree, 3);
+
+        assertEquals(3, page.get("users").size());
+        assertTrue(page.get("nextCursor").isNull());
+    }
+
+    @Test
+    void limitIsClampedToOneAndTheMaximumPageSize() throws Exception {
+        long missing = UserController.MAX_PAGE_SIZE + 1 - userRepository.count();
+        if (missing > 0) {
+            userImportService.importUsers(IntStream.range(0, (int) missing).mapToObj(i -> phoneNumber()).toList());
+        }
+
+        assertEquals(1, getPage(null, 0).get("users").size());
+        assertEquals(1, getPage(null, -5).get("users").size());
+        JsonNode largest = getPage(null, UserController.MAX_PAGE_SIZE * 10);
+        assertEquals(UserController.MAX_PAGE_SIZE, largest.get("users").size());
+        assertFalse(largest.get("nextCursor").isNull());
+        assertEquals(UserController.DEFAULT_PAGE_SIZE, getJson("/api/users").get("users").size());
+    }
+
+    @Test
+    void pagesAggregateAllRolesOfAUser() throws Exception {
+        String admin = phoneNumber();
+        userService.findOrCreateUserByPhoneNumber(admin);
+        userService.updateRoles(admin, Set.of("ROLE_USER", "ROLE_ADMIN"));
+        String withoutRoles = phoneNumber();
+        jdbc().update("INSERT INTO users (id, phone_number) VALUES (nextval('users_seq'), ?)", withoutRoles);
+
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), roles(getPage(idOf(admin) - 1, 1).get("users").get(0)));
+        assertEquals(Set.of(), roles(getPage(idOf(withoutRoles) - 1, 1).get("users").get(0)));
+    }
+
+    @Test
+    void rolesContainingCommasAreKeptWhole() throws Exception {
+        String partner = phoneNumber();
+        userService.findOrCreateUserByPhoneNumber(partner);
+        Set<String> roles = Set.of("ROLE_USER", "ROLE_PARTNER,EU");
+        userService.updateRoles(partner, roles);
+
+        assertEquals(roles, roles(getPage(idOf(partner) - 1, 1).get("users").get(0)));
+        assertEquals(roles, roles(getJson("/api/users/" + partner)));
+    }
+
+    @Test
+    void streamWritesEveryUserAsOneJsonLine() throws Exception {
+        String admin = phoneNumber();
+        userService.findOrCreateUserByPhoneNumber(admin);
+        userService.updateRoles(admin, Set.of("ROLE_USER", "ROLE_ADMIN"));
+
+        HttpResponse<String> response = send(request("/api/users/stream", "ROLE_USER").GET().build());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(UserController.APPLICATION_NDJSON_VALUE,
+                response.headers().firstValue("Content-Type").orElseThrow());
+        assertTrue(response.body().endsWith("\n"));
+        Map<String, Set<String>> streamed = new HashMap<>();
+        for (String line : response.body().split("\n")) {
+            JsonNode user = jsonMapper.readTree(line);
+            assertNull(streamed.put(user.get("phoneNumber").asString(), roles(user)), "duplicate line " + line);
+        }
+        assertEquals(jdbc().queryForObject("SELECT count(*) FROM users", Integer.class), streamed.size());
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), streamed.get(admin));
+    }
+
+    @Test
+    void adminImportReturnsTheSummaryAndCreatesTheUsers() throws Exception {
+        String first = phoneNumber();
+        String second = phoneNumber();
+        String body = jsonMapper.writeValueAsString(Map.of("phoneNumbers", List.of(first, " ", second, first)));
+
+        HttpResponse<String> response = send(post("/api/users/import", body, "ROLE_ADMIN"));
+
+        assertEquals(200, response.statusCode());
+        JsonNode summary = jsonMapper.readTree(response.body());
+        assertEquals(2, summary.get("requested").asInt());
+        assertEquals(2, summary.get("created").asInt());
+        assertEquals(0, summary.get("skipped").asInt());
+        assertEquals(Set.of(first, second), userRepository.findExistingPhoneNumbers(List.of(first, second)));
+    }
+
+    @Test
+    void importRequiresTheAdminRole() throws Exception {
+        String phoneNumber = phoneNumber();
+        String body = jsonMapper.writeValueAsString(Map.of("phoneNumbers", List.of(phoneNumber)));
+
+        assertEquals(403, send(post("/api/users/import", body, "ROLE_USER")).statusCode());
+        assertTrue(userRepository.findExistingPhoneNumbers(List.of(phoneNumber)).isEmpty());
+    }
+
+    private JsonNode getPage(Long after, int limit) throws Exception {
+        return getJson("/api/users?limit=" + limit + (after != null ? "&after=" + after : ""));
+    }
+
+    private JsonNode getJson(String path) throws Exception {
+        HttpResponse<String> response = send(request(path, "ROLE_USER").GET().build());
+        assertEquals(200, response.statusCode());
+        return jsonMapper.readTree(response.body());
+    }
+
+    private static Set<String> roles(JsonNode user) {
+        Set<String> roles = new HashSet<>();
+        user.get("roles").forEach(role -> roles.add(role.asString()));
+        return roles;
+    }
+
+    private long idOf(String phoneNumber) {
+        return userRepository.findViewByPhoneNumber(phoneNumber).orElseThrow().getId();
+    }
+
+    private JdbcTemplate jdbc() {
+        return new JdbcTemplate(primaryDataSource);
+    }
+
+    private HttpRequest post(String path, String body, String... roles) {
+        return request(path, roles)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String... roles) {
+        String token = jwtService.generateToken(new User(phoneNumber(), Set.of(roles)));
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + environment.getProperty("local.server.port") + path))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String phoneNumber() {
+        return "+1555" + ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.auth.controller;
+
+import com.example.demo.auth.adapter.OtpProviderAdapter;
+import com.example.demo.auth.dto.ProviderVerifyResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test for virtual-thread mode.
+ * <p>
+ * Tomcat's platform thread pool is limited to {@value #PLATFORM_THREADS} threads while
+ * {@value #REQUESTS} logins hit a provider that takes {@value #PROVIDER_LATENCY_MS} ms.
+ * With virtual threads, far more logins than {@value #PLATFORM_THREADS} must be waiting
+ * on the provider at the same time.
+ * </p>
+ * <p>
+ * How long the logins take depends on the machine (a cold JIT on a single CPU takes seconds
+ * on its own), so the wall-clock bound is tagged {@value #PERFORMANCE} and only checked by
+ * <code>./gradlew performanceTest</code>, not by the default <code>test</code> task.
+ * </p>
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.threads.virtual.enabled=true",
+                "server.tomcat.threads.max=" + VirtualThreadLoadTest.PLATFORM_THREADS,
+                "otp.defaults.timeout=60s",
+                "otp.rate-limit.enabled=false",
+                "otp.defaults.max-concurrent-calls=1000"
+        }
+)
+class VirtualThreadLoadTest {
+
+    static final int PLATFORM_THREADS = 10;
+    static final int REQUESTS = 200;
+    static final long PROVIDER_LATENCY_MS = 500;
+    static final String PERFORMANCE = "performance";
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private SlowOtpProviderAdapter slowProvider;
+
+    @Test
+    void concurrentLoginsExceedPlatformThreadLimit() {
+        sendLogins("+1888%07d");
+
+        assertTrue(slowProvider.maxInFlight() > PLATFORM_THREADS,
+                "expected more than " + PLATFORM_THREADS + " concurrent provider calls, saw " + slowProvider.maxInFlight());
+    }
+
+    @Test
+    @Tag(PERFORMANCE)
+    void concurrentLoginsFinishFasterThanAPlatformThreadPool() {
+        long elapsedMs = sendLogins("+1887%07d");
+        long platformBoundMs = (REQUESTS / PLATFORM_THREADS) * PROVIDER_LATENCY_MS;
+
+        assertTrue(elapsedMs < platformBoundMs,
+                "took " + elapsedMs + " ms, a " + PLATFORM_THREADS + "-thread pool needs at least " + platformBoundMs + " ms");
+    }
+
+    /**
+     * Sends {@value #REQUESTS} concurrent logins and waits until all succeeded.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    private long sendLogins(String phoneNumberFormat) {
+        URI uri = URI.create("http://localhost:" + environment.getProperty("local.server.port") + "/api/auth/verify-otp");
+        long startNanos = System.nanoTime();
+
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build()) {
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                String body = """
+                        {"providerKey":"SLOW","providerToken":"%s"}
+                        """.formatted(phoneNumberFormat.formatted(i));
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.join().statusCode());
+            }
+        }
+
+        return Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+    }
+
+    @TestConfiguration
+    static class SlowProviderConfig {
+
+        @Bean
+        SlowOtpProviderAdapter slowOtpProviderAdapter() {
+            return new SlowOtpProviderAdapter();
+        }
+    }
+
+    /**
+     * Provider stub that blocks for {@value #PROVIDER_LATENCY_MS} ms and records peak concurrency.
+     * The provider token is used as the phone number.
+     */
+    static class SlowOtpProviderAdapter implements OtpProviderAdapter {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public ProviderVerifyResult verify(String providerToken, Map<String, Object> meta) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(PROVIDER_LATENCY_MS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new ProviderVerifyResult(true, providerToken, providerToken, null);
+        }
+
+        @Override
+        public String providerKey() {
+            return "SLOW";
+        }
+
+        int maxInFlight() {
+            return maxInFlight.get();
+        }
+    }
+}
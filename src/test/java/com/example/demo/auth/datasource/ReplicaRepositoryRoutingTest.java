@@ -0,0 +1,158 @@
+package com.example.demo.auth.datasource;
+
+import com.example.demo.auth.model.User;
+import com.example.demo.auth.repository.RefreshTokenRepository;
+import com.example.demo.auth.repository.UserRepository;
+import com.example.demo.auth.repository.UserView;
+import com.example.demo.auth.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replica routing through JPA and Hibernate, as the application uses it.
+ * <p>
+ * {@link ReplicaRoutingTest} covers the routing itself with plain JDBC transactions. Here the
+ * read-only flag has to reach the lazy connection through {@code JpaTransactionManager} and
+ * {@code HibernateJpaDialect}. The native upsert and rotation statements only run on
+ * PostgreSQL, so the replica stand-in is a read-only pool on the test database whose search path
+ * starts with its own schema. That schema shadows the user tables, so a user that exists only
+ * there can only be found through the replica; every other table resolves to the primary's, and
+ * a write routed to the replica fails because its connections are read-only.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "user.cache.enabled=false",
+        // %2C: the URL list itself is comma-separated
+        "db.replicas.urls=${spring.datasource.url}&currentSchema=" + ReplicaRepositoryRoutingTest.REPLICA_SCHEMA + "%2Cpublic"
+})
+class ReplicaRepositoryRoutingTest {
+
+    static final String REPLICA_SCHEMA = "replica_stand_in";
+    private static final String DEFAULT_ROLE = "ROLE_USER";
+    private static final String REPLICA_ROLE = "ROLE_REPLICA";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    private JdbcTemplate primary;
+
+    @BeforeEach
+    void createReplicaStandIn() {
+        primary = new JdbcTemplate(primaryDataSource);
+        primary.execute("DROP SCHEMA IF EXISTS " + REPLICA_SCHEMA + " CASCADE");
+        primary.execute("CREATE SCHEMA " + REPLICA_SCHEMA);
+        primary.execute("CREATE TABLE " + REPLICA_SCHEMA + ".users (LIKE public.users INCLUDING ALL)");
+        primary.execute("CREATE TABLE " + REPLICA_SCHEMA + ".user_roles (LIKE public.user_roles INCLUDING ALL)");
+    }
+
+    @AfterEach
+    void dropReplicaStandIn() {
+        primary.execute("DROP SCHEMA IF EXISTS " + REPLICA_SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void findByPhoneNumberIsServedByTheReplica() {
+        String phoneNumber = phoneNumber();
+        insertOnReplica(phoneNumber);
+
+        User user = userRepository.findByPhoneNumber(phoneNumber).orElseThrow();
+
+        assertEquals(Set.of(REPLICA_ROLE), user.getRoles());
+    }
+
+    @Test
+    void upsertRunsOnThePrimary() {
+        String phoneNumber = phoneNumber();
+
+        UserView created = userRepository.upsertByPhoneNumber(phoneNumber, DEFAULT_ROLE).orElseThrow();
+
+        assertEquals(phoneNumber, created.getPhoneNumber());
+        assertEquals(1, count("users", phoneNumber));
+        assertEquals(0, count(REPLICA_SCHEMA + ".users", phoneNumber));
+    }
+
+    @Test
+    void refreshTokenRotationRunsOnThePrimary() {
+        long userId = userRepository.upsertByPhoneNumber(phoneNumber(), DEFAULT_ROLE).orElseThrow().getId();
+        String tokenHash = UUID.randomUUID().toString();
+        String newTokenHash = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(1, ChronoUnit.DAYS);
+        refreshTokenRepository.insert(tokenHash, userId, UUID.randomUUID(), expiresAt);
+
+        assertEquals(userId, refreshTokenRepository.rotate(tokenHash, newTokenHash, now, expiresAt).orElseThrow());
+        assertEquals(1, primary.queryForObject(
+                "SELECT count(*) FROM refresh_tokens WHERE token_hash = ?", Integer.class, newTokenHash));
+    }
+
+    @Test
+    void recentlyWrittenUsersAreReadFromThePrimary() {
+        String phoneNumber = phoneNumber();
+        userRepository.upsertByPhoneNumber(phoneNumber, DEFAULT_ROLE).orElseThrow();
+        insertOnReplica(phoneNumber);
+
+        assertEquals(Set.of(REPLICA_ROLE), rolesOf(phoneNumber));
+        readYourWrites.written(phoneNumber);
+        assertEquals(Set.of(DEFAULT_ROLE), rolesOf(phoneNumber));
+    }
+
+    @Test
+    void onlyLoginsThatCreateTheUserPinItsReadsToThePrimary() {
+        String returning = phoneNumber();
+        userRepository.upsertByPhoneNumber(returning, DEFAULT_ROLE).orElseThrow();
+        insertOnReplica(returning);
+        String created = phoneNumber();
+
+        userService.findOrCreateUserByPhoneNumber(returning);
+        userService.findOrCreateUserByPhoneNumber(created);
+        insertOnReplica(created);
+
+        assertEquals(Set.of(REPLICA_ROLE), rolesOf(returning));
+        assertEquals(Set.of(DEFAULT_ROLE), rolesOf(created));
+    }
+
+    private Set<String> rolesOf(String phoneNumber) {
+        return readYourWrites.read(phoneNumber, () -> userRepository.findByPhoneNumber(phoneNumber))
+                .map(user -> Set.copyOf(user.getRoles()))
+                .orElseThrow();
+    }
+
+    private void insertOnReplica(String phoneNumber) {
+        long id = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        primary.update("INSERT INTO " + REPLICA_SCHEMA + ".users (id, phone_number) VALUES (?, ?)", id, phoneNumber);
+        primary.update("INSERT INTO " + REPLICA_SCHEMA + ".user_roles (user_id, role) VALUES (?, ?)", id, REPLICA_ROLE);
+    }
+
+    private int count(String table, String phoneNumber) {
+        return primary.queryForObject("SELECT count(*) FROM " + table + " WHERE phone_number = ?", Integer.class, phoneNumber);
+    }
+
+    private static String phoneNumber() {
+        return "+1888" + ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L);
+    }
+}
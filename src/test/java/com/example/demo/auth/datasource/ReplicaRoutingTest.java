@@ -0,0 +1,131 @@
+package com.example.demo.auth.datasource;
+
+import com.example.demo.auth.config.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wires the routing the same way as {@code ReplicaDataSourceConfig}, with in-memory H2
+ * databases as primary and replicas. Each database has one row naming itself, so every read
+ * shows where it was routed.
+ */
+class ReplicaRoutingTest {
+
+    private final String run = UUID.randomUUID().toString();
+    private final HikariDataSource primary = database("primary");
+    private final HikariDataSource replica1 = database("replica-1");
+    private final HikariDataSource replica2 = database("replica-2");
+    private final ReplicaDataSource replicas = new ReplicaDataSource(primary, List.of(replica1, replica2));
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readWrite;
+    private final TransactionTemplate readOnly;
+
+    ReplicaRoutingTest() {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicas);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicas.close();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactionsAreSpreadOverReplicas() {
+        Set<String> servedBy = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            servedBy.add(readOnly.execute(status -> node()));
+        }
+
+        assertEquals(Set.of("replica-1", "replica-2"), servedBy);
+    }
+
+    @Test
+    void writesAndReadsOutsideReadOnlyTransactionsUseThePrimary() {
+        assertEquals("primary", readWrite.execute(status -> {
+            jdbcTemplate.update("UPDATE node SET name = name");
+            return node();
+        }));
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void recentlyWrittenKeysAreReadFromThePrimary() {
+        ReadYourWrites readYourWrites = new ReadYourWrites(new ReplicaProperties());
+        readYourWrites.written("+15550001");
+
+        assertEquals("primary", readYourWrites.read("+15550001", () -> readOnly.execute(status -> node())));
+        assertNotEquals("primary", readYourWrites.read("+15550002", () -> readOnly.execute(status -> node())));
+        assertEquals("primary", ReadYourWrites.onPrimary(() -> readOnly.execute(status -> node())));
+    }
+
+    @Test
+    void unavailableReplicasAreSkippedAndThePrimaryIsTheLastResort() {
+        replica1.close();
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-2", readOnly.execute(status -> node()));
+        }
+        assertEquals(1, replicas.healthyReplicas());
+
+        replica2.close();
+        assertEquals("primary", readOnly.execute(status -> node()));
+        replicas.checkHealth();
+        assertEquals(0, replicas.healthyReplicas());
+    }
+
+    @Test
+    void replicasWithEveryConnectionInUseAreSkippedWithoutBeingMarkedDown() throws Exception {
+        try (Connection first = replica1.getConnection(); Connection second = replica1.getConnection()) {
+            for (int i = 0; i < 4; i++) {
+                assertEquals("replica-2", readOnly.execute(status -> node()));
+            }
+            replicas.checkHealth();
+            assertEquals(2, replicas.healthyReplicas());
+
+            try (Connection third = replica2.getConnection(); Connection fourth = replica2.getConnection()) {
+                assertEquals("primary", readOnly.execute(status -> node()));
+                replicas.checkHealth();
+                assertEquals(2, replicas.healthyReplicas());
+            }
+        }
+
+        Set<String> servedBy = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            servedBy.add(readOnly.execute(status -> node()));
+        }
+        assertEquals(Set.of("replica-1", "replica-2"), servedBy);
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + run + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(250);
+        new JdbcTemplate(dataSource).execute("CREATE TABLE node (name VARCHAR(20)); INSERT INTO node VALUES ('" + name + "')");
+        return dataSource;
+    }
+}
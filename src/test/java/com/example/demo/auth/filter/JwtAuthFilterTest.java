@@ -0,0 +1,134 @@
+package com.example.demo.auth.filter;
+
+import com.example.demo.auth.dto.JwtPrincipal;
+import com.example.demo.auth.metrics.AuthMetrics;
+import com.example.demo.auth.model.User;
+import com.example.demo.auth.revocation.RevocationIndex;
+import com.example.demo.auth.service.JWTServiceImpl;
+import com.example.demo.auth.service.UserService;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Principal resolution of {@link JwtAuthFilter} in claims-trust and database mode.
+ * <p>
+ * Both modes share the application's JWT service and revocation index, so a role change made
+ * through {@link UserService} is seen by both.
+ * </p>
+ */
+@SpringBootTest(properties = "user.cache.enabled=false")
+class JwtAuthFilterTest {
+
+    @Autowired
+    private JWTServiceImpl jwtService;
+
+    @Autowired
+    private RevocationIndex revocationIndex;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void claimsTrustBuildsAuthoritiesFromTheTokenWithoutLoadingTheUser() throws Exception {
+        JwtAuthFilter filter = filter(username -> {
+            throw new AssertionError("claims-trust mode must not load " + username);
+        }, true);
+        String token = jwtService.generateToken(new User(phoneNumber(), Set.of("ROLE_USER", "ROLE_ADMIN")));
+
+        Authentication auth = authenticate(filter, token);
+
+        assertInstanceOf(JwtPrincipal.class, auth.getPrincipal());
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), authorities(auth));
+    }
+
+    @Test
+    void databaseModeTakesAuthoritiesFromTheLoadedUser() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        JwtAuthFilter filter = filter(username -> {
+            lookups.incrementAndGet();
+            return new User(username, Set.of("ROLE_ADMIN"));
+        }, false);
+        String token = jwtService.generateToken(new User(phoneNumber(), Set.of("ROLE_USER")));
+
+        Authentication auth = authenticate(filter, token);
+
+        assertInstanceOf(User.class, auth.getPrincipal());
+        assertEquals(Set.of("ROLE_ADMIN"), authorities(auth));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void roleChangeRejectsOlderTokensInBothModes() throws Exception {
+        JwtAuthFilter claimsTrust = filter(userDetailsService, true);
+        JwtAuthFilter database = filter(userDetailsService, false);
+        String phoneNumber = phoneNumber();
+        String token = jwtService.generateToken(userService.findOrCreateUserByPhoneNumber(phoneNumber));
+        assertNotNull(authenticate(claimsTrust, token));
+        assertNotNull(authenticate(database, token));
+
+        userService.updateRoles(phoneNumber, Set.of("ROLE_USER", "ROLE_ADMIN"));
+
+        assertNull(authenticate(claimsTrust, token));
+        assertNull(authenticate(database, token));
+
+        // the cut-off covers the current second; a login after it carries the new roles
+        Thread.sleep(1000 - Instant.now().toEpochMilli() % 1000);
+        String newToken = jwtService.generateToken(userService.findUserByPhoneNumber(phoneNumber));
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), authorities(authenticate(claimsTrust, newToken)));
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), authorities(authenticate(database, newToken)));
+    }
+
+    private JwtAuthFilter filter(UserDetailsService users, boolean claimsTrust) {
+        return new JwtAuthFilter(jwtService, users, revocationIndex, AuthMetrics.noop(), claimsTrust);
+    }
+
+    /**
+     * Sends a request with the token through the filter.
+     *
+     * @return the authentication the filter established, or {@code null} if it established none
+     */
+    private static Authentication authenticate(JwtAuthFilter filter, String token) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setServletPath("/api/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        Authentication[] seen = new Authentication[1];
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> seen[0] = SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+        return seen[0];
+    }
+
+    private static Set<String> authorities(Authentication auth) {
+        return auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+
+    private static String phoneNumber() {
+        return "+1777" + ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L);
+    }
+}
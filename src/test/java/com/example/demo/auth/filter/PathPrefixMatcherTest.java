@@ -0,0 +1,59 @@
+package com.example.demo.auth.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathPrefixMatcherTest {
+
+    private final PathPrefixMatcher matcher = new PathPrefixMatcher(List.of(
+            "/api/auth/**",
+            "/actuator/health",
+            "/actuator/health/**",
+            "/favicon.ico"
+    ));
+
+    @Test
+    void prefixPatternMatchesItselfAndEverythingBelow() {
+        assertTrue(matcher.matches("/api/auth"));
+        assertTrue(matcher.matches("/api/auth/"));
+        assertTrue(matcher.matches("/api/auth/verify-otp"));
+        assertTrue(matcher.matches("/api/auth/refresh/x"));
+    }
+
+    @Test
+    void prefixPatternRespectsSegmentBoundaries() {
+        assertFalse(matcher.matches("/api/authz"));
+        assertFalse(matcher.matches("/api/aut"));
+        assertFalse(matcher.matches("/api"));
+        assertFalse(matcher.matches("/api/users"));
+    }
+
+    @Test
+    void exactPatternMatchesOnlyThatPath() {
+        assertTrue(matcher.matches("/favicon.ico"));
+        assertFalse(matcher.matches("/favicon.ico/x"));
+        assertFalse(matcher.matches("/favicon"));
+        assertTrue(matcher.matches("/actuator/health"));
+        assertTrue(matcher.matches("/actuator/health/liveness"));
+        assertFalse(matcher.matches("/actuator/env"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void publicPathsCoverAuthActuatorHealthAndStaticResources() {
+        assertTrue(PublicPaths.matches("/api/auth/verify-otp"));
+        assertTrue(PublicPaths.matches("/actuator/health/readiness"));
+        assertTrue(PublicPaths.matches("/css/app.css"));
+        assertFalse(PublicPaths.matches("/actuator/prometheus"));
+        assertFalse(PublicPaths.matches("/api/providers"));
+    }
+
+    @Test
+    void rejectsWildcardsOutsideTheEnd() {
+        assertThrows(IllegalArgumentException.class, () -> new PathPrefixMatcher(List.of("/api/*/users")));
+        assertThrows(IllegalArgumentException.class, () -> new PathPrefixMatcher(List.of("api/**")));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.auth.metrics;
+
+import com.example.demo.auth.adapter.OtpProviderRouter;
+import com.example.demo.auth.adapter.ResilientOtpProviderRegistry;
+import com.example.demo.auth.cache.VerificationReplayCache;
+import com.example.demo.auth.config.OtpProviderProperties;
+import com.example.demo.auth.ratelimit.OtpRateLimiter;
+import com.example.demo.auth.service.OtpAuthServiceImpl;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private final AuthMetrics metrics;
+
+    AuthMetricsTest() {
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        metrics = new AuthMetrics(meterRegistry, observationRegistry);
+    }
+
+    @Test
+    void filterStagesAreRecordedPerTag() {
+        metrics.recordVerify(2_000, true);
+        metrics.recordVerify(3_000, false);
+        metrics.recordRevocationCheck(150);
+        metrics.recordPrincipal(500, true);
+
+        assertEquals(2_000, filterTimer("verify", "valid").totalTime(TimeUnit.NANOSECONDS));
+        assertEquals(1, filterTimer("verify", "invalid").count());
+        assertEquals(1, filterTimer("revocation", "checked").count());
+        assertEquals(1, filterTimer("principal", "claims").count());
+        assertEquals(0, filterTimer("principal", "database").count());
+    }
+
+    @Test
+    void loginStagesAndProviderCallsAreTimedIncludingFailures() {
+        assertEquals("jwt", metrics.observeLoginStage("jwt", () -> "jwt"));
+        assertThrows(IllegalStateException.class, () -> metrics.observeProvider("TWILIO", () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals(1, meterRegistry.get(AuthMetrics.LOGIN_STAGE).tag("stage", "jwt").timer().count());
+        assertEquals(1, meterRegistry.get(AuthMetrics.PROVIDER_VERIFY)
+                .tag("provider", "TWILIO")
+                .tag("error", "IllegalStateException")
+                .timer().count());
+    }
+
+    @Test
+    void loginTimersArePublishedAsPrometheusHistograms() {
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        prometheus.config().meterFilter(AuthMetrics.loginHistograms());
+        ObservationRegistry observations = ObservationRegistry.create();
+        observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(prometheus));
+        AuthMetrics exported = new AuthMetrics(prometheus, observations);
+
+        exported.observeLogin("TWILIO", () -> exported.observeProvider("TWILIO", () -> "verified"));
+        exported.observeLoginStage("user", () -> "user");
+
+        String scrape = prometheus.scrape();
+        assertTrue(scrape.contains("auth_filter_seconds_bucket{"), scrape);
+        assertTrue(scrape.contains("auth_login_seconds_bucket{"), scrape);
+        assertTrue(scrape.contains("auth_provider_verify_seconds_bucket{"), scrape);
+        assertTrue(scrape.contains("auth_login_stage_seconds_bucket{"), scrape);
+    }
+
+    @Test
+    void unknownProviderKeysShareOneLoginSeries() {
+        ResilientOtpProviderRegistry registry = new ResilientOtpProviderRegistry(Map.of(), null,
+                new OtpProviderRouter(Duration.ofSeconds(10)), new OtpProviderProperties(), OtpRateLimiter.disabled(), metrics);
+        OtpAuthServiceImpl service = new OtpAuthServiceImpl(registry, null, null,
+                new VerificationReplayCache(false, Duration.ofSeconds(30), 100), null, metrics);
+
+        for (int i = 0; i < 3; i++) {
+            String madeUpKey = "MADE-UP-" + i;
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.verifyAndGenerateToken(madeUpKey, "123456", null));
+        }
+
+        assertEquals(1, meterRegistry.find(AuthMetrics.LOGIN).timers().size());
+        assertEquals(3, meterRegistry.get(AuthMetrics.LOGIN).tag("provider", AuthMetrics.UNKNOWN_PROVIDER).timer().count());
+    }
+
+    private Timer filterTimer(String stage, String result) {
+        return meterRegistry.get(AuthMetrics.FILTER).tag("stage", stage).tag("result", result).timer();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.auth.ratelimit;
+
+import com.example.demo.auth.config.RateLimitProperties;
+import com.example.demo.auth.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtpRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final InMemoryRateLimitStore store =
+            new InMemoryRateLimitStore(1000, Duration.ofMinutes(10), now::get);
+
+    @Test
+    void bucketAllowsBurstUpToCapacityThenRefillsGradually() {
+        RateLimit limit = new RateLimit(3, Duration.ofSeconds(3));
+
+        assertEquals(0, store.tryAcquire("k", limit));
+        assertEquals(0, store.tryAcquire("k", limit));
+        assertEquals(0, store.tryAcquire("k", limit));
+        assertEquals(Duration.ofSeconds(1).toNanos(), store.tryAcquire("k", limit));
+
+        now.addAndGet(Duration.ofMillis(400).toNanos());
+        assertEquals(Duration.ofMillis(600).toNanos(), store.tryAcquire("k", limit));
+
+        now.addAndGet(Duration.ofMillis(600).toNanos());
+        assertEquals(0, store.tryAcquire("k", limit), "one token refilled after period / capacity");
+        assertTrue(store.tryAcquire("k", limit) > 0);
+    }
+
+    @Test
+    void idleBucketDoesNotAccumulateMoreThanCapacity() {
+        RateLimit limit = new RateLimit(2, Duration.ofSeconds(1));
+        now.addAndGet(Duration.ofHours(1).toNanos());
+
+        assertEquals(0, store.tryAcquire("k", limit));
+        assertEquals(0, store.tryAcquire("k", limit));
+        assertTrue(store.tryAcquire("k", limit) > 0);
+        assertEquals(0, store.tryAcquire("other", limit), "buckets are independent");
+    }
+
+    @Test
+    void rejectsWithNameOfExceededLimitAndRetryAfter() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPhoneNumber(new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+        OtpRateLimiter limiter = new OtpRateLimiter(store, properties);
+
+        limiter.checkVerification("203.0.113.7", "+15550001");
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> limiter.checkVerification("203.0.113.8", "+15550001"));
+
+        assertEquals("phone-number", ex.getLimit());
+        assertEquals(Duration.ofMinutes(1), ex.getRetryAfter());
+        limiter.checkVerification("203.0.113.8", "+15550002");
+    }
+
+    @Test
+    void takesTokensFromIpPhoneNumberAndProviderBuckets() {
+        FakeRateLimitStore fake = new FakeRateLimitStore();
+        OtpRateLimiter limiter = new OtpRateLimiter(fake, new RateLimitProperties());
+
+        limiter.checkVerification("203.0.113.7", "+15550001");
+        limiter.checkProviderCall("TWILIO");
+        limiter.checkVerification("203.0.113.7", null);
+
+        assertEquals(List.of(
+                "ip:203.0.113.7", "phone:+15550001", "provider:TWILIO", "ip:203.0.113.7"
+        ), fake.keys);
+    }
+
+    @Test
+    void disabledLimiterNeverTouchesTheStore() {
+        FakeRateLimitStore fake = new FakeRateLimitStore();
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(false);
+
+        OtpRateLimiter limiter = new OtpRateLimiter(fake, properties);
+        limiter.checkVerification("203.0.113.7", "+15550001");
+        limiter.checkProviderCall("TWILIO");
+
+        assertTrue(fake.keys.isEmpty());
+    }
+
+    /**
+     * Counting store standing in for a shared backend: permits {@code capacity} requests per key
+     * and never refills.
+     */
+    private static final class FakeRateLimitStore implements RateLimitStore {
+
+        private final List<String> keys = new ArrayList<>();
+        private final Map<String, Long> used = new HashMap<>();
+
+        @Override
+        public long tryAcquire(String key, RateLimit limit) {
+            keys.add(key);
+            long count = used.merge(key, 1L, Long::sum);
+            return count <= limit.capacity() ? 0 : limit.period().toNanos();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.auth.revocation;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    private static final int KEYS = 20_000;
+    private static final int PROBES = 200_000;
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.1, 0.01, 0.001})
+    void falsePositiveRateMatchesTheMemorySpent(double targetRate) {
+        BloomFilter filter = BloomFilter.create(KEYS, targetRate);
+        for (int i = 0; i < KEYS; i++) {
+            String key = UUID.randomUUID().toString();
+            filter.put(key);
+            assertTrue(filter.mightContain(key), "no false negatives");
+        }
+
+        double observedRate = falsePositiveRate(filter);
+        double bitsPerKey = (double) filter.bitSize() / KEYS;
+
+        // m/n = -ln p / (ln 2)^2: ~4.8 bits per key at 10%, ~9.6 at 1%, ~14.4 at 0.1%
+        assertEquals(-Math.log(targetRate) / (Math.log(2) * Math.log(2)), bitsPerKey, 0.1);
+        assertTrue(observedRate < targetRate * 1.5,
+                "observed " + observedRate + " with " + bitsPerKey + " bits per key, target " + targetRate);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4})
+    void overfilledFilterDegradesButNeverMissesAKey(int overfill) {
+        BloomFilter filter = BloomFilter.create(KEYS, 0.01);
+        String first = UUID.randomUUID().toString();
+        filter.put(first);
+        for (int i = 1; i < KEYS * overfill; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        assertTrue(filter.mightContain(first));
+        assertTrue(falsePositiveRate(filter) > 0.01);
+    }
+
+    private static double falsePositiveRate(BloomFilter filter) {
+        int falsePositives = 0;
+        for (int i = 0; i < PROBES; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        return (double) falsePositives / PROBES;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.auth.revocation;
+
+import com.example.demo.auth.dto.JwtPrincipal;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationIndexTest {
+
+    private static final long LIFETIME_MS = 3_600_000;
+
+    private final RevocationIndex index = new RevocationIndex(4, 0.01, LIFETIME_MS);
+    private final Instant now = Instant.parse("2026-10-18T10:00:00Z");
+
+    @Test
+    void revokedTokenIdIsRejectedUntilItExpires() {
+        JwtPrincipal token = token("+15550001", now, UUID.randomUUID().toString());
+        JwtPrincipal other = token("+15550001", now, UUID.randomUUID().toString());
+
+        index.revokeToken(token.tokenId(), token.expiresAt());
+
+        assertTrue(index.isRevoked(token));
+        assertFalse(index.isRevoked(other));
+
+        assertEquals(0, index.prune(token.expiresAt().minusSeconds(1)));
+        assertEquals(1, index.prune(token.expiresAt()));
+        assertFalse(index.isRevoked(token));
+    }
+
+    @Test
+    void subjectCutOffRejectsOnlyOlderTokensOfThatSubject() {
+        index.revokeSubject("+15550001", now);
+
+        assertTrue(index.isRevoked(token("+15550001", now.minusSeconds(1), null)));
+        assertFalse(index.isRevoked(token("+15550001", now, null)), "same second as the cut-off stays valid");
+        assertFalse(index.isRevoked(token("+15550002", now.minusSeconds(1), null)));
+
+        assertEquals(1, index.prune(now.plusMillis(LIFETIME_MS)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void growsBeyondItsInitialCapacityWithoutLosingEntries() {
+        String[] tokenIds = new String[100];
+        for (int i = 0; i < tokenIds.length; i++) {
+            tokenIds[i] = UUID.randomUUID().toString();
+            index.revokeToken(tokenIds[i], now.plusSeconds(60 + i));
+        }
+        long grownBits = index.filterBitSize();
+
+        index.prune(now.plusSeconds(60 + 95));
+
+        for (int i = 0; i < tokenIds.length; i++) {
+            assertEquals(i > 95, index.isRevoked(token("+15550001", now, tokenIds[i])), "token " + i);
+        }
+        assertTrue(index.filterBitSize() < grownBits, "filters shrink again after pruning");
+    }
+
+    private static JwtPrincipal token(String subject, Instant issuedAt, String tokenId) {
+        return new JwtPrincipal(subject, Set.of("ROLE_USER"), issuedAt, issuedAt.plusMillis(LIFETIME_MS), tokenId);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.config.JwtSigningProperties;
+import com.example.demo.auth.dto.JwtPrincipal;
+import com.example.demo.auth.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtSigningTest {
+
+    private static final KeyPair OLD_KEY = newKeyPair();
+    private static final KeyPair NEW_KEY = newKeyPair();
+
+    private final User user = new User("9876543210", Set.of("ROLE_USER"));
+
+    @Test
+    void es256TokensCarryKidAndVerify() {
+        JWTServiceImpl service = newService(properties("new", Map.of("new", NEW_KEY)));
+
+        String token = service.generateToken(user);
+        JwtPrincipal principal = service.verifyToken(token);
+
+        assertTrue(header(token).contains("\"kid\":\"new\""));
+        assertTrue(header(token).contains("\"alg\":\"ES256\""));
+        assertNotNull(principal);
+        assertEquals("9876543210", principal.subject());
+        assertEquals(Set.of("ROLE_USER"), principal.roles());
+    }
+
+    @Test
+    void tokensSignedBeforeRotationStayValid() {
+        JWTServiceImpl beforeRotation = newService(properties("old", Map.of("old", OLD_KEY)));
+        String oldToken = beforeRotation.generateToken(user);
+
+        JWTServiceImpl afterRotation = newService(properties("new", Map.of("old", publicOnly(OLD_KEY), "new", NEW_KEY)));
+
+        assertNotNull(afterRotation.verifyToken(oldToken));
+        assertTrue(header(afterRotation.generateToken(user)).contains("\"kid\":\"new\""));
+
+        JWTServiceImpl oldKeyRemoved = newService(properties("new", Map.of("new", NEW_KEY)));
+        assertNull(oldKeyRemoved.verifyToken(oldToken));
+    }
+
+    @Test
+    void hmacTokensAreRejectedInEs256ModeUnlessAccepted() {
+        String hmacToken = newService(new JwtSigningProperties()).generateToken(user);
+
+        JwtSigningProperties es256 = properties("new", Map.of("new", NEW_KEY));
+        assertNull(newService(es256).verifyToken(hmacToken));
+
+        es256.setAcceptHmac(true);
+        assertNotNull(newService(es256).verifyToken(hmacToken));
+    }
+
+    @Test
+    void hmacModeRejectsAsymmetricTokens() {
+        String es256Token = newService(properties("new", Map.of("new", NEW_KEY))).generateToken(user);
+
+        assertNull(newService(new JwtSigningProperties()).verifyToken(es256Token));
+    }
+
+    @Test
+    void jwksPublishesEveryPublicKey() {
+        JwtKeyring keyring = new JwtKeyring(properties("new", Map.of("old", publicOnly(OLD_KEY), "new", NEW_KEY)));
+
+        List<Map<String, String>> jwks = keyring.jwks();
+
+        assertEquals(Set.of("old", "new"), Set.of(jwks.get(0).get("kid"), jwks.get(1).get("kid")));
+        for (Map<String, String> jwk : jwks) {
+            assertEquals("EC", jwk.get("kty"));
+            assertEquals("P-256", jwk.get("crv"));
+            assertEquals("ES256", jwk.get("alg"));
+            assertEquals(43, jwk.get("x").length(), "32 bytes, Base64url without padding");
+            assertEquals(43, jwk.get("y").length());
+        }
+        assertTrue(new JwtKeyring(new JwtSigningProperties()).jwks().isEmpty());
+    }
+
+    @Test
+    void activeKeyWithoutPrivateKeyFailsAtStartup() {
+        JwtSigningProperties properties = properties("old", Map.of("old", publicOnly(OLD_KEY)));
+
+        assertThrows(IllegalStateException.class, () -> new JwtKeyring(properties));
+    }
+
+    private static JWTServiceImpl newService(JwtSigningProperties properties) {
+        JWTServiceImpl service = new JWTServiceImpl(new JwtKeyring(properties));
+        ReflectionTestUtils.setField(service, "secret", "ad28f7d33baf724a97ac961bc87c230167bd1d9e8a4b689fbd35b9cd1e8a32f1");
+        ReflectionTestUtils.setField(service, "expiration", 3_600_000L);
+        service.init();
+        return service;
+    }
+
+    private static JwtSigningProperties properties(String activeKeyId, Map<String, KeyPair> keys) {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm(JwtSigningProperties.Algorithm.ES256);
+        properties.setActiveKeyId(activeKeyId);
+        keys.forEach((keyId, keyPair) -> {
+            JwtSigningProperties.KeyPairLocation location = new JwtSigningProperties.KeyPairLocation();
+            location.setPublicKey(pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+            if (keyPair.getPrivate() != null) {
+                location.setPrivateKey(pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+            }
+            properties.getKeys().put(keyId, location);
+        });
+        return properties;
+    }
+
+    private static KeyPair publicOnly(KeyPair keyPair) {
+        return new KeyPair(keyPair.getPublic(), null);
+    }
+
+    private static ByteArrayResource pem(String type, byte[] der) {
+        String pem = "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+        return new ByteArrayResource(pem.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String header(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+    }
+
+    private static KeyPair newKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
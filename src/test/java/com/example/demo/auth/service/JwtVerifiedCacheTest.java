@@ -0,0 +1,121 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.config.JwtSigningProperties;
+import com.example.demo.auth.dto.JwtPrincipal;
+import com.example.demo.auth.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The verified-token cache of {@link JWTServiceImpl}, on a manual clock shared by the tokens,
+ * the parser and the cache.
+ */
+class JwtVerifiedCacheTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Duration EXPIRATION = Duration.ofHours(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final User user = new User("9876543210", Set.of("ROLE_USER"));
+
+    @Test
+    void cachedPrincipalIsServedUntilTheTokenExpires() {
+        JWTServiceImpl service = newService(true);
+        String token = service.generateToken(user);
+
+        JwtPrincipal verified = service.verifyToken(token);
+        advance(EXPIRATION.minusSeconds(1));
+        assertSame(verified, service.verifyToken(token));
+        assertEquals(1, service.verifiedTokenCacheStats().hitCount());
+
+        advance(Duration.ofSeconds(1));
+        service.verifyToken(token);
+        assertEquals(1, service.verifiedTokenCacheStats().hitCount(), "served from the cache at exp");
+
+        advance(Duration.ofSeconds(1));
+        assertNull(service.verifyToken(token));
+        assertEquals(1, service.verifiedTokenCacheStats().hitCount());
+    }
+
+    @Test
+    void tamperedTokenMissesTheCacheAndFailsVerification() {
+        JWTServiceImpl service = newService(true);
+        String token = service.generateToken(user);
+        assertNotNull(service.verifyToken(token));
+
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        String tampered = parts[0] + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(
+                payload.replace("ROLE_USER", "ROLE_ADMIN").getBytes(StandardCharsets.UTF_8))
+                + "." + parts[2];
+
+        assertNull(service.verifyToken(tampered));
+        assertEquals(0, service.verifiedTokenCacheStats().hitCount());
+        assertEquals(2, service.verifiedTokenCacheStats().missCount());
+        assertNull(service.verifyToken(tampered), "failures are not cached");
+        assertEquals(Set.of("ROLE_USER"), service.verifyToken(token).roles());
+    }
+
+    @Test
+    void disabledCacheVerifiesEveryTime() {
+        JWTServiceImpl service = newService(false);
+        String token = service.generateToken(user);
+
+        JwtPrincipal first = service.verifyToken(token);
+        JwtPrincipal second = service.verifyToken(token);
+
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(0, service.verifiedTokenCacheStats().requestCount());
+        advance(EXPIRATION.plusSeconds(1));
+        assertNull(service.verifyToken(token));
+    }
+
+    private JWTServiceImpl newService(boolean verifiedCacheEnabled) {
+        JWTServiceImpl service = new JWTServiceImpl(new JwtKeyring(new JwtSigningProperties()), new ManualClock(), nanos::get);
+        ReflectionTestUtils.setField(service, "secret", "ad28f7d33baf724a97ac961bc87c230167bd1d9e8a4b689fbd35b9cd1e8a32f1");
+        ReflectionTestUtils.setField(service, "expiration", EXPIRATION.toMillis());
+        ReflectionTestUtils.setField(service, "verifiedCacheEnabled", verifiedCacheEnabled);
+        ReflectionTestUtils.setField(service, "verifiedCacheMaximumSize", 100L);
+        service.init();
+        return service;
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    /**
+     * Wall clock that reads the same manual time as the cache's ticker.
+     */
+    private final class ManualClock extends Clock {
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return START.plusNanos(nanos.get());
+        }
+    }
+}
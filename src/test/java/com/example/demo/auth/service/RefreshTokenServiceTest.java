@@ -0,0 +1,112 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.dto.JwtResponse;
+import com.example.demo.auth.exception.InvalidRefreshTokenException;
+import com.example.demo.auth.model.User;
+import com.example.demo.auth.repository.RefreshTokenRepository;
+import com.example.demo.auth.util.Digests;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rotation, reuse detection and cleanup of refresh tokens against the real database.
+ */
+@SpringBootTest
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JWTServiceImpl jwtService;
+
+    @Test
+    void refreshRotatesTheTokenAndStoresOnlyItsDigest() {
+        User user = newUser();
+        String first = refreshTokenService.issue(user);
+
+        JwtResponse refreshed = refreshTokenService.refresh(first);
+
+        assertEquals(user.getPhoneNumber(), jwtService.extractUsername(refreshed.getJwt()));
+        assertNotEquals(first, refreshed.getRefreshToken());
+        assertTrue(refreshTokenRepository.findByTokenHash(Digests.sha256(first)).orElseThrow().getUsedAt() != null);
+        assertTrue(refreshTokenRepository.findByTokenHash(first).isEmpty());
+        assertNotNull(refreshTokenService.refresh(refreshed.getRefreshToken()).getJwt());
+    }
+
+    @Test
+    void reusingAnExchangedTokenRevokesTheWholeFamily() {
+        String first = refreshTokenService.issue(newUser());
+        String second = refreshTokenService.refresh(first).getRefreshToken();
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh(first));
+
+        assertTrue(refreshTokenRepository.findByTokenHash(Digests.sha256(second)).isEmpty());
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh(second));
+    }
+
+    @Test
+    void concurrentRefreshesWithTheSameTokenSucceedAtMostOnce() throws Exception {
+        String token = refreshTokenService.issue(newUser());
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+
+        int succeeded = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<JwtResponse>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return refreshTokenService.refresh(token);
+                }));
+            }
+            start.countDown();
+            for (Future<JwtResponse> result : results) {
+                try {
+                    result.get();
+                    succeeded++;
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(InvalidRefreshTokenException.class, ex.getCause());
+                }
+            }
+        }
+
+        assertTrue(succeeded <= 1, "a refresh token must be exchanged at most once");
+    }
+
+    @Test
+    void unknownAndExpiredTokensAreRejectedAndExpiredRowsDeleted() {
+        User user = newUser();
+        String expiredHash = Digests.sha256(UUID.randomUUID().toString());
+        refreshTokenRepository.insert(expiredHash, user.getId(), UUID.randomUUID(), Instant.now().minusSeconds(1));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.refresh("unknown"));
+        assertTrue(refreshTokenService.deleteExpired() >= 1);
+        assertTrue(refreshTokenRepository.findByTokenHash(expiredHash).isEmpty());
+    }
+
+    private User newUser() {
+        return userService.findOrCreateUserByPhoneNumber(
+                "+1888" + ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L));
+    }
+}
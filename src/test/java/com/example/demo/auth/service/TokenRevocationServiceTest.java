@@ -0,0 +1,69 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.concurrent.DatabaseConcurrencyLimiter;
+import com.example.demo.auth.dto.JwtPrincipal;
+import com.example.demo.auth.repository.TokenRevocationRepository;
+import com.example.demo.auth.revocation.RevocationIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Revocations survive a restart: a fresh index is rebuilt from the revocation table.
+ * User-wide revocations cover every token issued up to the revocation.
+ */
+@SpringBootTest
+class TokenRevocationServiceTest {
+
+    private static final long EXPIRATION_MS = 3_600_000;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Autowired
+    private DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+
+    @Test
+    void revocationsAreRebuiltFromTheTableAtStartup() {
+        Instant issuedAt = Instant.now().minusSeconds(5).truncatedTo(ChronoUnit.SECONDS);
+        JwtPrincipal revokedToken = token("+15550100", issuedAt);
+        JwtPrincipal olderTokenOfRevokedUser = token("+15550101", issuedAt);
+        JwtPrincipal unaffected = token("+15550102", issuedAt);
+
+        tokenRevocationService.revokeToken(revokedToken);
+        tokenRevocationService.revokeTokensIssuedBeforeNow("+15550101");
+
+        RevocationIndex restarted = new RevocationIndex(1000, 0.001, EXPIRATION_MS);
+        new TokenRevocationService(restarted, tokenRevocationRepository, databaseConcurrencyLimiter, EXPIRATION_MS, 1000)
+                .load();
+
+        assertTrue(restarted.isRevoked(revokedToken));
+        assertTrue(restarted.isRevoked(olderTokenOfRevokedUser));
+        assertFalse(restarted.isRevoked(unaffected));
+    }
+
+    @Test
+    void userRevocationCoversTokensIssuedInTheSameSecond() {
+        JwtPrincipal issuedJustBefore = token("+15550103", Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        tokenRevocationService.revokeTokensIssuedBeforeNow("+15550103");
+
+        assertTrue(tokenRevocationService.isRevoked(issuedJustBefore));
+        assertFalse(tokenRevocationService.isRevoked(token("+15550103", Instant.now().plusSeconds(1))));
+    }
+
+    private static JwtPrincipal token(String subject, Instant issuedAt) {
+        return new JwtPrincipal(subject, Set.of("ROLE_USER"), issuedAt, issuedAt.plusMillis(EXPIRATION_MS),
+                UUID.randomUUID().toString());
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.dto.UserImportResultDto;
+import com.example.demo.auth.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk import through {@link UserImportService}, with a chunk size of {@value #CHUNK_SIZE}
+ * so that small imports span several chunks.
+ */
+@SpringBootTest(properties = {
+        "user.cache.enabled=false",
+        "user.import.chunk-size=" + UserImportServiceTest.CHUNK_SIZE
+})
+class UserImportServiceTest {
+
+    static final int CHUNK_SIZE = 3;
+    private static final String MIGRATION_SCHEMA = "users_seq_migration";
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Test
+    void importCreatesMissingUsersAcrossChunksAndSkipsDuplicatesBlanksAndExistingUsers() {
+        String existing = phoneNumber();
+        userService.findOrCreateUserByPhoneNumber(existing);
+        List<String> fresh = List.of(phoneNumber(), phoneNumber(), phoneNumber(), phoneNumber(), phoneNumber());
+
+        UserImportResultDto result = userImportService.importUsers(Arrays.asList(
+                fresh.get(0), " " + fresh.get(1) + " ", existing, null, fresh.get(2), "",
+                fresh.get(0), fresh.get(3), "   ", fresh.get(1), fresh.get(4)));
+
+        assertEquals(new UserImportResultDto(6, 5, 1), result);
+        for (String phoneNumber : fresh) {
+            assertEquals(Set.of(UserService.DEFAULT_ROLE), userService.findUserByPhoneNumber(phoneNumber).getRoles());
+        }
+        assertEquals(Set.of(existing), userRepository.findExistingPhoneNumbers(List.of(existing)));
+    }
+
+    @Test
+    void importingTheSameListAgainCreatesNothing() {
+        List<String> phoneNumbers = List.of(phoneNumber(), phoneNumber(), phoneNumber(), phoneNumber());
+
+        assertEquals(new UserImportResultDto(4, 4, 0), userImportService.importUsers(phoneNumbers));
+        assertEquals(new UserImportResultDto(4, 0, 4), userImportService.importUsers(phoneNumbers));
+    }
+
+    /**
+     * Two users of one chunk are created by other transactions while the import runs.
+     * <p>
+     * The batch insert waits for the first one and fails once it commits, so the chunk falls
+     * back to row-by-row upserts. The second one is still uncommitted when the fallback checks
+     * which users exist, so the fallback upserts it and waits again; after it commits, the
+     * upsert returns without having inserted anything. Neither user was created by the import.
+     * </p>
+     */
+    @Test
+    void usersCreatedConcurrentlyAreNotCountedAsCreated() throws Exception {
+        String first = phoneNumber();
+        String second = phoneNumber();
+
+        try (Connection firstLogin = primaryDataSource.getConnection();
+             Connection secondLogin = primaryDataSource.getConnection()) {
+            insertUncommitted(firstLogin, first);
+            insertUncommitted(secondLogin, second);
+
+            CompletableFuture<UserImportResultDto> result =
+                    CompletableFuture.supplyAsync(() -> userImportService.importUsers(List.of(first, second)));
+
+            awaitLockWait("insert into users%");
+            firstLogin.commit();
+            awaitLockWait("%ON CONFLICT%");
+            secondLogin.commit();
+
+            assertEquals(new UserImportResultDto(2, 0, 2), result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(Set.of(first, second), userRepository.findExistingPhoneNumbers(List.of(first, second)));
+    }
+
+    /**
+     * {@code db/users-id-sequence-migration.sql} on a table created by the IDENTITY version,
+     * in a schema of its own.
+     */
+    @Test
+    void idSequenceMigrationContinuesAboveTheExistingIds() throws SQLException {
+        JdbcTemplate jdbc = new JdbcTemplate(primaryDataSource);
+        jdbc.execute("DROP SCHEMA IF EXISTS " + MIGRATION_SCHEMA + " CASCADE");
+        jdbc.execute("CREATE SCHEMA " + MIGRATION_SCHEMA);
+        try {
+            jdbc.execute("CREATE TABLE " + MIGRATION_SCHEMA + ".users ("
+                    + "id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, phone_number varchar(255) UNIQUE)");
+            jdbc.execute("INSERT INTO " + MIGRATION_SCHEMA + ".users (id, phone_number) VALUES (7, '+1'), (120, '+2')");
+
+            try (Connection connection = primaryDataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET search_path TO " + MIGRATION_SCHEMA);
+                }
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/users-id-sequence-migration.sql"));
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("RESET search_path");
+                }
+            }
+
+            long next = jdbc.queryForObject("SELECT nextval('" + MIGRATION_SCHEMA + ".users_seq')", Long.class);
+            assertTrue(next - 49 > 120, "the block ending at " + next + " overlaps the existing IDs");
+            assertEquals("NO", jdbc.queryForObject(
+                    "SELECT is_identity FROM information_schema.columns"
+                            + " WHERE table_schema = ? AND table_name = 'users' AND column_name = 'id'",
+                    String.class, MIGRATION_SCHEMA));
+        } finally {
+            jdbc.execute("DROP SCHEMA IF EXISTS " + MIGRATION_SCHEMA + " CASCADE");
+        }
+    }
+
+    /**
+     * Inserts a user in a transaction that is left open, as a login that has not committed yet.
+     */
+    private static void insertUncommitted(Connection connection, String phoneNumber) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (id, phone_number) VALUES (nextval('users_seq'), ?)")) {
+            insert.setString(1, phoneNumber);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Waits until a statement matching the pattern is blocked on a lock.
+     */
+    private void awaitLockWait(String queryPattern) throws InterruptedException {
+        JdbcTemplate jdbc = new JdbcTemplate(primaryDataSource);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbc.queryForObject("SELECT count(*) FROM pg_stat_activity"
+                        + " WHERE datname = current_database() AND wait_event_type = 'Lock' AND query ILIKE ?",
+                Integer.class, queryPattern) == 0) {
+            assertTrue(System.nanoTime() < deadline, "no statement like '" + queryPattern + "' is waiting for a lock");
+            Thread.sleep(20);
+        }
+    }
+
+    private static String phoneNumber() {
+        return "+1666" + ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.model.User;
+import com.example.demo.auth.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test for {@link UserService#findOrCreateUserByPhoneNumber(String)} under
+ * parallel first logins for the same phone number.
+ * <p>
+ * The user cache is disabled so every call reaches the database upsert.
+ * </p>
+ */
+@SpringBootTest(properties = "user.cache.enabled=false")
+class UserServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void parallelFirstLoginsResolveToSingleUser() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int round = 0; round < ROUNDS; round++) {
+                String phoneNumber = "+1999" + ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L);
+                CountDownLatch start = new CountDownLatch(1);
+
+                List<Future<User>> results = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return userService.findOrCreateUserByPhoneNumber(phoneNumber);
+                    }));
+                }
+                start.countDown();
+
+                Set<Long> ids = new HashSet<>();
+                for (Future<User> result : results) {
+                    User user = result.get();
+                    assertEquals(phoneNumber, user.getPhoneNumber());
+                    assertEquals(Set.of(UserService.DEFAULT_ROLE), user.getRoles());
+                    ids.add(user.getId());
+                }
+
+                assertEquals(1, ids.size(), "all callers must see the same user");
+                assertTrue(userRepository.findViewByPhoneNumber(phoneNumber).isPresent());
+                assertEquals(Set.of(UserService.DEFAULT_ROLE), userRepository.findByPhoneNumber(phoneNumber)
+                        .map(user -> Set.copyOf(user.getRoles()))
+                        .orElseThrow());
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.auth.service;
+
+import com.example.demo.auth.concurrent.DatabaseConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link UserService} and {@link UserImportService} calls and the {@link DatabaseConcurrencyLimiter}.
+ * <p>
+ * There is a single permit, which the test holds while it calls the services: cached users are
+ * still returned, while cache misses and every other database call time out waiting for it.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "db.concurrency.limit=1",
+        "db.concurrency.acquire-timeout=200ms"
+})
+class UserServicePermitTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+
+    @Test
+    void cachedUsersAreReturnedWithoutAPermit() {
+        String phoneNumber = phoneNumber();
+        userService.findOrCreateUserByPhoneNumber(phoneNumber);
+        userService.getUser(phoneNumber);
+
+        databaseConcurrencyLimiter.run(() -> {
+            assertEquals(phoneNumber, userService.findUserByPhoneNumber(phoneNumber).getPhoneNumber());
+            assertEquals(phoneNumber, userService.findOrCreateUserByPhoneNumber(phoneNumber).getPhoneNumber());
+            assertEquals(phoneNumber, userService.getUser(phoneNumber).getPhoneNumber());
+        });
+    }
+
+    @Test
+    void cacheMissesWaitForAPermit() {
+        String phoneNumber = phoneNumber();
+
+        databaseConcurrencyLimiter.run(() -> {
+            assertThrows(IllegalStateException.class, () -> userService.findOrCreateUserByPhoneNumber(phoneNumber));
+            assertThrows(IllegalStateException.class, () -> userService.findUserByPhoneNumber(phoneNumber));
+            assertThrows(IllegalStateException.class, () -> userService.getUser(phoneNumber));
+        });
+        assertEquals(phoneNumber, userService.findOrCreateUserByPhoneNumber(phoneNumber).getPhoneNumber());
+    }
+
+    @Test
+    void pagesRoleChangesStreamsAndImportsWaitForAPermit() {
+        String phoneNumber = phoneNumber();
+        userService.findOrCreateUserByPhoneNumber(phoneNumber);
+
+        databaseConcurrencyLimiter.run(() -> {
+            assertThrows(IllegalStateException.class, () -> userService.getUsersPage(null, 1));
+            assertThrows(IllegalStateException.class, () -> userService.updateRoles(phoneNumber, Set.of("ROLE_ADMIN")));
+            assertThrows(IllegalStateException.class, () -> userService.forEachUser(user -> fail("streamed " + user)));
+            assertThrows(IllegalStateException.class, () -> userImportService.importUsers(List.of(phoneNumber())));
+        });
+        assertEquals(Set.of(UserService.DEFAULT_ROLE), userService.findUserByPhoneNumber(phoneNumber).getRoles());
+        assertEquals(1, userService.getUsersPage(null, 1).getUsers().size());
+    }
+
+    @Test
+    void streamHoldsItsPermitUntilTheLastUser() {
+        userService.findOrCreateUserByPhoneNumber(phoneNumber());
+        AtomicInteger streamed = new AtomicInteger();
+
+        userService.forEachUser(user -> {
+            assertEquals(0, databaseConcurrencyLimiter.availablePermits());
+            streamed.incrementAndGet();
+        });
+
+        assertTrue(streamed.get() > 0);
+        assertEquals(1, databaseConcurrencyLimiter.availablePermits());
+    }
+
+    private static String phoneNumber() {
+        return "+1444" + ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L);
+    }
+}
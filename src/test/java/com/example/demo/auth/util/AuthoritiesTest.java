@@ -0,0 +1,42 @@
+package com.example.demo.auth.util;
+
+import com.example.demo.auth.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthoritiesTest {
+
+    @Test
+    void sameRoleNameYieldsSameAuthorityInstance() {
+        assertSame(Authorities.of("ROLE_USER"), Authorities.of("ROLE_USER"));
+        assertEquals("ROLE_ADMIN", Authorities.of("ROLE_ADMIN").getAuthority());
+    }
+
+    @Test
+    void usersAndTokenPrincipalsWithSameRolesShareOneAuthoritySet() {
+        User first = new User("+15550001", new HashSet<>(Set.of("ROLE_USER", "ROLE_ADMIN")));
+        User second = new User("+15550002", new HashSet<>(List.of("ROLE_ADMIN", "ROLE_USER")));
+
+        assertSame(first.getAuthorities(), second.getAuthorities());
+        assertSame(first.getAuthorities(), Authorities.forRoles(Set.of("ROLE_ADMIN", "ROLE_USER")));
+        assertNotSame(first.getAuthorities(), Authorities.forRoles(Set.of("ROLE_USER")));
+    }
+
+    @Test
+    void authoritySetIsImmutableAndDetachedFromTheRoles() {
+        Set<String> roles = new HashSet<>(Set.of("ROLE_USER"));
+        Set<GrantedAuthority> authorities = Authorities.forRoles(roles);
+
+        roles.add("ROLE_ADMIN");
+
+        assertEquals(Set.of(Authorities.of("ROLE_USER")), authorities);
+        assertThrows(UnsupportedOperationException.class, () -> authorities.add(Authorities.of("ROLE_ADMIN")));
+        assertEquals(2, Authorities.forRoles(roles).size());
+    }
+}